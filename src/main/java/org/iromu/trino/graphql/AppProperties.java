@@ -21,6 +21,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -40,6 +41,11 @@ import java.util.List;
  * <li>Schema sanitization options for invalid GraphQL object names</li>
  * <li>Caching behavior</li>
  * <li>Catalog and schema inclusion/exclusion filtering</li>
+ * <li>Concurrency of the metadata crawl and schema refresh</li>
+ * <li>Retries and repair of failed metadata requests</li>
+ * <li>Relation fields generated from detected joins</li>
+ * <li>Approximate aggregate fields</li>
+ * <li>Live-query subscriptions</li>
  * </ul>
  *
  *
@@ -76,7 +82,8 @@ public class AppProperties {
 	public static final String APP_PREFIX = "app";
 
 	/**
-	 * Filesystem directory where the Trino schema definitions will be stored.
+	 * Filesystem directory where the Trino schema definitions will be stored, as a single
+	 * {@code metadata.snapshot} file.
 	 * <p>
 	 * Defaults to {@code /etc/schema}.
 	 * </p>
@@ -136,4 +143,215 @@ public class AppProperties {
 	 */
 	private List<String> excludeSchemas = List.of("information_schema");
 
+	/**
+	 * Maximum number of metadata requests sent to Trino at the same time while crawling
+	 * catalogs, schemas and tables.
+	 * <p>
+	 * Defaults to 8.
+	 * </p>
+	 */
+	private int metadataConcurrency = 8;
+
+	/**
+	 * Maximum number of metadata requests sent at the same time for a single catalog.
+	 * <p>
+	 * Keeps a large catalog from taking every slot of {@link #metadataConcurrency} or
+	 * overloading its connector. Defaults to 4.
+	 * </p>
+	 */
+	private int metadataCatalogConcurrency = 4;
+
+	/**
+	 * Whether to read the columns of every table of a catalog with a single
+	 * {@code information_schema.columns} query instead of one {@code DESCRIBE} per table.
+	 * <p>
+	 * Defaults to {@code true}.
+	 * </p>
+	 */
+	private boolean bulkColumnMetadata = true;
+
+	/**
+	 * Whether only the catalogs are listed at startup, and the tables of a catalog are
+	 * crawled and added to the GraphQL schema the first time a request uses it.
+	 * <p>
+	 * Until then, its tables are missing from introspection and the SDL. Defaults to
+	 * {@code false}.
+	 * </p>
+	 */
+	private boolean lazyCatalogs;
+
+	/**
+	 * Whether every included catalog is also served on its own GraphQL endpoint, at
+	 * {@code /api/{catalog}}, with a schema holding only its tables.
+	 * <p>
+	 * Catalog schemas are built on the first request to their endpoint and refreshed
+	 * independently. Defaults to {@code false}.
+	 * </p>
+	 */
+	private boolean catalogEndpoints;
+
+	/**
+	 * Whether tables with the same column names and types, in the same order, share one
+	 * GraphQL output type, named {@code Row_<fingerprint>}, instead of getting a type
+	 * each.
+	 * <p>
+	 * Query fields stay distinct per table. Tables with relation fields keep a type of
+	 * their own. Defaults to {@code false}.
+	 * </p>
+	 */
+	private boolean sharedTableTypes;
+
+	/**
+	 * Whether the metadata the GraphQL schema is built from is saved to a schema snapshot
+	 * in the schema folder after every full crawl, and the gateway starts from that
+	 * snapshot, without contacting Trino.
+	 * <p>
+	 * A start from the snapshot is followed by a background refresh from live metadata.
+	 * Ignored with lazy catalogs. Defaults to {@code false}.
+	 * </p>
+	 */
+	private boolean schemaSnapshot;
+
+	/**
+	 * Whether the gateway starts from the schema snapshot bundled in the application by
+	 * the {@code native} build profile, when there is no saved schema snapshot.
+	 * <p>
+	 * Always enabled in a native image. Ignored with lazy catalogs. Defaults to
+	 * {@code false}.
+	 * </p>
+	 */
+	private boolean bundledSchemaSnapshot;
+
+	/**
+	 * Interval between background rebuilds of the GraphQL schema from fresh Trino
+	 * metadata.
+	 * <p>
+	 * Disabled by default; the schema can still be refreshed on demand with
+	 * {@code POST /schema/refresh}.
+	 * </p>
+	 */
+	private Duration schemaRefreshInterval;
+
+	/**
+	 * Number of times a failed metadata request is retried before it is reported as
+	 * failed.
+	 * <p>
+	 * Defaults to 2.
+	 * </p>
+	 */
+	private int metadataRetries = 2;
+
+	/**
+	 * Wait before the first retry of a failed metadata request, doubled on every further
+	 * retry.
+	 * <p>
+	 * Defaults to 500 milliseconds.
+	 * </p>
+	 */
+	private Duration metadataRetryBackoff = Duration.ofMillis(500);
+
+	/**
+	 * How long a failed metadata request is remembered, during which it is answered with
+	 * an empty result instead of being sent to Trino again. Doubled on every consecutive
+	 * failure of the same request, up to 32 times. Failures are never written to the
+	 * metadata cache.
+	 * <p>
+	 * Defaults to 30 seconds.
+	 * </p>
+	 */
+	private Duration metadataFailureTtl = Duration.ofSeconds(30);
+
+	/**
+	 * Interval of the background pass retrying failed metadata requests once their
+	 * {@link #metadataFailureTtl} is over, rebuilding the schema if any succeeds. Zero
+	 * disables the pass.
+	 * <p>
+	 * Defaults to 1 minute.
+	 * </p>
+	 */
+	private Duration metadataRepairInterval = Duration.ofMinutes(1);
+
+	/**
+	 * Whether to expose an aggregate field per table with Trino's approximate aggregate
+	 * functions.
+	 * <p>
+	 * When enabled, every table gets a <code>&lt;table&gt;_aggregate</code> query field
+	 * offering {@code approx_distinct}, {@code approx_percentile} and
+	 * {@code approx_most_frequent} over its columns.
+	 * </p>
+	 */
+	private boolean aggregateFields = false;
+
+	/**
+	 * Whether to expose join relationships detected between tables as nested fields.
+	 * <p>
+	 * When enabled, each relation found by the {@code JoinDetector} becomes an object or
+	 * list field on the table type, resolved in batches through a per-request DataLoader.
+	 * </p>
+	 */
+	private boolean relationFields = false;
+
+	/**
+	 * How selected relation fields are fetched from Trino.
+	 * <p>
+	 * Defaults to {@link RelationStrategy#BATCH}.
+	 * </p>
+	 */
+	private RelationStrategy relationStrategy = RelationStrategy.BATCH;
+
+	/**
+	 * Whether to expose a live subscription field per table.
+	 * <p>
+	 * When enabled, every table gets a <code>&lt;table&gt;_live</code> subscription field
+	 * that re-runs its query on an interval and pushes only the inserted, updated and
+	 * deleted rows.
+	 * </p>
+	 */
+	private boolean liveSubscriptions = false;
+
+	/**
+	 * Default polling interval of live subscriptions, used when the subscription does not
+	 * set one.
+	 * <p>
+	 * Defaults to 10 seconds.
+	 * </p>
+	 */
+	private Duration liveInterval = Duration.ofSeconds(10);
+
+	/**
+	 * Shortest polling interval a live subscription may request.
+	 * <p>
+	 * Defaults to 1 second, protecting Trino from clients polling too often.
+	 * </p>
+	 */
+	private Duration liveMinInterval = Duration.ofSeconds(1);
+
+	/**
+	 * Number of results buffered for each live subscriber.
+	 * <p>
+	 * Subscribers of the same query share one polling pipeline; a subscriber that falls
+	 * further behind loses its oldest buffered results. Defaults to 4.
+	 * </p>
+	 */
+	private int liveSubscriberBuffer = 4;
+
+	/**
+	 * Strategies available to fetch relation fields.
+	 */
+	public enum RelationStrategy {
+
+		/**
+		 * One batched {@code IN} query per relation and nesting level, through a
+		 * per-request DataLoader.
+		 */
+		BATCH,
+
+		/**
+		 * A single query per root table field, joining every selected relation in Trino
+		 * and projecting only the selected columns.
+		 */
+		JOIN
+
+	}
+
 }
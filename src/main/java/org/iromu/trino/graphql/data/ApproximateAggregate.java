@@ -0,0 +1,100 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data;
+
+import lombok.Value;
+
+/**
+ * A single Trino approximate aggregate function call over one column, as selected through
+ * a generated aggregate field.
+ * <p>
+ * Approximate functions trade a bounded error for a much lower cost than their exact
+ * counterparts ({@code COUNT(DISTINCT)}, exact percentiles, {@code GROUP BY} top-k).
+ * </p>
+ *
+ * @author Ivan Rodriguez
+ */
+@Value
+public class ApproximateAggregate {
+
+	/** Alias of the aggregate in the SQL projection. */
+	String alias;
+
+	/** Function to apply. */
+	Function function;
+
+	/** Sanitized name of the aggregated column. */
+	String column;
+
+	/**
+	 * Function parameter: the maximum standard error for {@code approx_distinct}, the
+	 * percentage for {@code approx_percentile} and the number of buckets for
+	 * {@code approx_most_frequent}. Optional only for {@code approx_distinct}.
+	 */
+	Number parameter;
+
+	/**
+	 * Capacity of {@code approx_most_frequent}, bounding its error; unused otherwise.
+	 */
+	Integer capacity;
+
+	/**
+	 * Supported Trino approximate aggregate functions.
+	 */
+	public enum Function {
+
+		/** {@code approx_distinct(x[, e])}: approximate number of distinct values. */
+		APPROX_DISTINCT,
+
+		/** {@code approx_percentile(x, percentage)}: approximate percentile. */
+		APPROX_PERCENTILE,
+
+		/**
+		 * {@code approx_most_frequent(buckets, x, capacity)}: approximate top values with
+		 * their frequencies.
+		 */
+		APPROX_MOST_FREQUENT;
+
+		/**
+		 * Returns the name of the function in Trino and in the generated schema.
+		 * @return the lowercase function name
+		 */
+		public String sqlName() {
+			return name().toLowerCase();
+		}
+
+		/**
+		 * Whether the function can be applied to a column of the given Trino type.
+		 * @param trinoType the Trino column type (e.g. {@code bigint},
+		 * {@code varchar(25)})
+		 * @return {@code true} if the column can be aggregated with this function
+		 */
+		public boolean supports(String trinoType) {
+			String type = trinoType.trim().toLowerCase();
+			boolean integral = type.equals("tinyint") || type.equals("smallint") || type.equals("integer")
+					|| type.equals("bigint");
+			return switch (this) {
+				case APPROX_DISTINCT -> !type.startsWith("array") && !type.startsWith("map") && !type.startsWith("row")
+						&& !type.equals("json");
+				case APPROX_PERCENTILE -> integral || type.equals("real") || type.equals("double");
+				case APPROX_MOST_FREQUENT -> integral || type.startsWith("varchar");
+			};
+		}
+
+	}
+
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data;
+
+import lombok.extern.slf4j.Slf4j;
+import org.iromu.trino.graphql.AppProperties;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Turns a Trino query into a live query: the query is re-run on a fixed interval and only
+ * the rows inserted, updated or deleted since the previous run are emitted.
+ * <p>
+ * Rows are matched between runs by the values of the given key columns; when no key is
+ * given the whole row is the key, so a changed row is reported as a delete and an insert,
+ * and identical rows are counted. The query must sort its rows, so that a table larger
+ * than the limit yields the same rows on every run. The first run reports every row as
+ * inserted, and runs that change nothing emit nothing.
+ * </p>
+ * <p>
+ * Subscriptions are multiplexed by canonical query: all subscribers of the same query
+ * share a single polling pipeline, so Trino load grows with the number of distinct
+ * queries rather than with the number of connected clients. Each subscriber diffs the
+ * shared results on its own and reads them through a bounded buffer; a slow subscriber
+ * loses intermediate results, never the latest one, and still gets a correct diff against
+ * the last result it saw.
+ * </p>
+ *
+ * @author Ivan Rodriguez
+ */
+@Service
+@Slf4j
+public class LiveQueryService {
+
+	private final AppProperties app;
+
+	/** Active polling pipelines, keyed by canonical query. */
+	private final Map<String, Flux<List<Map<String, Object>>>> pipelines = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructs the live query service.
+	 * @param app application properties holding the subscriber buffer size
+	 */
+	public LiveQueryService(AppProperties app) {
+		this.app = app;
+	}
+
+	/**
+	 * Polls a query on a fixed interval and emits the changes between consecutive
+	 * results. The query is shared with every other subscriber of the same key.
+	 * @param queryKey canonical form of the query, see {@link #queryKey}
+	 * @param query the query to run, called on a blocking-friendly scheduler
+	 * @param keyColumns sanitized names of the columns identifying a row, or empty to
+	 * compare whole rows
+	 * @param interval time between the start of two consecutive runs
+	 * @return a stream of non-empty change lists, one per run that changed the result
+	 */
+	public Flux<List<RowChange>> live(String queryKey, Supplier<List<Map<String, Object>>> query,
+			List<String> keyColumns, Duration interval) {
+		return diff(share(queryKey, query, interval), keyColumns);
+	}
+
+	/**
+	 * Subscribes to the shared polling pipeline of a query, starting it if no other
+	 * subscriber is active.
+	 * <p>
+	 * A new subscriber immediately gets the latest result of a running pipeline. The
+	 * pipeline stops when its last subscriber cancels.
+	 * </p>
+	 * @param queryKey canonical form of the query, identifying the pipeline
+	 * @param query the query to run if the pipeline has to be started
+	 * @param interval time between the start of two consecutive runs, part of the key
+	 * @return the results of the shared pipeline, buffered for this subscriber
+	 */
+	public Flux<List<Map<String, Object>>> share(String queryKey, Supplier<List<Map<String, Object>>> query,
+			Duration interval) {
+		return Flux
+			.defer(() -> pipelines.computeIfAbsent(queryKey,
+					key -> pipeline(key, poll(query, interval), source -> source.replay(1).refCount())))
+			.onBackpressureBuffer(app.getLiveSubscriberBuffer(),
+					dropped -> log.debug("Slow live query subscriber skipped a result of {}", queryKey),
+					BufferOverflowStrategy.DROP_OLDEST);
+	}
+
+	/**
+	 * Tails an append-only table: emits only the rows appended after a watermark, which
+	 * is carried forward server-side from the last row of every run.
+	 * <p>
+	 * The first run only establishes the starting watermark, so rows appended from then
+	 * on are emitted. Shared tails are joined by later subscribers of the same key at the
+	 * current watermark, so they should start from the current end of the table; a tail
+	 * starting from a given watermark runs on its own. As skipping appended rows would go
+	 * unnoticed, a subscriber whose buffer overflows gets an error instead.
+	 * </p>
+	 * @param queryKey canonical form of the query, identifying the pipeline
+	 * @param shared whether the pipeline is shared with the other subscribers of the key
+	 * @param start supplies the starting watermark, may return {@code null} to read from
+	 * the beginning of the table
+	 * @param query fetches the rows after a watermark, in ascending watermark order,
+	 * given the watermark and the number of rows holding it that were already emitted;
+	 * these are returned again, first, and dropped
+	 * @param watermarkColumn sanitized name of the watermark column
+	 * @param interval time between the start of two consecutive runs
+	 * @return a stream of non-empty lists of appended rows
+	 */
+	public Flux<List<Map<String, Object>>> tail(String queryKey, boolean shared, Supplier<Object> start,
+			BiFunction<Object, Integer, List<Map<String, Object>>> query, String watermarkColumn, Duration interval) {
+		return Flux.defer(() -> {
+			Flux<List<Map<String, Object>>> source = poll(watermarked(start, query, watermarkColumn), interval);
+			return shared ? pipelines.computeIfAbsent(queryKey, key -> pipeline(key, source, Flux::share)) : source;
+		})
+			.filter(rows -> !rows.isEmpty())
+			.onBackpressureBuffer(app.getLiveSubscriberBuffer(),
+					dropped -> log.warn("Slow live query subscriber of {} overflowed its buffer", queryKey),
+					BufferOverflowStrategy.ERROR);
+	}
+
+	/**
+	 * Wraps a watermark query into a query carrying its watermark from run to run.
+	 * <p>
+	 * The rows already emitted that hold the current watermark are remembered, counting
+	 * identical rows, and dropped when the query returns them again, so rows sharing the
+	 * watermark with them are neither skipped nor emitted twice.
+	 * </p>
+	 * @param start supplies the starting watermark
+	 * @param query fetches the rows after a watermark
+	 * @param watermarkColumn sanitized name of the watermark column
+	 * @return a query returning the rows appended since its previous run
+	 */
+	private static Supplier<List<Map<String, Object>>> watermarked(Supplier<Object> start,
+			BiFunction<Object, Integer, List<Map<String, Object>>> query, String watermarkColumn) {
+		AtomicBoolean started = new AtomicBoolean();
+		AtomicReference<Object> watermark = new AtomicReference<>();
+		Map<Map<String, Object>, Integer> boundary = new HashMap<>();
+		return () -> {
+			if (!started.get()) {
+				watermark.set(start.get());
+				started.set(true);
+				return List.of();
+			}
+			Map<Map<String, Object>, Integer> seen = new HashMap<>(boundary);
+			int count = seen.values().stream().mapToInt(Integer::intValue).sum();
+			List<Map<String, Object>> rows = new ArrayList<>();
+			for (Map<String, Object> row : query.apply(watermark.get(), count)) {
+				Integer copies = seen.get(row);
+				if (copies == null) {
+					rows.add(row);
+				}
+				else if (copies == 1) {
+					seen.remove(row);
+				}
+				else {
+					seen.put(row, copies - 1);
+				}
+			}
+			if (!rows.isEmpty()) {
+				Object last = rows.get(rows.size() - 1).get(watermarkColumn);
+				if (!Objects.equals(last, watermark.get())) {
+					boundary.clear();
+					watermark.set(last);
+				}
+				for (Map<String, Object> row : rows) {
+					if (Objects.equals(row.get(watermarkColumn), last))
+						boundary.merge(row, 1, Integer::sum);
+				}
+			}
+			return rows;
+		};
+	}
+
+	/**
+	 * Returns the number of polling pipelines currently running.
+	 * @return the number of distinct live queries being polled
+	 */
+	public int getActivePipelines() {
+		return pipelines.size();
+	}
+
+	/**
+	 * Turns a polling stream into a pipeline shared by all subscribers of a key, removed
+	 * from the active pipelines when it stops.
+	 * <p>
+	 * A subscriber may get the pipeline right before it stops and subscribe right after,
+	 * restarting it: the pipeline then registers itself again unless another pipeline
+	 * took over its key. Only the pipeline itself is ever removed from its key.
+	 * </p>
+	 * @param queryKey canonical form of the query
+	 * @param source the polling stream
+	 * @param multicast how the stream is shared, stopping with its last subscriber
+	 * @return the shared pipeline
+	 */
+	private Flux<List<Map<String, Object>>> pipeline(String queryKey, Flux<List<Map<String, Object>>> source,
+			Function<Flux<List<Map<String, Object>>>, Flux<List<Map<String, Object>>>> multicast) {
+		log.debug("Starting live query pipeline {}", queryKey);
+		AtomicReference<Flux<List<Map<String, Object>>>> self = new AtomicReference<>();
+		Flux<List<Map<String, Object>>> pipeline = multicast.apply(
+				source.doOnSubscribe(subscription -> pipelines.putIfAbsent(queryKey, self.get())).doFinally(signal -> {
+					log.debug("Stopping live query pipeline {}", queryKey);
+					pipelines.remove(queryKey, self.get());
+				}));
+		self.set(pipeline);
+		return pipeline;
+	}
+
+	/**
+	 * Builds the canonical form of a table query, used to share the polling pipeline of
+	 * identical live subscriptions. Filter fields are sorted by name so that equivalent
+	 * arguments produce the same key.
+	 * @param catalog the catalog of the table
+	 * @param schema the schema of the table
+	 * @param table the table name
+	 * @param limit the row limit
+	 * @param filters the filters, may be {@code null}
+	 * @param interval the polling interval
+	 * @return the canonical query key
+	 */
+	public static String queryKey(String catalog, String schema, String table, int limit,
+			List<Map<String, Object>> filters, Duration interval) {
+		StringBuilder key = new StringBuilder().append(catalog)
+			.append('.')
+			.append(schema)
+			.append('.')
+			.append(table)
+			.append("|limit=")
+			.append(limit)
+			.append("|every=")
+			.append(interval);
+		if (filters != null) {
+			for (Map<String, Object> filter : filters) {
+				key.append('|').append(new TreeMap<>(filter));
+			}
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Runs a query on a fixed interval.
+	 * <p>
+	 * Ticks that arrive while a run is still in progress are dropped, and a failing run
+	 * is logged and skipped so that a transient Trino error does not end the
+	 * subscription.
+	 * </p>
+	 * @param query the query to run
+	 * @param interval time between the start of two consecutive runs
+	 * @return a stream with the result of every successful run
+	 */
+	public Flux<List<Map<String, Object>>> poll(Supplier<List<Map<String, Object>>> query, Duration interval) {
+		return Flux.interval(Duration.ZERO, interval)
+			.onBackpressureDrop()
+			.concatMap(tick -> Mono.fromSupplier(query).subscribeOn(Schedulers.boundedElastic()).onErrorResume(e -> {
+				log.warn("Live query poll failed, retrying in {}: {}", interval, e.getMessage());
+				return Mono.empty();
+			}), 1);
+	}
+
+	/**
+	 * Converts a stream of full results into a stream of the changes between consecutive
+	 * results. Every subscription keeps its own previous result.
+	 * @param results the successive results of a query
+	 * @param keyColumns sanitized names of the columns identifying a row, or empty to
+	 * compare whole rows
+	 * @return a stream of non-empty change lists
+	 */
+	public Flux<List<RowChange>> diff(Flux<List<Map<String, Object>>> results, List<String> keyColumns) {
+		return Flux.defer(() -> {
+			AtomicReference<Map<Object, Map<String, Object>>> previous = new AtomicReference<>(Map.of());
+			return results.map(rows -> {
+				Map<Object, Map<String, Object>> current = index(rows, keyColumns);
+				List<RowChange> changes = diff(previous.get(), current);
+				previous.set(current);
+				return changes;
+			}).filter(changes -> !changes.isEmpty());
+		});
+	}
+
+	/**
+	 * Computes the changes between two results indexed by row key.
+	 * <p>
+	 * Inserts and updates are reported in the order of the current result, followed by
+	 * deletes in the order of the previous one.
+	 * </p>
+	 * @param previous the previous result, indexed by row key
+	 * @param current the current result, indexed by row key
+	 * @return the changes, empty if both results are equal
+	 */
+	public static List<RowChange> diff(Map<Object, Map<String, Object>> previous,
+			Map<Object, Map<String, Object>> current) {
+		List<RowChange> changes = new ArrayList<>();
+		current.forEach((key, row) -> {
+			Map<String, Object> old = previous.get(key);
+			if (old == null)
+				changes.add(new RowChange(RowChange.Operation.INSERT, row));
+			else if (!old.equals(row))
+				changes.add(new RowChange(RowChange.Operation.UPDATE, row));
+		});
+		previous.forEach((key, row) -> {
+			if (!current.containsKey(key))
+				changes.add(new RowChange(RowChange.Operation.DELETE, row));
+		});
+		return changes;
+	}
+
+	/**
+	 * Indexes rows by the values of their key columns, or by the whole row when no key
+	 * column is given. Later rows win over earlier ones with the same key values, while
+	 * identical rows without a key are all kept, the n-th copy keyed by the row and its
+	 * copy number, so that one more or one less copy is reported as an insert or delete.
+	 * @param rows the rows to index
+	 * @param keyColumns sanitized names of the key columns
+	 * @return the rows in result order, indexed by key
+	 */
+	public static Map<Object, Map<String, Object>> index(List<Map<String, Object>> rows, List<String> keyColumns) {
+		Map<Object, Map<String, Object>> indexed = new LinkedHashMap<>();
+		Map<Map<String, Object>, Integer> copies = new HashMap<>();
+		for (Map<String, Object> row : rows) {
+			Object key;
+			if (keyColumns == null || keyColumns.isEmpty()) {
+				int copy = copies.merge(row, 1, Integer::sum);
+				key = copy == 1 ? row : List.of(row, copy);
+			}
+			else {
+				List<Object> values = new ArrayList<>(keyColumns.size());
+				for (String column : keyColumns)
+					values.add(row.get(column));
+				key = values;
+			}
+			indexed.put(key, row);
+		}
+		return indexed;
+	}
+
+}
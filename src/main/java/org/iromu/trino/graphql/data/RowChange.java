@@ -0,0 +1,55 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * A row inserted, updated or deleted between two polls of a live query.
+ *
+ * @author Ivan Rodriguez
+ */
+@Value
+public class RowChange {
+
+	/** Kind of change. */
+	Operation operation;
+
+	/**
+	 * The row after the change, or the last known row for {@link Operation#DELETE}.
+	 */
+	Map<String, Object> row;
+
+	/**
+	 * Kinds of row changes.
+	 */
+	public enum Operation {
+
+		/** The row was not part of the previous result. */
+		INSERT,
+
+		/** A row with the same key was part of the previous result with other values. */
+		UPDATE,
+
+		/** The row is no longer part of the result. */
+		DELETE
+
+	}
+
+}
@@ -16,6 +16,8 @@
 
 package org.iromu.trino.graphql.data;
 
+import org.iromu.trino.graphql.data.metadata.MetadataIndex;
+import org.iromu.trino.graphql.data.metadata.TrinoMetadataCrawler;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.stereotype.Controller;
@@ -25,6 +27,11 @@ import java.util.List;
 /**
  * GraphQL resolver for querying Trino schema metadata such as catalogs, schemas, and
  * tables. Acts as a controller in the Spring Boot context and handles GraphQL queries.
+ * <p>
+ * Lookups are served from the {@link MetadataIndex} of the last metadata crawl, and only
+ * fall back to the {@link TrinoSchemaService} cache for catalogs and schemas the crawl
+ * did not read.
+ * </p>
  *
  * @author Ivan Rodriguez
  */
@@ -33,14 +40,18 @@ public class TrinoGraphQLResolver {
 
 	private final TrinoSchemaService trinoSchemaService;
 
+	private final TrinoMetadataCrawler metadataCrawler;
+
 	/**
 	 * Constructs a new {@code TrinoGraphQLResolver} with the provided
 	 * {@code TrinoSchemaService}.
 	 * @param trinoSchemaService the service used to interact with Trino schema
 	 * information
+	 * @param metadataCrawler the crawler publishing the metadata index
 	 */
-	public TrinoGraphQLResolver(TrinoSchemaService trinoSchemaService) {
+	public TrinoGraphQLResolver(TrinoSchemaService trinoSchemaService, TrinoMetadataCrawler metadataCrawler) {
 		this.trinoSchemaService = trinoSchemaService;
+		this.metadataCrawler = metadataCrawler;
 	}
 
 	/**
@@ -49,7 +60,8 @@ public class TrinoGraphQLResolver {
 	 */
 	@QueryMapping
 	public List<String> catalogs() {
-		return trinoSchemaService.getCatalogs();
+		List<String> catalogs = metadataCrawler.getIndex().getCatalogs();
+		return catalogs != null ? catalogs : trinoSchemaService.getCatalogs();
 	}
 
 	/**
@@ -59,7 +71,8 @@ public class TrinoGraphQLResolver {
 	 */
 	@QueryMapping
 	public List<String> schemas(@Argument String catalog) {
-		return trinoSchemaService.getSchemas(catalog);
+		List<String> schemas = metadataCrawler.getIndex().getSchemas(catalog);
+		return schemas != null ? schemas : trinoSchemaService.getSchemas(catalog);
 	}
 
 	/**
@@ -70,7 +83,8 @@ public class TrinoGraphQLResolver {
 	 */
 	@QueryMapping
 	public List<String> tables(@Argument String catalog, @Argument String schema) {
-		return trinoSchemaService.getTables(catalog, schema);
+		List<String> tables = metadataCrawler.getIndex().getTables(catalog, schema);
+		return tables != null ? tables : trinoSchemaService.getTables(catalog, schema);
 	}
 
 }
@@ -17,10 +17,23 @@
 package org.iromu.trino.graphql.data;
 
 import lombok.extern.slf4j.Slf4j;
+import org.iromu.trino.graphql.data.relations.JoinRelation;
+import org.iromu.trino.graphql.data.relations.RelationJoinPlan;
 import org.iromu.trino.graphql.schema.GraphQLSchemaFixer;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -34,6 +47,11 @@ import java.util.Map;
 @Slf4j
 public class TrinoQueryService {
 
+	/**
+	 * Column numbering the root rows of a joined query.
+	 */
+	private static final String ROW_NUMBER_COLUMN = "graphql_row";
+
 	private final JdbcTemplate jdbcTemplate;
 
 	private final GraphQLSchemaFixer fixer;
@@ -56,7 +74,8 @@ public class TrinoQueryService {
 	 * @throws IllegalArgumentException if no valid value is found
 	 */
 	private Object extractFilterValue(Map<String, Object> filter) {
-		for (String key : List.of("stringValue", "intValue", "floatValue", "booleanValue", "dateValue")) {
+		for (String key : List.of("stringValue", "intValue", "floatValue", "booleanValue", "longValue", "decimalValue",
+				"dateValue", "dateTimeValue")) {
 			if (filter.get(key) != null) {
 				return filter.get(key);
 			}
@@ -77,14 +96,94 @@ public class TrinoQueryService {
 	 */
 	public List<Map<String, Object>> queryTableWithFilters(String _catalog, String _schema, String _table, int limit,
 			List<Map<String, Object>> filters) {
+		return queryTableWithFilters(_catalog, _schema, _table, limit, filters, null);
+	}
+
+	/**
+	 * Executes a SQL query against a specific Trino table with optional filters, limit
+	 * and sampling.
+	 * @param _catalog the sanitized catalog name
+	 * @param _schema the sanitized schema name
+	 * @param _table the sanitized table name
+	 * @param limit the maximum number of rows to return
+	 * @param filters optional filters to apply as WHERE conditions
+	 * @param sample optional {@code method} and {@code percentage} emitted as a
+	 * {@code TABLESAMPLE} clause
+	 * @return a list of maps, each representing a row of data with sanitized field names
+	 * @throws IllegalArgumentException if an unsupported operator is used in the filter
+	 * or the sample is invalid
+	 */
+	public List<Map<String, Object>> queryTableWithFilters(String _catalog, String _schema, String _table, int limit,
+			List<Map<String, Object>> filters, Map<String, Object> sample) {
+		String query = buildFilteredQuery(_catalog, _schema, _table, limit, filters, sample);
+		log.info("{}", query); // Execute the query using the Trino service or another
+		// database connector
+		return sanitizeColumns(jdbcTemplate.queryForList(query));
+	}
+
+	/**
+	 * Executes a SQL query against a specific Trino table with optional filters, ordered
+	 * by the given columns so that successive runs read the same rows in the same order.
+	 * @param _catalog the sanitized catalog name
+	 * @param _schema the sanitized schema name
+	 * @param _table the sanitized table name
+	 * @param limit the maximum number of rows to return
+	 * @param filters optional filters to apply as WHERE conditions
+	 * @param orderBy sanitized names of the columns to sort the rows by
+	 * @return a list of maps, each representing a row of data with sanitized field names
+	 * @throws IllegalArgumentException if an unsupported operator is used in the filter
+	 */
+	public List<Map<String, Object>> queryTableOrdered(String _catalog, String _schema, String _table, int limit,
+			List<Map<String, Object>> filters, List<String> orderBy) {
+		String query = buildFilteredQuery(_catalog, _schema, _table, limit, filters, null, orderBy);
+		log.info("{}", query);
+		return sanitizeColumns(jdbcTemplate.queryForList(query));
+	}
+
+	private String buildFilteredQuery(String _catalog, String _schema, String _table, int limit,
+			List<Map<String, Object>> filters, Map<String, Object> sample) {
+		return buildFilteredQuery(_catalog, _schema, _table, limit, filters, sample, List.of());
+	}
 
+	/**
+	 * Builds the SQL query selecting the rows of a table that match the given filters.
+	 * @param _catalog the sanitized catalog name
+	 * @param _schema the sanitized schema name
+	 * @param _table the sanitized table name
+	 * @param limit the maximum number of rows to return
+	 * @param filters optional filters to apply as WHERE conditions
+	 * @param sample optional sampling of the table
+	 * @param orderBy sanitized names of the columns to sort the rows by, may be empty
+	 * @return the SQL query
+	 * @throws IllegalArgumentException if an unsupported operator is used in the filter
+	 * or the sample is invalid
+	 */
+	private String buildFilteredQuery(String _catalog, String _schema, String _table, int limit,
+			List<Map<String, Object>> filters, Map<String, Object> sample, List<String> orderBy) {
 		String catalog = fixer.restoreSanitizedSchema(_catalog);
 		String schema = fixer.restoreSanitizedSchema(_schema);
 		String table = fixer.restoreSanitizedSchema(_table);
 
 		// Construct the base SQL query (can be more dynamic if needed)
 		StringBuilder query = new StringBuilder("SELECT t1.* FROM " + catalog + "." + schema + "." + table + " t1");
+		appendSample(query, sample);
+		appendFilters(query, filters);
+		for (int i = 0; i < orderBy.size(); i++) {
+			query.append(i == 0 ? " ORDER BY " : ", ").append(fixer.restoreSanitizedSchema(orderBy.get(i)));
+		}
 
+		// Add LIMIT clause
+		query.append(" LIMIT ").append(limit);
+		return query.toString();
+	}
+
+	/**
+	 * Appends the WHERE clause matching the given filters, if any.
+	 * @param query the query being built
+	 * @param filters optional filters to apply as WHERE conditions
+	 * @throws IllegalArgumentException if an unsupported operator is used in the filter
+	 */
+	private void appendFilters(StringBuilder query, List<Map<String, Object>> filters) {
 		if (filters != null && !filters.isEmpty()) {
 			query.append(" WHERE ");
 
@@ -102,13 +201,15 @@ public class TrinoQueryService {
 				// Handle different operators (this can be extended as needed)
 				switch (operator.toLowerCase()) {
 					case "eq":
-						query.append(field).append(" = ").append(value);
+						query.append(field)
+							.append(" = ")
+							.append(value instanceof String ? value : toFilterLiteral(value));
 						break;
 					case "lt":
-						query.append(field).append(" < '").append(value).append("'");
+						query.append(field).append(" < ").append(toFilterLiteral(value));
 						break;
 					case "gt":
-						query.append(field).append(" > '").append(value).append("'");
+						query.append(field).append(" > ").append(toFilterLiteral(value));
 						break;
 					case "like":
 						query.append(field).append(" LIKE '%").append(value).append("%'");
@@ -118,14 +219,419 @@ public class TrinoQueryService {
 				}
 			}
 		}
+	}
 
-		// Add LIMIT clause
-		query.append(" LIMIT ").append(limit);
-		log.info("{}", query); // Execute the query using the Trino service or another
-		// database connector
-		List<Map<String, Object>> maps = jdbcTemplate.queryForList(query.toString());
+	/**
+	 * Fetches the rows of a table appended after a watermark, for tailing append-only
+	 * tables.
+	 * <p>
+	 * Rows are filtered with {@code column > watermark} on top of the given filters and
+	 * returned in ascending watermark order, so the watermark column of the last row is
+	 * the next watermark. A {@code null} watermark reads from the beginning of the table.
+	 * </p>
+	 * <p>
+	 * Rows sharing the watermark value may be split over several runs, or committed after
+	 * it was read. When some rows holding the watermark value were already seen, the
+	 * filter becomes {@code column >= watermark} and the limit grows by their number; the
+	 * caller drops them again. Rows with the same watermark are sorted on the given
+	 * columns, so the seen ones come back first.
+	 * </p>
+	 * @param _catalog the sanitized catalog name
+	 * @param _schema the sanitized schema name
+	 * @param _table the sanitized table name
+	 * @param limit the maximum number of new rows to return
+	 * @param filters optional filters to apply as WHERE conditions
+	 * @param _column the sanitized name of the watermark column
+	 * @param columnType the Trino type of the watermark column, used to cast the
+	 * watermark
+	 * @param watermark the last value already seen, or {@code null}
+	 * @param seen the number of rows holding the watermark value already seen
+	 * @param orderBy sanitized names of the columns sorting rows with the same watermark
+	 * @return a list of maps, each representing a row of data with sanitized field names
+	 * @throws IllegalArgumentException if an unsupported operator is used in the filter
+	 */
+	public List<Map<String, Object>> queryTableAfterWatermark(String _catalog, String _schema, String _table, int limit,
+			List<Map<String, Object>> filters, String _column, String columnType, Object watermark, int seen,
+			List<String> orderBy) {
+		String column = fixer.restoreSanitizedSchema(_column);
+		StringBuilder query = new StringBuilder("SELECT t1.* FROM " + fixer.restoreSanitizedSchema(_catalog) + "."
+				+ fixer.restoreSanitizedSchema(_schema) + "." + fixer.restoreSanitizedSchema(_table) + " t1");
+		appendFilters(query, filters);
+		if (watermark != null) {
+			query.append(filters != null && !filters.isEmpty() ? " AND " : " WHERE ")
+				.append(column)
+				.append(seen > 0 ? " >= " : " > ")
+				.append(toWatermarkLiteral(watermark, columnType));
+		}
+		query.append(" ORDER BY ").append(column);
+		for (String tiebreaker : orderBy) {
+			if (!tiebreaker.equals(_column))
+				query.append(", ").append(fixer.restoreSanitizedSchema(tiebreaker));
+		}
+		query.append(" LIMIT ").append(limit + seen);
+		log.info("{}", query);
+		return sanitizeColumns(jdbcTemplate.queryForList(query.toString()));
+	}
+
+	/**
+	 * Reads the current maximum of a watermark column, used as the starting point when
+	 * tailing a table.
+	 * @param _catalog the sanitized catalog name
+	 * @param _schema the sanitized schema name
+	 * @param _table the sanitized table name
+	 * @param filters optional filters to apply as WHERE conditions
+	 * @param _column the sanitized name of the watermark column
+	 * @return the maximum value, or {@code null} if no row matches
+	 * @throws IllegalArgumentException if an unsupported operator is used in the filter
+	 */
+	public Object queryMaxWatermark(String _catalog, String _schema, String _table, List<Map<String, Object>> filters,
+			String _column) {
+		StringBuilder query = new StringBuilder("SELECT max(" + fixer.restoreSanitizedSchema(_column) + ") FROM "
+				+ fixer.restoreSanitizedSchema(_catalog) + "." + fixer.restoreSanitizedSchema(_schema) + "."
+				+ fixer.restoreSanitizedSchema(_table) + " t1");
+		appendFilters(query, filters);
+		log.info("{}", query);
+		return jdbcTemplate.queryForObject(query.toString(), Object.class);
+	}
+
+	/**
+	 * Renders a watermark as a SQL literal of the watermark column type. Numbers are
+	 * written as is; anything else, including watermarks given by clients as strings, is
+	 * cast from its string form.
+	 * @param watermark the watermark value
+	 * @param columnType the Trino type of the watermark column
+	 * @return the SQL literal
+	 */
+	private String toWatermarkLiteral(Object watermark, String columnType) {
+		if (watermark instanceof Number) {
+			return watermark.toString();
+		}
+		String value = watermark instanceof LocalDateTime dateTime ? dateTime.toString().replace('T', ' ')
+				: watermark.toString();
+		return "CAST('" + value.replace("'", "''") + "' AS " + columnType + ")";
+	}
+
+	/**
+	 * Executes approximate aggregate functions over a Trino table in a single query.
+	 * @param _catalog the sanitized catalog name
+	 * @param _schema the sanitized schema name
+	 * @param _table the sanitized table name
+	 * @param aggregates the aggregate function calls to project
+	 * @param filters optional filters to apply as WHERE conditions
+	 * @param sample optional sampling of the table
+	 * @return the aggregate values keyed by aggregate alias
+	 * @throws IllegalArgumentException if an unsupported operator is used in the filter
+	 * or the sample is invalid
+	 */
+	public Map<String, Object> queryApproximateAggregates(String _catalog, String _schema, String _table,
+			List<ApproximateAggregate> aggregates, List<Map<String, Object>> filters, Map<String, Object> sample) {
+		if (aggregates.isEmpty())
+			return new LinkedHashMap<>();
+
+		StringBuilder query = new StringBuilder("SELECT ");
+		for (int i = 0; i < aggregates.size(); i++) {
+			ApproximateAggregate aggregate = aggregates.get(i);
+			String column = fixer.restoreSanitizedSchema(aggregate.getColumn());
+			if (i > 0) {
+				query.append(", ");
+			}
+			query.append(aggregate.getFunction().sqlName()).append("(");
+			switch (aggregate.getFunction()) {
+				case APPROX_DISTINCT:
+					query.append(column);
+					if (aggregate.getParameter() != null)
+						query.append(", ").append(aggregate.getParameter().doubleValue());
+					break;
+				case APPROX_PERCENTILE:
+					query.append(column).append(", ").append(aggregate.getParameter().doubleValue());
+					break;
+				case APPROX_MOST_FREQUENT:
+					query.append(aggregate.getParameter().intValue())
+						.append(", ")
+						.append(column)
+						.append(", ")
+						.append(aggregate.getCapacity());
+					break;
+			}
+			query.append(") AS ").append(aggregate.getAlias());
+		}
+		query.append(" FROM ")
+			.append(fixer.restoreSanitizedSchema(_catalog))
+			.append(".")
+			.append(fixer.restoreSanitizedSchema(_schema))
+			.append(".")
+			.append(fixer.restoreSanitizedSchema(_table))
+			.append(" t1");
+		appendSample(query, sample);
+		appendFilters(query, filters);
+		log.info("{}", query);
+		return jdbcTemplate.queryForMap(query.toString());
+	}
+
+	/**
+	 * Appends a {@code TABLESAMPLE} clause so that Trino only reads a fraction of the
+	 * table, either row by row ({@code BERNOULLI}) or split by split ({@code SYSTEM}).
+	 * @param query the query being built, right after the table alias
+	 * @param sample the {@code method} and {@code percentage} of the sample, or
+	 * {@code null} to read the whole table
+	 * @throws IllegalArgumentException if the method is unknown or the percentage is not
+	 * between 0 and 100
+	 */
+	private void appendSample(StringBuilder query, Map<String, Object> sample) {
+		if (sample == null)
+			return;
+		String method = sample.get("method") != null ? sample.get("method").toString().toUpperCase() : "BERNOULLI";
+		if (!method.equals("BERNOULLI") && !method.equals("SYSTEM")) {
+			throw new IllegalArgumentException("Unsupported sample method: " + method);
+		}
+		if (!(sample.get("percentage") instanceof Number percentage) || percentage.doubleValue() < 0
+				|| percentage.doubleValue() > 100) {
+			throw new IllegalArgumentException("Sample percentage must be between 0 and 100: " + sample);
+		}
+		query.append(" TABLESAMPLE ").append(method).append(" (").append(percentage).append(")");
+	}
+
+	/**
+	 * Executes a filtered table query together with its selected relations as a single
+	 * SQL statement, and reassembles the flat result into nested rows.
+	 * <p>
+	 * The filtered and limited root rows are numbered in a subquery and every relation of
+	 * the plan is {@code LEFT JOIN}ed on its columns, projecting only the selected
+	 * columns. The rows of every joined table are numbered too, within their join value,
+	 * so each related row is attached once to its parent under the relation field name,
+	 * as a list for list relations and as a single row otherwise, even when several
+	 * related rows hold the same projected values. Numbering within the join column keeps
+	 * the window distributed and lets Trino push the join filter into the related table
+	 * scan.
+	 * </p>
+	 * @param _catalog the sanitized catalog name
+	 * @param _schema the sanitized schema name
+	 * @param _table the sanitized table name
+	 * @param limit the maximum number of root rows to return
+	 * @param filters optional filters to apply to the root table
+	 * @param sample optional sampling of the root table
+	 * @param plan the columns and relations selected on the root table
+	 * @return a list of maps, each representing a root row with its nested relations
+	 */
+	public List<Map<String, Object>> queryTableWithJoins(String _catalog, String _schema, String _table, int limit,
+			List<Map<String, Object>> filters, Map<String, Object> sample, RelationJoinPlan plan) {
+		Map<RelationJoinPlan, Integer> offsets = new IdentityHashMap<>();
+		StringBuilder select = new StringBuilder("SELECT");
+		StringBuilder from = new StringBuilder(" FROM (SELECT r.*, row_number() OVER () AS ").append(ROW_NUMBER_COLUMN)
+			.append(" FROM (")
+			.append(buildFilteredQuery(_catalog, _schema, _table, limit, filters, sample))
+			.append(") r) t0");
+		appendJoinPlan(plan, "t0", select, from, offsets, new int[] { 0, 0 });
+		String query = select.append(from).append(" ORDER BY t0.").append(ROW_NUMBER_COLUMN).toString();
+		log.info("{}", query);
+
+		Map<Object, JoinedRow> roots = new LinkedHashMap<>();
+		jdbcTemplate.query(query, (RowCallbackHandler) rs -> {
+			JoinedRow root = roots.computeIfAbsent(rs.getObject(1), k -> new JoinedRow());
+			if (root.values.isEmpty()) {
+				root.values.putAll(readColumns(rs, plan, offsets));
+			}
+			collectChildren(rs, plan, root, offsets);
+		});
+
+		List<Map<String, Object>> rows = new ArrayList<>();
+		for (JoinedRow root : roots.values()) {
+			rows.add(root.toMap(plan));
+		}
+		return rows;
+	}
+
+	/**
+	 * Appends the projection and joins of a plan node and its children, depth first.
+	 * @param node the plan node
+	 * @param alias the table alias of the node
+	 * @param select the projection being built
+	 * @param from the FROM clause being built
+	 * @param offsets the 1-based position of the row number of every node, followed by
+	 * its columns, filled in
+	 * @param counters the next alias number and the last used column position
+	 */
+	private void appendJoinPlan(RelationJoinPlan node, String alias, StringBuilder select, StringBuilder from,
+			Map<RelationJoinPlan, Integer> offsets, int[] counters) {
+		offsets.put(node, ++counters[1]);
+		select.append(counters[1] == 1 ? " " : ", ").append(alias).append(".").append(ROW_NUMBER_COLUMN);
+		for (String column : node.getColumns()) {
+			select.append(", ").append(alias).append(".").append(fixer.restoreSanitizedSchema(column));
+			counters[1]++;
+		}
+		for (RelationJoinPlan child : node.getChildNodes()) {
+			JoinRelation relation = child.getRelation();
+			String childAlias = "t" + ++counters[0];
+			// Numbered within the join value, so identical related rows of a parent are
+			// still told apart
+			String targetColumn = fixer.restoreSanitizedSchema(relation.getTargetColumn());
+			from.append(" LEFT JOIN (SELECT r.*, row_number() OVER (PARTITION BY r.")
+				.append(targetColumn)
+				.append(") AS ")
+				.append(ROW_NUMBER_COLUMN)
+				.append(" FROM ")
+				.append(fixer.restoreSanitizedSchema(relation.getCatalog()))
+				.append(".")
+				.append(fixer.restoreSanitizedSchema(relation.getTargetSchema()))
+				.append(".")
+				.append(fixer.restoreSanitizedSchema(relation.getTargetTable()))
+				.append(" r) ")
+				.append(childAlias)
+				.append(" ON ")
+				.append(alias)
+				.append(".")
+				.append(fixer.restoreSanitizedSchema(relation.getColumn()))
+				.append(" = ")
+				.append(childAlias)
+				.append(".")
+				.append(targetColumn);
+			appendJoinPlan(child, childAlias, select, from, offsets, counters);
+		}
+	}
+
+	/**
+	 * Reads the projected columns of a plan node from the current result row.
+	 * @param rs the result set positioned on the current row
+	 * @param node the plan node
+	 * @param offsets the position of the first column of every node
+	 * @return the column values keyed by sanitized column name
+	 * @throws SQLException if a column cannot be read
+	 */
+	private Map<String, Object> readColumns(ResultSet rs, RelationJoinPlan node, Map<RelationJoinPlan, Integer> offsets)
+			throws SQLException {
+		Map<String, Object> values = new LinkedHashMap<>();
+		int index = offsets.get(node) + 1;
+		for (String column : node.getColumns()) {
+			values.put(column, rs.getObject(index++));
+		}
+		return values;
+	}
+
+	/**
+	 * Attaches the related rows found in the current result row to their parent.
+	 * @param rs the result set positioned on the current row
+	 * @param node the plan node of the parent
+	 * @param parent the parent row
+	 * @param offsets the position of the first column of every node
+	 * @throws SQLException if a column cannot be read
+	 */
+	private void collectChildren(ResultSet rs, RelationJoinPlan node, JoinedRow parent,
+			Map<RelationJoinPlan, Integer> offsets) throws SQLException {
+		for (RelationJoinPlan child : node.getChildNodes()) {
+			Map<Object, JoinedRow> related = parent.children.computeIfAbsent(child.getFieldName(),
+					k -> new LinkedHashMap<>());
+			// A NULL row number means the LEFT JOIN found no related row
+			Object rowNumber = rs.getObject(offsets.get(child));
+			if (rowNumber == null)
+				continue;
+			JoinedRow row = related.computeIfAbsent(rowNumber, k -> new JoinedRow());
+			if (row.values.isEmpty())
+				row.values.putAll(readColumns(rs, child, offsets));
+			collectChildren(rs, child, row, offsets);
+		}
+	}
+
+	/**
+	 * Row being reassembled from a joined result, with its related rows grouped by
+	 * relation field and keyed by their row number.
+	 */
+	private static class JoinedRow {
+
+		private final Map<String, Object> values = new LinkedHashMap<>();
+
+		private final Map<String, Map<Object, JoinedRow>> children = new LinkedHashMap<>();
+
+		private Map<String, Object> toMap(RelationJoinPlan node) {
+			Map<String, Object> map = new LinkedHashMap<>(values);
+			for (RelationJoinPlan child : node.getChildNodes()) {
+				List<Map<String, Object>> related = new ArrayList<>();
+				for (JoinedRow row : children.getOrDefault(child.getFieldName(), Map.of()).values()) {
+					related.add(row.toMap(child));
+				}
+				map.put(child.getFieldName(), child.isMany() ? related : related.isEmpty() ? null : related.get(0));
+			}
+			return map;
+		}
+
+	}
+
+	/**
+	 * Fetches every row of a Trino table whose join column matches one of the given keys,
+	 * using a single {@code WHERE column IN (...)} query.
+	 * <p>
+	 * Used to resolve relation fields in batches so nested selections issue one query per
+	 * relation instead of one per parent row.
+	 * </p>
+	 * @param _catalog the sanitized catalog name
+	 * @param _schema the sanitized schema name
+	 * @param _table the sanitized table name
+	 * @param _column the sanitized join column name
+	 * @param keys the distinct key values to look up
+	 * @return a list of maps, each representing a row of data with sanitized field names
+	 */
+	public List<Map<String, Object>> queryTableByKeys(String _catalog, String _schema, String _table, String _column,
+			Collection<?> keys) {
+		if (keys.isEmpty())
+			return new ArrayList<>();
+
+		StringBuilder query = new StringBuilder("SELECT t1.* FROM " + fixer.restoreSanitizedSchema(_catalog) + "."
+				+ fixer.restoreSanitizedSchema(_schema) + "." + fixer.restoreSanitizedSchema(_table) + " t1 WHERE ")
+			.append(fixer.restoreSanitizedSchema(_column))
+			.append(" IN (");
+		int i = 0;
+		for (Object key : keys) {
+			if (i++ > 0) {
+				query.append(", ");
+			}
+			query.append(toFilterLiteral(key));
+		}
+		query.append(")");
+		log.info("{}", query);
+		return sanitizeColumns(jdbcTemplate.queryForList(query.toString()));
+	}
+
+	/**
+	 * Renders a filter value, or a value read from Trino, as a SQL literal of its type,
+	 * so comparisons are type correct: numbers and booleans are written as is, dates and
+	 * date-times as {@code DATE} and {@code TIMESTAMP} literals, and strings quoted.
+	 * @param value the value to render
+	 * @return the SQL literal
+	 */
+	private static String toFilterLiteral(Object value) {
+		if (value instanceof java.sql.Date date) {
+			value = date.toLocalDate();
+		}
+		else if (value instanceof java.sql.Timestamp timestamp) {
+			value = timestamp.toLocalDateTime();
+		}
+		if (value instanceof BigDecimal decimal) {
+			return decimal.toPlainString();
+		}
+		if (value instanceof Number || value instanceof Boolean) {
+			return value.toString();
+		}
+		if (value instanceof LocalDate) {
+			return "DATE '" + value + "'";
+		}
+		if (value instanceof LocalDateTime dateTime) {
+			return "TIMESTAMP '" + dateTime.toString().replace('T', ' ') + "'";
+		}
+		if (value instanceof OffsetDateTime dateTime) {
+			return "TIMESTAMP '" + dateTime.toLocalDateTime().toString().replace('T', ' ') + " " + dateTime.getOffset()
+					+ "'";
+		}
+		return "'" + value.toString().replace("'", "''") + "'";
+	}
+
+	/**
+	 * Replaces every column name that is not a valid GraphQL name with its sanitized
+	 * form.
+	 * @param maps the rows returned by the query
+	 * @return the same rows, with sanitized field names
+	 */
+	private List<Map<String, Object>> sanitizeColumns(List<Map<String, Object>> maps) {
 		for (Map<String, Object> map : maps) {
-			for (String key : map.keySet()) {
+			for (String key : new ArrayList<>(map.keySet())) {
 				String sanitized = fixer.sanitizeSchema(key);
 				if (!key.equals(sanitized)) {
 					map.put(sanitized, map.get(key));
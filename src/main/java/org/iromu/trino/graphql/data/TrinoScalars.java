@@ -0,0 +1,215 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data;
+
+import graphql.GraphQLContext;
+import graphql.execution.CoercedVariables;
+import graphql.language.FloatValue;
+import graphql.language.IntValue;
+import graphql.language.StringValue;
+import graphql.language.Value;
+import graphql.schema.Coercing;
+import graphql.schema.CoercingParseLiteralException;
+import graphql.schema.CoercingParseValueException;
+import graphql.schema.CoercingSerializeException;
+import graphql.schema.GraphQLScalarType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * GraphQL scalars for the Trino types that don't fit the built-in ones: {@code Long} for
+ * {@code bigint}, {@code BigDecimal} for {@code decimal}, {@code Date} for {@code date}
+ * and {@code DateTime} for {@code timestamp}.
+ * <p>
+ * Values read from Trino are serialized as the JDBC driver returns them, or converted to
+ * their {@code java.time} equivalent, never to strings: numbers are written to the
+ * response as JSON numbers, and dates as ISO-8601 strings, by the JSON encoder. Input
+ * values are accepted as numbers or strings, and dates as ISO-8601 strings, so filters
+ * compare them with typed SQL literals.
+ * </p>
+ *
+ * @author Ivan Rodriguez
+ */
+public final class TrinoScalars {
+
+	/** 64-bit integer, for {@code bigint} values. */
+	public static final GraphQLScalarType LONG = scalar("Long", "64-bit signed integer", TrinoScalars::toLong,
+			literal -> literal instanceof IntValue value ? toLong(value.getValue())
+					: literal instanceof StringValue value ? toLong(value.getValue()) : null,
+			value -> new IntValue(BigInteger.valueOf((Long) value)));
+
+	/** Arbitrary precision decimal number, for {@code decimal} values. */
+	public static final GraphQLScalarType BIG_DECIMAL = scalar("BigDecimal", "Arbitrary precision decimal number",
+			TrinoScalars::toBigDecimal,
+			literal -> literal instanceof IntValue value ? new BigDecimal(value.getValue())
+					: literal instanceof FloatValue value ? value.getValue()
+							: literal instanceof StringValue value ? toBigDecimal(value.getValue()) : null,
+			value -> new FloatValue((BigDecimal) value));
+
+	/** ISO-8601 calendar date, such as {@code 2025-01-31}, for {@code date} values. */
+	public static final GraphQLScalarType DATE = scalar("Date", "ISO-8601 date, e.g. 2025-01-31", TrinoScalars::toDate,
+			literal -> literal instanceof StringValue value ? toDate(value.getValue()) : null,
+			value -> StringValue.of(value.toString()));
+
+	/**
+	 * ISO-8601 date and time, such as {@code 2025-01-31T10:15:30.5}, with an offset when
+	 * known, for {@code timestamp} values.
+	 */
+	public static final GraphQLScalarType DATE_TIME = scalar("DateTime",
+			"ISO-8601 date and time, e.g. 2025-01-31T10:15:30.5, with an offset when known", TrinoScalars::toDateTime,
+			literal -> literal instanceof StringValue value ? toDateTime(value.getValue()) : null,
+			value -> StringValue.of(value.toString()));
+
+	private TrinoScalars() {
+	}
+
+	private static Object toLong(Object value) {
+		if (value instanceof Long)
+			return value;
+		if (value instanceof Integer || value instanceof Short || value instanceof Byte)
+			return ((Number) value).longValue();
+		if (value instanceof BigInteger number)
+			return number.longValueExact();
+		if (value instanceof BigDecimal number)
+			return number.longValueExact();
+		if (value instanceof String string)
+			return Long.parseLong(string.trim());
+		return null;
+	}
+
+	private static Object toBigDecimal(Object value) {
+		if (value instanceof BigDecimal)
+			return value;
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+			return BigDecimal.valueOf(((Number) value).longValue());
+		if (value instanceof BigInteger number)
+			return new BigDecimal(number);
+		if (value instanceof Double || value instanceof Float)
+			return BigDecimal.valueOf(((Number) value).doubleValue());
+		if (value instanceof String string)
+			return new BigDecimal(string.trim());
+		return null;
+	}
+
+	private static Object toDate(Object value) {
+		if (value instanceof LocalDate)
+			return value;
+		if (value instanceof java.sql.Date date)
+			return date.toLocalDate();
+		if (value instanceof String string)
+			return LocalDate.parse(string.trim());
+		return null;
+	}
+
+	private static Object toDateTime(Object value) {
+		if (value instanceof LocalDateTime || value instanceof OffsetDateTime)
+			return value;
+		if (value instanceof java.sql.Timestamp timestamp)
+			return timestamp.toLocalDateTime();
+		if (value instanceof ZonedDateTime dateTime)
+			return dateTime.toOffsetDateTime();
+		if (value instanceof String string) {
+			String trimmed = string.trim().replace(' ', 'T');
+			try {
+				return LocalDateTime.parse(trimmed);
+			}
+			catch (DateTimeParseException e) {
+				return OffsetDateTime.parse(trimmed);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Builds a scalar whose serialized and parsed values are the same Java type.
+	 * @param name the scalar name
+	 * @param description the scalar description
+	 * @param converter converts a value to the Java type, or returns {@code null} if it
+	 * has another type
+	 * @param literalParser converts a literal, or returns {@code null} if it has another
+	 * kind
+	 * @param literalWriter converts a value of the Java type to a literal
+	 */
+	private static GraphQLScalarType scalar(String name, String description, Function<Object, Object> converter,
+			Function<Value<?>, Object> literalParser, Function<Object, Value<?>> literalWriter) {
+		return GraphQLScalarType.newScalar()
+			.name(name)
+			.description(description)
+			.coercing(new Coercing<Object, Object>() {
+
+				@Override
+				public Object serialize(Object value, GraphQLContext context, Locale locale) {
+					Object converted = convert(value);
+					if (converted == null)
+						throw new CoercingSerializeException("Expected a " + name + " but got " + typeOf(value));
+					return converted;
+				}
+
+				@Override
+				public Object parseValue(Object value, GraphQLContext context, Locale locale) {
+					Object converted = convert(value);
+					if (converted == null)
+						throw new CoercingParseValueException("Expected a " + name + " but got " + typeOf(value));
+					return converted;
+				}
+
+				@Override
+				public Object parseLiteral(Value<?> literal, CoercedVariables variables, GraphQLContext context,
+						Locale locale) {
+					Object converted;
+					try {
+						converted = literalParser.apply(literal);
+					}
+					catch (RuntimeException e) {
+						throw new CoercingParseLiteralException("Invalid " + name + ": " + e.getMessage());
+					}
+					if (converted == null)
+						throw new CoercingParseLiteralException("Expected a " + name + " but got " + typeOf(literal));
+					return converted;
+				}
+
+				@Override
+				public Value<?> valueToLiteral(Object value, GraphQLContext context, Locale locale) {
+					return literalWriter.apply(parseValue(value, context, locale));
+				}
+
+				private Object convert(Object value) {
+					try {
+						return converter.apply(value);
+					}
+					catch (RuntimeException e) {
+						return null;
+					}
+				}
+
+			})
+			.build();
+	}
+
+	private static String typeOf(Object value) {
+		return value == null ? "null" : value.getClass().getSimpleName();
+	}
+
+}
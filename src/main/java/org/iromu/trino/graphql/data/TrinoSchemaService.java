@@ -16,38 +16,59 @@
 
 package org.iromu.trino.graphql.data;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.SneakyThrows;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.iromu.trino.graphql.AppProperties;
+import org.iromu.trino.graphql.data.metadata.MetadataSnapshot;
+import org.iromu.trino.graphql.data.metadata.TableMetadata;
 import org.iromu.trino.graphql.data.relations.JoinDetector;
+import org.iromu.trino.graphql.data.relations.JoinGraph;
+import org.iromu.trino.graphql.data.relations.JoinRelation;
 import org.iromu.trino.graphql.schema.GraphQLSchemaFixer;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * Service responsible for interacting with the Trino metadata system. It retrieves and
  * caches catalogs, schemas, tables, columns, and join information. Uses
- * {@link JdbcTemplate} for SQL execution, and caches results locally using
- * {@link ObjectMapper}.
+ * {@link JdbcTemplate} for SQL execution, and caches results locally in a single
+ * {@link MetadataSnapshot} file, {@value #SNAPSHOT_FILE} under
+ * {@link AppProperties#getSchemaFolder()}.
+ * <p>
+ * Fetched metadata is visible at once and written to the snapshot file by
+ * {@link #saveMetadata()}, which the metadata crawler calls at the end of every crawl.
+ * </p>
+ * <p>
+ * Failed requests are retried with exponential backoff and never cached. A request that
+ * still fails is answered with an empty list and remembered for
+ * {@link AppProperties#getMetadataFailureTtl()}, doubled on every consecutive failure, so
+ * a Trino outage is not hammered with requests; {@link #repairFailedLookups()} retries
+ * the requests whose wait is over.
+ * </p>
  *
  * @author Ivan Rodriguez
  */
 @Service
 @Slf4j
-public class TrinoSchemaService {
+public class TrinoSchemaService implements DisposableBean {
 
-	private final JdbcTemplate jdbcTemplate;
+	/** Name of the metadata snapshot file in the schema folder. */
+	public static final String SNAPSHOT_FILE = "metadata.snapshot";
 
-	private final ObjectMapper objectMapper;
+	private final JdbcTemplate jdbcTemplate;
 
 	private final AppProperties app;
 
@@ -55,42 +76,98 @@ public class TrinoSchemaService {
 
 	private final JoinDetector joinDetector;
 
+	private volatile MetadataSnapshot snapshot;
+
+	/**
+	 * Failed requests, keyed by the snapshot key of their result.
+	 */
+	private final Map<String, Failure> failures = new ConcurrentHashMap<>();
+
 	/**
 	 * Constructs a new {@code TrinoSchemaService} with all required dependencies.
 	 * @param jdbcTemplate the JDBC template for SQL queries
-	 * @param objectMapper the object mapper for caching metadata to JSON files
 	 * @param app application configuration properties
 	 * @param fixer helper for sanitizing/restoring schema and table names
 	 * @param joinDetector optional join detection component
 	 */
-	public TrinoSchemaService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, AppProperties app,
-			GraphQLSchemaFixer fixer, Optional<JoinDetector> joinDetector) {
+	public TrinoSchemaService(JdbcTemplate jdbcTemplate, AppProperties app, GraphQLSchemaFixer fixer,
+			Optional<JoinDetector> joinDetector) {
 		this.jdbcTemplate = jdbcTemplate;
-		this.objectMapper = objectMapper;
 		this.app = app;
 		this.fixer = fixer;
 		this.joinDetector = joinDetector == null ? null : joinDetector.orElse(null);
 	}
 
+	/**
+	 * Returns the metadata snapshot, mapping the snapshot file on first use.
+	 */
+	private MetadataSnapshot snapshot() {
+		MetadataSnapshot current = snapshot;
+		if (current == null) {
+			synchronized (this) {
+				current = snapshot;
+				if (current == null) {
+					current = new MetadataSnapshot(Paths.get(app.getSchemaFolder(), SNAPSHOT_FILE));
+					snapshot = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Writes the metadata fetched since the last save to the snapshot file.
+	 */
+	public void saveMetadata() {
+		if (snapshot != null)
+			snapshot.flush();
+	}
+
+	@Override
+	public void destroy() {
+		saveMetadata();
+	}
+
 	/**
 	 * Retrieves all available catalogs from Trino, optionally using a cached version.
 	 * @return a list of catalog names
 	 */
-	@SneakyThrows
 	public List<String> getCatalogs() {
-		// noinspection ResultOfMethodCallIgnored
-		Paths.get(app.getSchemaFolder()).toFile().mkdirs();
-		File file = Paths.get(app.getSchemaFolder(), "catalogs.json").toFile();
-		if (!app.isIgnoreCache() && file.exists()) {
-			return objectMapper.readValue(file, new TypeReference<>() {
-			});
-		}
+		return getCatalogs(false);
+	}
+
+	/**
+	 * Retrieves all available catalogs from Trino.
+	 * <p>
+	 * Like the other listings, a failed request is not sent again before its wait is over
+	 * and is repaired by {@link #repairFailedLookups()}. Meanwhile the cached catalogs
+	 * are returned, if any, so that an outage of the coordinator during a reload does not
+	 * empty every catalog.
+	 * </p>
+	 * @param reload whether to bypass the cache and read the catalogs from Trino
+	 * @return a list of catalog names, empty if they could not be read nor found in the
+	 * cache
+	 */
+	public List<String> getCatalogs(boolean reload) {
+		String key = MetadataSnapshot.key("catalogs");
+		List<String> cached = snapshot().getStrings(key);
+		if (!reload && !app.isIgnoreCache() && cached != null)
+			return cached;
+		if (backingOff(key))
+			return cached != null ? cached : new ArrayList<>();
 		log.info("SHOW CATALOGS");
-		List<String> catalogs = jdbcTemplate.queryForList("SHOW CATALOGS", String.class);
-		if (app.isReplaceObjectsNameCharacters())
-			catalogs.replaceAll(fixer::sanitizeSchema);
-		objectMapper.writeValue(file, catalogs);
-		return catalogs;
+		try {
+			List<String> catalogs = retry(() -> jdbcTemplate.queryForList("SHOW CATALOGS", String.class));
+			if (app.isReplaceObjectsNameCharacters())
+				catalogs.replaceAll(fixer::sanitizeSchema);
+			snapshot().putStrings(key, catalogs);
+			failures.remove(key);
+			return catalogs;
+		}
+		catch (Exception e) {
+			List<String> none = failed(key, "SHOW CATALOGS", e, () -> getCatalogs(true));
+			return cached != null ? cached : none;
+		}
 	}
 
 	/**
@@ -98,30 +175,39 @@ public class TrinoSchemaService {
 	 * @param _catalog the sanitized catalog name
 	 * @return a list of schema names
 	 */
-	@SneakyThrows
 	public List<String> getSchemas(String _catalog) {
+		return getSchemas(_catalog, false);
+	}
+
+	/**
+	 * Retrieves all schemas for a given catalog.
+	 * @param _catalog the sanitized catalog name
+	 * @param reload whether to bypass the cache and read the schemas from Trino
+	 * @return a list of schema names
+	 */
+	public List<String> getSchemas(String _catalog, boolean reload) {
 		String catalog = fixer.sanitizeSchema(_catalog);
 
-		// noinspection ResultOfMethodCallIgnored
-		Paths.get(app.getSchemaFolder(), catalog).toFile().mkdirs();
-		File file = Paths.get(app.getSchemaFolder(), catalog, "schemas.json").toFile();
-		if (!app.isIgnoreCache() && file.exists()) {
-			return objectMapper.readValue(file, new TypeReference<>() {
-			});
+		String key = MetadataSnapshot.key("schemas", catalog);
+		if (!reload && !app.isIgnoreCache()) {
+			List<String> cached = snapshot().getStrings(key);
+			if (cached != null)
+				return cached;
 		}
+		if (backingOff(key))
+			return new ArrayList<>();
 		log.info("SHOW SCHEMAS FROM {}", _catalog);
 		try {
-			List<String> schemas = jdbcTemplate
-				.queryForList("SHOW SCHEMAS FROM " + fixer.restoreSanitizedSchema(_catalog), String.class);
+			List<String> schemas = retry(() -> jdbcTemplate
+				.queryForList("SHOW SCHEMAS FROM " + fixer.restoreSanitizedSchema(_catalog), String.class));
 			if (app.isReplaceObjectsNameCharacters())
 				schemas.replaceAll(fixer::sanitizeSchema);
-			objectMapper.writeValue(file, schemas);
+			snapshot().putStrings(key, schemas);
+			failures.remove(key);
 			return schemas;
 		}
 		catch (Exception e) {
-			log.error("{} {}", _catalog, e.getMessage());
-			objectMapper.writeValue(file, new ArrayList<>());
-			return new ArrayList<>();
+			return failed(key, "SHOW SCHEMAS FROM " + _catalog, e, () -> getSchemas(_catalog, true));
 		}
 	}
 
@@ -132,65 +218,88 @@ public class TrinoSchemaService {
 	 * @param _schema the sanitized schema name
 	 * @return a list of table names
 	 */
-	@SneakyThrows
 	public List<String> getTables(String _catalog, String _schema) {
+		return getTables(_catalog, _schema, false);
+	}
+
+	/**
+	 * Retrieves all tables for a given catalog and schema.
+	 * @param _catalog the sanitized catalog name
+	 * @param _schema the sanitized schema name
+	 * @param reload whether to bypass the cache and read the tables from Trino
+	 * @return a list of table names
+	 */
+	public List<String> getTables(String _catalog, String _schema, boolean reload) {
 		String catalog = fixer.sanitizeSchema(_catalog);
 		String schema = fixer.sanitizeSchema(_schema);
 
-		// noinspection ResultOfMethodCallIgnored
-		Paths.get(app.getSchemaFolder(), catalog, schema).toFile().mkdirs();
-		File file = Paths.get(app.getSchemaFolder(), catalog, schema, "tables.json").toFile();
-		if (!app.isIgnoreCache() && file.exists()) {
-			return objectMapper.readValue(file, new TypeReference<>() {
-			});
+		String key = MetadataSnapshot.key("tables", catalog, schema);
+		if (!reload && !app.isIgnoreCache()) {
+			List<String> cached = snapshot().getStrings(key);
+			if (cached != null)
+				return cached;
 		}
+		if (backingOff(key))
+			return new ArrayList<>();
 		log.info("SHOW TABLES FROM {}.{}", _catalog, _schema);
 		try {
-			List<String> tables = jdbcTemplate.queryForList("SHOW TABLES FROM " + fixer.restoreSanitizedSchema(_catalog)
-					+ "." + fixer.restoreSanitizedSchema(_schema), String.class);
+			List<String> tables = retry(
+					() -> jdbcTemplate.queryForList("SHOW TABLES FROM " + fixer.restoreSanitizedSchema(_catalog) + "."
+							+ fixer.restoreSanitizedSchema(_schema), String.class));
 			if (app.isReplaceObjectsNameCharacters())
 				tables.replaceAll(fixer::sanitizeSchema);
-			objectMapper.writeValue(file, tables);
+			snapshot().putStrings(key, tables);
+			failures.remove(key);
 			return tables;
 		}
 		catch (Exception e) {
-			log.error("{}.{} {}", _catalog, _schema, e.getMessage());
-			objectMapper.writeValue(file, new ArrayList<>());
-			return new ArrayList<>();
+			return failed(key, "SHOW TABLES FROM " + _catalog + "." + _schema, e,
+					() -> getTables(_catalog, _schema, true));
 		}
 	}
 
+	/**
+	 * Attempts to retrieve detected joins for the given catalog, optionally using a
+	 * cached version.
+	 * @param _catalog the sanitized catalog name
+	 * @return a list of directed join relationships, or an empty list if detection fails
+	 * or is unavailable
+	 */
+	public List<JoinRelation> getJoins(String _catalog) {
+		return getJoins(_catalog, false);
+	}
+
 	/**
 	 * Attempts to retrieve detected joins for the given catalog.
 	 * @param _catalog the sanitized catalog name
-	 * @return a list of join relationships as strings, or an empty list if detection
-	 * fails or is unavailable
+	 * @param reload whether to bypass the cache and detect the joins again
+	 * @return a list of directed join relationships, or an empty list if detection fails
+	 * or is unavailable
 	 */
-	@SneakyThrows
-	public List<String> getJoins(String _catalog) {
+	public List<JoinRelation> getJoins(String _catalog, boolean reload) {
 		if (joinDetector == null)
 			return new ArrayList<>();
 		String catalog = fixer.sanitizeSchema(_catalog);
 
-		// noinspection ResultOfMethodCallIgnored
-		Paths.get(app.getSchemaFolder(), catalog).toFile().mkdirs();
-		File file = Paths.get(app.getSchemaFolder(), catalog, "joins.json").toFile();
-		// if (!app.isIgnoreCache() && file.exists()) {
-		// return objectMapper.readValue(file, new TypeReference<>() {
-		// });
-		// }
+		String key = MetadataSnapshot.key("joins", catalog);
+		if (!reload && !app.isIgnoreCache()) {
+			List<Map<String, Object>> cached = snapshot().getRows(key);
+			if (cached != null)
+				return cached.stream().map(JoinRelation::fromRow).toList();
+		}
+		if (backingOff(key))
+			return new ArrayList<>();
 		log.info("DETECT JOINS {}", _catalog);
 		try {
-			List<String> tables = joinDetector.detect(_catalog);
+			JoinGraph graph = retry(() -> joinDetector.detect(fixer.restoreSanitizedSchema(_catalog)));
 			if (app.isReplaceObjectsNameCharacters())
-				tables.replaceAll(fixer::sanitizeSchema);
-			objectMapper.writeValue(file, tables);
-			return tables;
+				graph = graph.map(fixer::sanitizeSchema);
+			snapshot().putRows(key, graph.getRelations().stream().map(JoinRelation::toRow).toList());
+			failures.remove(key);
+			return graph.getRelations();
 		}
 		catch (Exception e) {
-			log.error("{} {}", _catalog, e.getMessage());
-			objectMapper.writeValue(file, new ArrayList<>());
-			return new ArrayList<>();
+			return failed(key, "DETECT JOINS " + _catalog, e, () -> getJoins(_catalog, true));
 		}
 	}
 
@@ -201,24 +310,36 @@ public class TrinoSchemaService {
 	 * @param _table the sanitized table name
 	 * @return a list of maps, each representing a column's metadata
 	 */
-	@SneakyThrows
 	public List<Map<String, Object>> getColumns(String _catalog, String _schema, String _table) {
+		return getColumns(_catalog, _schema, _table, false);
+	}
+
+	/**
+	 * Retrieves column metadata for a specific table.
+	 * @param _catalog the sanitized catalog name
+	 * @param _schema the sanitized schema name
+	 * @param _table the sanitized table name
+	 * @param reload whether to bypass the cache and describe the table in Trino
+	 * @return a list of maps, each representing a column's metadata
+	 */
+	public List<Map<String, Object>> getColumns(String _catalog, String _schema, String _table, boolean reload) {
 		String catalog = fixer.sanitizeSchema(_catalog);
 		String schema = fixer.sanitizeSchema(_schema);
 		String table = fixer.sanitizeSchema(_table);
 
-		// noinspection ResultOfMethodCallIgnored
-		Paths.get(app.getSchemaFolder(), catalog, schema, table).toFile().mkdirs();
-		File file = Paths.get(app.getSchemaFolder(), catalog, schema, table, "columns.json").toFile();
-		if (!app.isIgnoreCache() && file.exists()) {
-			return objectMapper.readValue(file, new TypeReference<>() {
-			});
+		String key = MetadataSnapshot.key("columns", catalog, schema, table);
+		if (!reload && !app.isIgnoreCache()) {
+			List<Map<String, Object>> cached = snapshot().getRows(key);
+			if (cached != null)
+				return cached;
 		}
+		if (backingOff(key))
+			return new ArrayList<>();
 		log.info("DESCRIBE {}.{}.{}", _catalog, _schema, _table);
 		try {
-			List<Map<String, Object>> columns = jdbcTemplate
-				.queryForList("DESCRIBE " + fixer.restoreSanitizedSchema(_catalog) + "."
-						+ fixer.restoreSanitizedSchema(_schema) + "." + fixer.restoreSanitizedSchema(_table));
+			List<Map<String, Object>> columns = retry(
+					() -> jdbcTemplate.queryForList("DESCRIBE " + fixer.restoreSanitizedSchema(_catalog) + "."
+							+ fixer.restoreSanitizedSchema(_schema) + "." + fixer.restoreSanitizedSchema(_table)));
 			if (app.isReplaceObjectsNameCharacters())
 				for (Map<String, Object> column : columns) {
 					// Check if the map contains the "Column" key
@@ -228,14 +349,226 @@ public class TrinoSchemaService {
 					}
 				}
 
-			objectMapper.writeValue(file, columns);
+			snapshot().putRows(key, columns);
+			failures.remove(key);
 			return columns;
 		}
 		catch (Exception e) {
-			log.error("{}.{}.{} {}", _catalog, _schema, _table, e.getMessage());
-			objectMapper.writeValue(file, new ArrayList<>());
-			return new ArrayList<>();
+			return failed(key, "DESCRIBE " + _catalog + "." + _schema + "." + _table, e,
+					() -> getColumns(_catalog, _schema, _table, true));
+		}
+	}
+
+	/**
+	 * Retrieves the column metadata of many tables of a catalog at once, from a single
+	 * {@code information_schema.columns} query instead of one {@code DESCRIBE} per table.
+	 * <p>
+	 * Tables already cached are read from the snapshot; if any table is missing, the
+	 * columns of every requested schema are fetched in one query and the cached columns
+	 * of every table are replaced, so later {@link #getColumns} calls hit the cache.
+	 * Columns are returned in ordinal order, with the {@code Column} and {@code Type}
+	 * keys of {@code DESCRIBE}.
+	 * </p>
+	 * @param _catalog the sanitized catalog name
+	 * @param tables the sanitized names of the tables to describe, keyed by sanitized
+	 * schema name
+	 * @return the columns of every table found, keyed by schema and table name; tables
+	 * missing from the result could not be read in bulk
+	 */
+	public Map<String, Map<String, List<Map<String, Object>>>> getCatalogColumns(String _catalog,
+			Map<String, List<String>> tables) {
+		return getCatalogColumns(_catalog, tables, false);
+	}
+
+	/**
+	 * Retrieves the column metadata of many tables of a catalog at once, like
+	 * {@link #getCatalogColumns(String, Map)}.
+	 * <p>
+	 * On a reload the columns are always read from Trino, and the cached columns of a
+	 * table are only replaced if their {@link TableMetadata#fingerprint(List)
+	 * fingerprint} differs from the fresh one.
+	 * </p>
+	 * @param _catalog the sanitized catalog name
+	 * @param tables the sanitized names of the tables to describe, keyed by sanitized
+	 * schema name
+	 * @param reload whether to bypass the cache and read the columns from Trino
+	 * @return the columns of every table found, keyed by schema and table name; tables
+	 * missing from the result could not be read in bulk
+	 */
+	public Map<String, Map<String, List<Map<String, Object>>>> getCatalogColumns(String _catalog,
+			Map<String, List<String>> tables, boolean reload) {
+		String catalog = fixer.sanitizeSchema(_catalog);
+		Map<String, Map<String, List<Map<String, Object>>>> result = new HashMap<>();
+
+		if (!reload && !app.isIgnoreCache()) {
+			boolean cached = true;
+			for (Map.Entry<String, List<String>> entry : tables.entrySet()) {
+				for (String table : entry.getValue()) {
+					List<Map<String, Object>> columns = snapshot().getRows(MetadataSnapshot.key("columns", catalog,
+							fixer.sanitizeSchema(entry.getKey()), fixer.sanitizeSchema(table)));
+					if (columns == null) {
+						cached = false;
+						break;
+					}
+					result.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(table, columns);
+				}
+				if (!cached)
+					break;
+			}
+			if (cached)
+				return result;
+			result.clear();
+		}
+		if (tables.isEmpty())
+			return result;
+
+		StringBuilder query = new StringBuilder("SELECT table_schema, table_name, column_name, data_type FROM "
+				+ fixer.restoreSanitizedSchema(_catalog) + ".information_schema.columns WHERE table_schema IN (");
+		int i = 0;
+		for (String schema : tables.keySet()) {
+			if (i++ > 0)
+				query.append(", ");
+			query.append("'").append(fixer.restoreSanitizedSchema(schema).replace("'", "''")).append("'");
+		}
+		query.append(") ORDER BY table_schema, table_name, ordinal_position");
+		log.info("{}", query);
+		try {
+			retry(() -> {
+				result.clear();
+				jdbcTemplate.query(query.toString(), (RowCallbackHandler) rs -> {
+					String schema = rs.getString("table_schema");
+					String table = rs.getString("table_name");
+					String column = rs.getString("column_name");
+					if (app.isReplaceObjectsNameCharacters()) {
+						schema = fixer.sanitizeSchema(schema);
+						table = fixer.sanitizeSchema(table);
+						column = fixer.sanitizeSchema(column);
+					}
+					Map<String, Object> metadata = new LinkedHashMap<>();
+					metadata.put("Column", column);
+					metadata.put("Type", rs.getString("data_type"));
+					result.computeIfAbsent(schema, k -> new HashMap<>())
+						.computeIfAbsent(table, k -> new ArrayList<>())
+						.add(metadata);
+				});
+				return result;
+			});
+		}
+		catch (Exception e) {
+			log.error("{} {}", _catalog, e.getMessage());
+			return new HashMap<>();
+		}
+
+		int changed = 0;
+		for (Map.Entry<String, List<String>> entry : tables.entrySet()) {
+			Map<String, List<Map<String, Object>>> schemaColumns = result.getOrDefault(entry.getKey(), Map.of());
+			for (String table : entry.getValue()) {
+				List<Map<String, Object>> columns = schemaColumns.get(table);
+				if (columns == null)
+					continue;
+				String key = MetadataSnapshot.key("columns", catalog, fixer.sanitizeSchema(entry.getKey()),
+						fixer.sanitizeSchema(table));
+				if (reload) {
+					List<Map<String, Object>> cached = snapshot().getRows(key);
+					if (cached != null && TableMetadata.fingerprint(columns).equals(TableMetadata.fingerprint(cached)))
+						continue;
+				}
+				snapshot().putRows(key, columns);
+				changed++;
+			}
 		}
+		if (reload)
+			log.info("{} tables of {} changed", changed, _catalog);
+		return result;
+	}
+
+	/**
+	 * Retries the requests that failed and whose wait is over. Requests that succeed are
+	 * cached like any other.
+	 * @return the number of requests that succeeded
+	 */
+	public int repairFailedLookups() {
+		int repaired = 0;
+		for (Map.Entry<String, Failure> entry : failures.entrySet()) {
+			if (entry.getValue().getRetryAt() > System.currentTimeMillis())
+				continue;
+			entry.getValue().getRepair().run();
+			if (!failures.containsKey(entry.getKey()))
+				repaired++;
+		}
+		if (repaired > 0)
+			log.info("Repaired {} failed metadata requests, {} still failing", repaired, failures.size());
+		return repaired;
+	}
+
+	/**
+	 * Returns the number of requests that failed and have not succeeded since.
+	 * @return the number of failed requests
+	 */
+	public int getFailedLookups() {
+		return failures.size();
+	}
+
+	private boolean backingOff(String key) {
+		Failure failure = failures.get(key);
+		return failure != null && failure.getRetryAt() > System.currentTimeMillis();
+	}
+
+	/**
+	 * Runs a request, retrying failures after
+	 * {@link AppProperties#getMetadataRetryBackoff()}, doubled on every retry.
+	 */
+	private <T> T retry(Supplier<T> request) {
+		int retries = Math.max(0, app.getMetadataRetries());
+		for (int attempt = 0;; attempt++) {
+			try {
+				return request.get();
+			}
+			catch (RuntimeException e) {
+				if (attempt >= retries)
+					throw e;
+				Duration backoff = backoff(app.getMetadataRetryBackoff(), attempt);
+				log.warn("Metadata request failed, retrying in {} ms: {}", backoff.toMillis(), e.getMessage());
+				try {
+					Thread.sleep(backoff.toMillis());
+				}
+				catch (InterruptedException interrupted) {
+					Thread.currentThread().interrupt();
+					throw e;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remembers a failed request, so it is not sent again before its wait is over.
+	 */
+	private <T> List<T> failed(String key, String description, Exception e, Runnable repair) {
+		Failure previous = failures.get(key);
+		int count = previous == null ? 1 : previous.getCount() + 1;
+		Duration wait = backoff(app.getMetadataFailureTtl(), Math.min(count - 1, 5));
+		failures.put(key, new Failure(count, System.currentTimeMillis() + wait.toMillis(), repair));
+		log.error("{} failed {} times, retrying in {} ms: {}", description, count, wait.toMillis(), e.getMessage());
+		return new ArrayList<>();
+	}
+
+	private static Duration backoff(Duration initial, int doublings) {
+		return initial == null ? Duration.ZERO : initial.multipliedBy(1L << doublings);
+	}
+
+	/**
+	 * A failed request: how many times in a row it failed, when it may be sent again and
+	 * how.
+	 */
+	@Value
+	private static class Failure {
+
+		int count;
+
+		long retryAt;
+
+		Runnable repair;
+
 	}
 
 }
@@ -17,17 +17,51 @@
 package org.iromu.trino.graphql.data;
 
 import graphql.Scalars;
+import graphql.schema.GraphQLFieldDefinition;
 import graphql.schema.GraphQLList;
 import graphql.schema.GraphQLObjectType;
 import graphql.schema.GraphQLOutputType;
+import io.trino.jdbc.Row;
+import io.trino.jdbc.RowField;
+import lombok.SneakyThrows;
+import org.iromu.trino.graphql.schema.GraphQLSchemaFixer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Maps Trino SQL types to GraphQL output types. Handles primitive types as well as
- * complex types like arrays and maps.
+ * structural {@code array}, {@code map} and {@code row} types, nested at any depth.
+ *
+ * <p>
+ * {@code bigint}, {@code decimal}, {@code date} and {@code timestamp} map to the
+ * {@link TrinoScalars}, so their values are written as numbers and ISO-8601 dates.
+ * </p>
+ *
+ * <p>
+ * Type strings are parsed into {@link TrinoType}s, and the GraphQL type of every parsed
+ * type is built once and reused. A {@code row} becomes an object type named
+ * {@code TrinoRow_<hash>} after its signature, so columns with the same row shape share
+ * one type. A {@code map} becomes a list of entries with {@code key} and {@code value}
+ * fields: the {@code KeyValue} type when both map to strings, otherwise a
+ * {@code TrinoMap_<hash>} type with typed fields.
+ * </p>
  *
  * <p>
- * Note: Complex types like {@code map} are represented as GraphQL lists of objects with
- * {@code key} and {@code value} fields.
+ * Values read from Trino for structural columns are converted with
+ * {@link #toGraphQLValue(TrinoType, Object)}, so clients get structured values.
+ * </p>
  *
  * @author Ivan Rodriguez
  */
@@ -40,68 +74,185 @@ public class TrinoToGraphQLOutputTypeMapper {
 		.field(f -> f.name("value").type(Scalars.GraphQLString))
 		.build();
 
+	private static final GraphQLSchemaFixer FIXER = new GraphQLSchemaFixer();
+
+	private static final Map<TrinoType, GraphQLOutputType> MAPPED = new ConcurrentHashMap<>();
+
 	/**
 	 * Maps a Trino SQL type string to a corresponding GraphQL output type.
 	 * @param trinoType the SQL type from Trino (e.g., "varchar", "array(bigint)")
 	 * @return the corresponding {@link GraphQLOutputType}
 	 */
 	public static GraphQLOutputType mapType(String trinoType) {
-		trinoType = trinoType.trim().toLowerCase();
-
-		// Handle complex types first
-		if (trinoType.startsWith("array(")) {
-			return handleArray(trinoType);
-		}
+		return mapType(TrinoType.parse(trinoType));
+	}
 
-		if (trinoType.startsWith("map(")) {
-			return handleMap();
+	/**
+	 * Maps a parsed Trino type to a corresponding GraphQL output type.
+	 * @param type the parsed type
+	 * @return the corresponding {@link GraphQLOutputType}, the same instance for the same
+	 * type
+	 */
+	public static GraphQLOutputType mapType(TrinoType type) {
+		GraphQLOutputType mapped = MAPPED.get(type);
+		if (mapped == null) {
+			// Not computeIfAbsent, which can't map the nested types recursively
+			mapped = createType(type);
+			GraphQLOutputType previous = MAPPED.putIfAbsent(type, mapped);
+			if (previous != null)
+				mapped = previous;
 		}
+		return mapped;
+	}
 
-		if (trinoType.startsWith("decimal(")) {
-			return Scalars.GraphQLString; // Mapping decimal to String for simplicity
-		}
+	private static GraphQLOutputType createType(TrinoType type) {
+		if (type.isArray())
+			return GraphQLList.list(mapType(type.getElementType()));
+		if (type.isMap())
+			return GraphQLList.list(createMapEntryType(type));
+		if (type.isRow())
+			return createRowType(type);
 
 		// Base types using switch
-		return switch (trinoType) {
+		return switch (type.getName()) {
 			case "boolean" -> Scalars.GraphQLBoolean;
 			case "tinyint", "smallint", "integer", "int" -> Scalars.GraphQLInt;
-			case "bigint" -> Scalars.GraphQLString;
+			case "bigint" -> TrinoScalars.LONG;
 			case "real", "double" -> Scalars.GraphQLFloat;
-			case "varchar", "char", "varbinary", "json", "uuid", "ipaddress", "date", "time", "timestamp", "interval" ->
+			case "decimal" -> TrinoScalars.BIG_DECIMAL;
+			case "date" -> TrinoScalars.DATE;
+			case "timestamp" -> TrinoScalars.DATE_TIME;
+			case "varchar", "char", "varbinary", "json", "uuid", "ipaddress", "time", "interval" ->
 				Scalars.GraphQLString;
 			default -> Scalars.GraphQLString; // fallback
 		};
 	}
 
 	/**
-	 * Handles mapping of Trino {@code array(<type>)} to GraphQL {@code [<type>]}.
-	 * @param trinoType the full array type string (e.g., "array(varchar)")
-	 * @return the GraphQL list type corresponding to the array's inner type
+	 * Creates the entry type of a map, with {@code key} and {@code value} fields.
+	 * @param type the map type
+	 * @return the shared {@code KeyValue} type if both fields are strings, otherwise a
+	 * type named after the map signature
 	 */
-	private static GraphQLOutputType handleArray(String trinoType) {
-		String innerType = extractInner(trinoType);
-		return GraphQLList.list(mapType(innerType));
+	private static GraphQLOutputType createMapEntryType(TrinoType type) {
+		GraphQLOutputType keyType = mapType(type.getKeyType());
+		GraphQLOutputType valueType = mapType(type.getValueType());
+		if (keyType == Scalars.GraphQLString && valueType == Scalars.GraphQLString)
+			return KEY_VALUE_TYPE;
+		return GraphQLObjectType.newObject()
+			.name(typeName("TrinoMap_", type))
+			.description("Entry of a Trino " + type.getSignature())
+			.field(f -> f.name("key").type(keyType))
+			.field(f -> f.name("value").type(valueType))
+			.build();
 	}
 
 	/**
-	 * Handles Trino {@code map(key_type, value_type)} by mapping to a GraphQL list of
-	 * KeyValue objects.
-	 * @return a {@link GraphQLList} of {@link GraphQLObjectType} "KeyValue"
+	 * Creates the object type of a row, with a field per row field. Anonymous fields are
+	 * named {@code field<position>}, and other names are sanitized like column names.
+	 * @param type the row type
+	 * @return the row type, or the string type for a row without fields
 	 */
-	private static GraphQLOutputType handleMap() {
-		return GraphQLList.list(KEY_VALUE_TYPE);
+	private static GraphQLOutputType createRowType(TrinoType type) {
+		GraphQLObjectType.Builder builder = GraphQLObjectType.newObject()
+			.name(typeName("TrinoRow_", type))
+			.description("Trino " + type.getSignature());
+		Set<String> names = new HashSet<>();
+		List<TrinoType.Field> fields = type.getFields();
+		for (int i = 0; i < fields.size(); i++) {
+			TrinoType.Field field = fields.get(i);
+			String name = fieldName(field, i);
+			if (!names.add(name))
+				continue;
+			builder.field(GraphQLFieldDefinition.newFieldDefinition()
+				.name(name)
+				.description("Trino type: " + field.getType().getSignature())
+				.type(mapType(field.getType())));
+		}
+		return names.isEmpty() ? Scalars.GraphQLString : builder.build();
+	}
+
+	private static String fieldName(TrinoType.Field field, int position) {
+		return field.getName() == null ? "field" + position : FIXER.sanitizeSchema(field.getName());
+	}
+
+	@SneakyThrows
+	private static String typeName(String prefix, TrinoType type) {
+		byte[] digest = MessageDigest.getInstance("SHA-256")
+			.digest(type.getSignature().getBytes(StandardCharsets.UTF_8));
+		return prefix + HexFormat.of().formatHex(digest, 0, 8);
+	}
+
+	/**
+	 * Converts a value read from Trino to the shape of the GraphQL type of its Trino
+	 * type: arrays to lists, maps to lists of {@code key} and {@code value} entries, and
+	 * rows to maps keyed by GraphQL field name, recursively. Other values are returned as
+	 * they are.
+	 * @param type the Trino type of the value
+	 * @param value the value, as returned by the Trino JDBC driver
+	 * @return the converted value
+	 */
+	@SneakyThrows
+	public static Object toGraphQLValue(TrinoType type, Object value) {
+		if (value == null || !type.isStructural())
+			return value;
+		if (type.isArray()) {
+			List<Object> list = new ArrayList<>();
+			for (Object element : elements(value)) {
+				list.add(toGraphQLValue(type.getElementType(), element));
+			}
+			return list;
+		}
+		if (type.isMap()) {
+			if (!(value instanceof Map<?, ?> map))
+				return value;
+			List<Map<String, Object>> entries = new ArrayList<>(map.size());
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				Map<String, Object> converted = new LinkedHashMap<>();
+				converted.put("key", toGraphQLValue(type.getKeyType(), entry.getKey()));
+				converted.put("value", toGraphQLValue(type.getValueType(), entry.getValue()));
+				entries.add(converted);
+			}
+			return entries;
+		}
+		List<TrinoType.Field> fields = type.getFields();
+		List<Object> values = rowValues(value, fields);
+		if (values == null)
+			return value;
+		Map<String, Object> row = new LinkedHashMap<>();
+		for (int i = 0; i < fields.size() && i < values.size(); i++) {
+			row.putIfAbsent(fieldName(fields.get(i), i), toGraphQLValue(fields.get(i).getType(), values.get(i)));
+		}
+		return row;
+	}
+
+	private static Collection<?> elements(Object value) throws Exception {
+		if (value instanceof Array array)
+			return Arrays.asList((Object[]) array.getArray());
+		if (value instanceof Object[] array)
+			return Arrays.asList(array);
+		if (value instanceof Collection<?> collection)
+			return collection;
+		return List.of(value);
 	}
 
 	/**
-	 * Extracts the inner type from a parameterized type string. For example:
-	 * {@code array(bigint)} -> {@code bigint}
-	 * @param type the full type string
-	 * @return the inner type string
+	 * Returns the values of a row in field order, from a driver {@link Row}, a list, or a
+	 * map keyed by field name.
 	 */
-	private static String extractInner(String type) {
-		int start = type.indexOf('(') + 1;
-		int end = type.lastIndexOf(')');
-		return type.substring(start, end).trim();
+	private static List<Object> rowValues(Object value, List<TrinoType.Field> fields) {
+		if (value instanceof Row row)
+			return row.getFields().stream().map(RowField::getValue).toList();
+		if (value instanceof List<?> list)
+			return new ArrayList<>(list);
+		if (value instanceof Map<?, ?> map) {
+			List<Object> values = new ArrayList<>(fields.size());
+			for (TrinoType.Field field : fields) {
+				values.add(map.get(field.getName()));
+			}
+			return values;
+		}
+		return null;
 	}
 
 }
@@ -0,0 +1,379 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parsed Trino type, such as {@code bigint}, {@code decimal(10,2)} or
+ * {@code array(row(a bigint, b map(varchar, array(double))))}.
+ * <p>
+ * Types are parsed once by a recursive descent parser and interned: parsing the same type
+ * string again, or any type with the same {@link #getSignature() signature}, returns the
+ * same instance, including for nested types. Type names are case insensitive and
+ * normalized to lower case; row field names keep their case, and may be quoted. Strings
+ * that can't be parsed are kept as a scalar type.
+ * </p>
+ *
+ * @author Ivan Rodriguez
+ */
+public final class TrinoType {
+
+	private static final Map<String, TrinoType> PARSED = new ConcurrentHashMap<>();
+
+	private static final Map<String, TrinoType> INTERNED = new ConcurrentHashMap<>();
+
+	/** Leading words of the scalar types spelled with several words. */
+	private static final Set<String> MULTI_WORD_TYPES = Set.of("time", "timestamp", "interval", "double");
+
+	private final String name;
+
+	private final String signature;
+
+	private final List<TrinoType> typeArguments;
+
+	private final List<Field> fields;
+
+	private TrinoType(String name, String signature, List<TrinoType> typeArguments, List<Field> fields) {
+		this.name = name;
+		this.signature = signature;
+		this.typeArguments = typeArguments;
+		this.fields = fields;
+	}
+
+	/**
+	 * Parses a Trino type.
+	 * @param type the type, as listed by {@code DESCRIBE} or
+	 * {@code information_schema.columns}
+	 * @return the interned type
+	 */
+	public static TrinoType parse(String type) {
+		TrinoType parsed = PARSED.get(type);
+		if (parsed == null) {
+			try {
+				Parser parser = new Parser(type);
+				parsed = parser.type();
+				parser.end();
+			}
+			catch (IllegalArgumentException e) {
+				parsed = scalar(type.trim().toLowerCase(Locale.ROOT));
+			}
+			PARSED.putIfAbsent(type, parsed);
+		}
+		return parsed;
+	}
+
+	/**
+	 * Returns the name of the type without its parameters, e.g. {@code decimal} for
+	 * {@code decimal(10,2)}, or {@code array}, {@code map} or {@code row}.
+	 * @return the lower case base name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the normalized type, with lower case type names and single spaces.
+	 * @return the signature
+	 */
+	public String getSignature() {
+		return signature;
+	}
+
+	/**
+	 * Returns whether this is an {@code array}, {@code map} or {@code row} type.
+	 * @return {@code true} for a structural type
+	 */
+	public boolean isStructural() {
+		return isArray() || isMap() || isRow();
+	}
+
+	/**
+	 * Returns whether this is an {@code array} type.
+	 * @return {@code true} for an array
+	 */
+	public boolean isArray() {
+		return "array".equals(name) && typeArguments.size() == 1;
+	}
+
+	/**
+	 * Returns whether this is a {@code map} type.
+	 * @return {@code true} for a map
+	 */
+	public boolean isMap() {
+		return "map".equals(name) && typeArguments.size() == 2;
+	}
+
+	/**
+	 * Returns whether this is a {@code row} type.
+	 * @return {@code true} for a row
+	 */
+	public boolean isRow() {
+		return "row".equals(name) && !fields.isEmpty();
+	}
+
+	/**
+	 * Returns the element type of an array.
+	 * @return the element type, or {@code null} if this is not an array
+	 */
+	public TrinoType getElementType() {
+		return isArray() ? typeArguments.get(0) : null;
+	}
+
+	/**
+	 * Returns the key type of a map.
+	 * @return the key type, or {@code null} if this is not a map
+	 */
+	public TrinoType getKeyType() {
+		return isMap() ? typeArguments.get(0) : null;
+	}
+
+	/**
+	 * Returns the value type of a map.
+	 * @return the value type, or {@code null} if this is not a map
+	 */
+	public TrinoType getValueType() {
+		return isMap() ? typeArguments.get(1) : null;
+	}
+
+	/**
+	 * Returns the fields of a row, in order.
+	 * @return the fields; empty if this is not a row
+	 */
+	public List<Field> getFields() {
+		return fields;
+	}
+
+	@Override
+	public String toString() {
+		return signature;
+	}
+
+	private static TrinoType scalar(String signature) {
+		int parameters = signature.indexOf('(');
+		int space = signature.indexOf(' ');
+		int end = parameters < 0 ? space : space < 0 ? parameters : Math.min(parameters, space);
+		return intern(
+				new TrinoType(end < 0 ? signature : signature.substring(0, end), signature, List.of(), List.of()));
+	}
+
+	private static TrinoType intern(TrinoType type) {
+		TrinoType interned = INTERNED.putIfAbsent(type.signature, type);
+		return interned != null ? interned : type;
+	}
+
+	/**
+	 * Field of a row type.
+	 */
+	public static final class Field {
+
+		private final String name;
+
+		private final TrinoType type;
+
+		private Field(String name, TrinoType type) {
+			this.name = name;
+			this.type = type;
+		}
+
+		/**
+		 * Returns the name of the field.
+		 * @return the field name, or {@code null} for an anonymous field
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Returns the type of the field.
+		 * @return the field type
+		 */
+		public TrinoType getType() {
+			return type;
+		}
+
+	}
+
+	/**
+	 * Recursive descent parser of a type string.
+	 */
+	private static final class Parser {
+
+		private final String input;
+
+		private int position;
+
+		private Parser(String input) {
+			this.input = input;
+		}
+
+		private TrinoType type() {
+			skipSpaces();
+			int start = position;
+			String word = word().toLowerCase(Locale.ROOT);
+			if (peek() == '(' && (word.equals("array") || word.equals("map") || word.equals("row"))) {
+				position++;
+				List<TrinoType> arguments = new ArrayList<>();
+				List<Field> fields = new ArrayList<>();
+				do {
+					if (word.equals("row"))
+						fields.add(field());
+					else
+						arguments.add(type());
+					skipSpaces();
+				}
+				while (accept(','));
+				expect(')');
+				if (word.equals("array") && arguments.size() != 1 || word.equals("map") && arguments.size() != 2)
+					throw new IllegalArgumentException("Wrong number of type arguments in " + input);
+				return intern(new TrinoType(word, signature(word, arguments, fields), List.copyOf(arguments),
+						List.copyOf(fields)));
+			}
+			// Scalar type, with its parameters and trailing words, e.g. timestamp(3) with
+			// time zone
+			position = start;
+			int depth = 0;
+			while (position < input.length()) {
+				char c = input.charAt(position);
+				if (c == '(') {
+					depth++;
+				}
+				else if (c == ')') {
+					if (depth == 0)
+						break;
+					depth--;
+				}
+				else if (c == ',' && depth == 0) {
+					break;
+				}
+				position++;
+			}
+			String scalar = input.substring(start, position).trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+			if (scalar.isEmpty() || depth > 0)
+				throw new IllegalArgumentException("Missing type in " + input);
+			return scalar(scalar);
+		}
+
+		private Field field() {
+			skipSpaces();
+			if (peek() == '"') {
+				StringBuilder name = new StringBuilder();
+				position++;
+				while (true) {
+					if (position >= input.length())
+						throw new IllegalArgumentException("Unterminated field name in " + input);
+					char c = input.charAt(position++);
+					if (c == '"') {
+						if (peek() != '"')
+							break;
+						position++;
+					}
+					name.append(c);
+				}
+				return new Field(name.toString(), type());
+			}
+			int start = position;
+			String word = word();
+			skipSpaces();
+			char next = peek();
+			boolean anonymous = next == ',' || next == ')' || next == '(' || next == 0
+					|| MULTI_WORD_TYPES.contains(word.toLowerCase(Locale.ROOT)) && isTypeWord(lookAhead());
+			if (anonymous) {
+				position = start;
+				return new Field(null, type());
+			}
+			return new Field(word, type());
+		}
+
+		private String word() {
+			int start = position;
+			while (position < input.length()
+					&& (Character.isLetterOrDigit(input.charAt(position)) || input.charAt(position) == '_'))
+				position++;
+			return input.substring(start, position);
+		}
+
+		private String lookAhead() {
+			int start = position;
+			String word = word();
+			position = start;
+			return word.toLowerCase(Locale.ROOT);
+		}
+
+		private static boolean isTypeWord(String word) {
+			return word.equals("with") || word.equals("without") || word.equals("day") || word.equals("year")
+					|| word.equals("precision");
+		}
+
+		private char peek() {
+			return position < input.length() ? input.charAt(position) : 0;
+		}
+
+		private boolean accept(char c) {
+			skipSpaces();
+			if (peek() != c)
+				return false;
+			position++;
+			return true;
+		}
+
+		private void expect(char c) {
+			if (!accept(c))
+				throw new IllegalArgumentException("Expected '" + c + "' at " + position + " in " + input);
+		}
+
+		private void skipSpaces() {
+			while (position < input.length() && Character.isWhitespace(input.charAt(position)))
+				position++;
+		}
+
+		private void end() {
+			skipSpaces();
+			if (position < input.length())
+				throw new IllegalArgumentException("Unexpected '" + input.charAt(position) + "' in " + input);
+		}
+
+		private static String signature(String name, List<TrinoType> arguments, List<Field> fields) {
+			StringBuilder signature = new StringBuilder(name).append('(');
+			if (name.equals("row")) {
+				for (int i = 0; i < fields.size(); i++) {
+					Field field = fields.get(i);
+					if (i > 0)
+						signature.append(", ");
+					if (field.name != null)
+						signature.append('"').append(field.name.replace("\"", "\"\"")).append("\" ");
+					signature.append(field.type.signature);
+				}
+			}
+			else {
+				for (int i = 0; i < arguments.size(); i++) {
+					if (i > 0)
+						signature.append(", ");
+					signature.append(arguments.get(i).signature);
+				}
+			}
+			return signature.append(')').toString();
+		}
+
+	}
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data.metadata;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, in-memory index of the metadata read by a crawl: the catalogs, and the
+ * schemas, tables and columns of every crawled catalog.
+ * <p>
+ * Lookups are plain map reads. They return {@code null} for anything the crawl did not
+ * read, such as the schemas of an excluded catalog, so callers can fall back to the
+ * metadata cache.
+ * </p>
+ *
+ * @author Ivan Rodriguez
+ */
+public final class MetadataIndex {
+
+	/** Index of a crawl that has not run yet. */
+	public static final MetadataIndex EMPTY = new MetadataIndex(null, Map.of(), Map.of(), Map.of());
+
+	private final List<String> catalogs;
+
+	private final Map<String, List<String>> schemas;
+
+	private final Map<String, List<String>> tables;
+
+	private final Map<String, TableMetadata> columns;
+
+	private MetadataIndex(List<String> catalogs, Map<String, List<String>> schemas, Map<String, List<String>> tables,
+			Map<String, TableMetadata> columns) {
+		this.catalogs = catalogs;
+		this.schemas = schemas;
+		this.tables = tables;
+		this.columns = columns;
+	}
+
+	/**
+	 * Builds an index.
+	 * @param catalogs every catalog, as listed by Trino
+	 * @param schemas the schemas of every crawled catalog, keyed by catalog
+	 * @param tables the tables of every crawled schema, keyed by catalog and schema
+	 * @param metadata the crawled tables, keyed by catalog
+	 * @return the index
+	 */
+	public static MetadataIndex of(List<String> catalogs, Map<String, List<String>> schemas,
+			Map<String, Map<String, List<String>>> tables, Map<String, List<TableMetadata>> metadata) {
+		Map<String, List<String>> schemaIndex = new HashMap<>();
+		schemas.forEach((catalog, names) -> schemaIndex.put(catalog, List.copyOf(names)));
+		Map<String, List<String>> tableIndex = new HashMap<>();
+		tables.forEach((catalog, catalogTables) -> catalogTables
+			.forEach((schema, names) -> tableIndex.put(key(catalog, schema), List.copyOf(names))));
+		Map<String, TableMetadata> columnIndex = new HashMap<>();
+		metadata.values()
+			.forEach(catalogTables -> catalogTables.forEach(
+					table -> columnIndex.put(key(table.getCatalog(), table.getSchema(), table.getTable()), table)));
+		return new MetadataIndex(List.copyOf(catalogs), Map.copyOf(schemaIndex), Map.copyOf(tableIndex),
+				Map.copyOf(columnIndex));
+	}
+
+	/**
+	 * Returns an index with the entries of another one added, e.g. of a crawl of some
+	 * catalogs only. The schemas, tables and columns of every catalog crawled by the
+	 * other index replace those of this one.
+	 * @param other the index to add
+	 * @return the merged index
+	 */
+	public MetadataIndex merge(MetadataIndex other) {
+		Map<String, List<String>> schemaIndex = new HashMap<>(schemas);
+		Map<String, List<String>> tableIndex = new HashMap<>(tables);
+		Map<String, TableMetadata> columnIndex = new HashMap<>(columns);
+		for (String catalog : other.schemas.keySet()) {
+			String prefix = key(catalog, "");
+			tableIndex.keySet().removeIf(key -> key.startsWith(prefix));
+			columnIndex.keySet().removeIf(key -> key.startsWith(prefix));
+		}
+		schemaIndex.putAll(other.schemas);
+		tableIndex.putAll(other.tables);
+		columnIndex.putAll(other.columns);
+		return new MetadataIndex(other.catalogs != null ? other.catalogs : catalogs, Map.copyOf(schemaIndex),
+				Map.copyOf(tableIndex), Map.copyOf(columnIndex));
+	}
+
+	/**
+	 * Returns every catalog.
+	 * @return the catalog names, or {@code null} before the first crawl
+	 */
+	public List<String> getCatalogs() {
+		return catalogs;
+	}
+
+	/**
+	 * Returns the schemas of a catalog.
+	 * @param catalog the sanitized catalog name
+	 * @return the schema names, or {@code null} if the catalog was not crawled
+	 */
+	public List<String> getSchemas(String catalog) {
+		return schemas.get(catalog);
+	}
+
+	/**
+	 * Returns the tables of a schema.
+	 * @param catalog the sanitized catalog name
+	 * @param schema the sanitized schema name
+	 * @return the table names, or {@code null} if the schema was not crawled
+	 */
+	public List<String> getTables(String catalog, String schema) {
+		return tables.get(key(catalog, schema));
+	}
+
+	/**
+	 * Returns the crawled metadata of a table.
+	 * @param catalog the sanitized catalog name
+	 * @param schema the sanitized schema name
+	 * @param table the sanitized table name
+	 * @return the table metadata, or {@code null} if the table was not crawled
+	 */
+	public TableMetadata getTable(String catalog, String schema, String table) {
+		return columns.get(key(catalog, schema, table));
+	}
+
+	private static String key(String... parts) {
+		return String.join("\u0000", parts);
+	}
+
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data.metadata;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Metadata cache stored in a single, memory-mapped binary file.
+ * <p>
+ * Every cached value (a list of names, or a list of column or relation rows) is stored
+ * under a key built with {@link #key(String...)}. The file starts with a header (magic
+ * {@code TGMS}, format version, entry count and index offset), followed by the encoded
+ * values and an index of every key with the offset and length of its value. Opening the
+ * snapshot maps the file and reads the index; values are decoded from the mapping on
+ * demand. Files larger than a single mapping are mapped in segments.
+ * </p>
+ * <p>
+ * Values written with {@code put} are visible at once and kept in memory until
+ * {@link #flush()} rewrites the file, with every mapped and pending entry, and swaps it
+ * in atomically. A file with another format version is ignored, and replaced on the next
+ * flush.
+ * </p>
+ *
+ * @author Ivan Rodriguez
+ */
+@Slf4j
+public class MetadataSnapshot {
+
+	/** Version of the file format, bumped on every incompatible change. */
+	public static final int FORMAT_VERSION = 1;
+
+	private static final int MAGIC = 0x54474D53; // TGMS
+
+	private static final int HEADER_SIZE = 4 + 4 + 4 + 8;
+
+	private static final byte STRINGS = 1;
+
+	private static final byte ROWS = 2;
+
+	private static final int SEGMENT_SHIFT = 30;
+
+	private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+
+	private final Path file;
+
+	private final Map<String, byte[]> pending = new ConcurrentHashMap<>();
+
+	private volatile Mapping mapping;
+
+	/**
+	 * Opens the snapshot stored in the given file, which does not need to exist yet.
+	 * @param file the snapshot file
+	 */
+	public MetadataSnapshot(Path file) {
+		this.file = file;
+		this.mapping = Mapping.open(file);
+	}
+
+	/**
+	 * Builds the key of a value from its parts, e.g. the catalog, schema and table names.
+	 * @param parts the key parts
+	 * @return the key
+	 */
+	public static String key(String... parts) {
+		return String.join("\u0000", parts);
+	}
+
+	/**
+	 * Returns the number of entries, mapped and pending.
+	 * @return the number of entries
+	 */
+	public int size() {
+		Mapping current = mapping;
+		int size = current.index.size();
+		for (String key : pending.keySet()) {
+			if (!current.index.containsKey(key))
+				size++;
+		}
+		return size;
+	}
+
+	/**
+	 * Reads a list of names.
+	 * @param key the key of the value
+	 * @return the names, or {@code null} if the key is not in the snapshot
+	 */
+	public List<String> getStrings(String key) {
+		ByteBuffer value = get(key);
+		if (value == null)
+			return null;
+		expect(value, STRINGS, key);
+		int count = value.getInt();
+		List<String> strings = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			strings.add(readString(value));
+		}
+		return strings;
+	}
+
+	/**
+	 * Reads a list of rows, such as the columns of a table.
+	 * @param key the key of the value
+	 * @return the rows, or {@code null} if the key is not in the snapshot
+	 */
+	public List<Map<String, Object>> getRows(String key) {
+		ByteBuffer value = get(key);
+		if (value == null)
+			return null;
+		expect(value, ROWS, key);
+		int count = value.getInt();
+		List<Map<String, Object>> rows = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int size = value.getInt();
+			Map<String, Object> row = new LinkedHashMap<>();
+			for (int j = 0; j < size; j++) {
+				row.put(readString(value), readString(value));
+			}
+			rows.add(row);
+		}
+		return rows;
+	}
+
+	/**
+	 * Stores a list of names.
+	 * @param key the key of the value
+	 * @param strings the names
+	 */
+	@SneakyThrows
+	public void putStrings(String key, List<String> strings) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(STRINGS);
+		out.writeInt(strings.size());
+		for (String string : strings) {
+			writeString(out, string);
+		}
+		pending.put(key, bytes.toByteArray());
+	}
+
+	/**
+	 * Stores a list of rows. Values are stored as strings; {@code null} values are kept.
+	 * @param key the key of the value
+	 * @param rows the rows
+	 */
+	@SneakyThrows
+	public void putRows(String key, List<Map<String, Object>> rows) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(ROWS);
+		out.writeInt(rows.size());
+		for (Map<String, Object> row : rows) {
+			out.writeInt(row.size());
+			for (Map.Entry<String, Object> entry : row.entrySet()) {
+				writeString(out, entry.getKey());
+				writeString(out, entry.getValue() == null ? null : String.valueOf(entry.getValue()));
+			}
+		}
+		pending.put(key, bytes.toByteArray());
+	}
+
+	/**
+	 * Writes the pending values to the snapshot file, together with the values already in
+	 * it, and maps the new file. Does nothing if there is no pending value.
+	 */
+	@SneakyThrows
+	public synchronized void flush() {
+		if (pending.isEmpty())
+			return;
+		Mapping current = mapping;
+		Map<String, byte[]> written = new HashMap<>(pending);
+		Map<String, ByteBuffer> entries = new LinkedHashMap<>();
+		for (String key : current.index.keySet()) {
+			entries.put(key, current.slice(key));
+		}
+		written.forEach((key, value) -> entries.put(key, ByteBuffer.wrap(value)));
+
+		Files.createDirectories(file.toAbsolutePath().getParent());
+		Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+		try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(temp))) {
+			write(new DataOutputStream(stream), entries);
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		mapping = Mapping.open(file);
+		// Values put again while writing stay pending
+		written.forEach((key, value) -> pending.remove(key, value));
+		log.info("Wrote {} metadata entries to {}", entries.size(), file);
+	}
+
+	private static void write(DataOutputStream out, Map<String, ByteBuffer> entries) throws IOException {
+		long indexOffset = HEADER_SIZE;
+		for (ByteBuffer value : entries.values()) {
+			indexOffset += value.remaining();
+		}
+		out.writeInt(MAGIC);
+		out.writeInt(FORMAT_VERSION);
+		out.writeInt(entries.size());
+		out.writeLong(indexOffset);
+
+		WritableByteChannel channel = Channels.newChannel(out);
+		for (ByteBuffer value : entries.values()) {
+			ByteBuffer bytes = value.duplicate();
+			while (bytes.hasRemaining()) {
+				channel.write(bytes);
+			}
+		}
+		long offset = HEADER_SIZE;
+		for (Map.Entry<String, ByteBuffer> entry : entries.entrySet()) {
+			writeString(out, entry.getKey());
+			out.writeLong(offset);
+			out.writeInt(entry.getValue().remaining());
+			offset += entry.getValue().remaining();
+		}
+	}
+
+	private ByteBuffer get(String key) {
+		byte[] value = pending.get(key);
+		if (value != null)
+			return ByteBuffer.wrap(value);
+		return mapping.slice(key);
+	}
+
+	private static void expect(ByteBuffer value, byte kind, String key) {
+		byte actual = value.get();
+		if (actual != kind)
+			throw new IllegalStateException("Unexpected metadata entry kind " + actual + " for " + key);
+	}
+
+	private static void writeString(DataOutputStream out, String string) throws IOException {
+		if (string == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0)
+			return null;
+		if (!buffer.hasArray()) {
+			byte[] bytes = new byte[length];
+			buffer.get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+		String string = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+				StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + length);
+		return string;
+	}
+
+	/**
+	 * A mapped snapshot file and its index.
+	 */
+	private static final class Mapping {
+
+		private static final Mapping EMPTY = new Mapping(new ByteBuffer[0], Map.of());
+
+		private final ByteBuffer[] segments;
+
+		private final Map<String, long[]> index;
+
+		private Mapping(ByteBuffer[] segments, Map<String, long[]> index) {
+			this.segments = segments;
+			this.index = index;
+		}
+
+		private static Mapping open(Path file) {
+			if (!Files.isRegularFile(file))
+				return EMPTY;
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				long size = channel.size();
+				// A segment starts every 1 GB but spans up to 2 GB, so that every value
+				// lies within the segment it starts in
+				ByteBuffer[] segments = new ByteBuffer[(int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+				for (int i = 0; i < segments.length; i++) {
+					long start = i * SEGMENT_SIZE;
+					segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+							Math.min(size - start, Integer.MAX_VALUE));
+				}
+				ByteBuffer header = segments.length == 0 ? ByteBuffer.allocate(0) : segments[0].duplicate();
+				if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+					log.warn("Ignoring {}, not a metadata snapshot", file);
+					return EMPTY;
+				}
+				int version = header.getInt();
+				if (version != FORMAT_VERSION) {
+					log.warn("Ignoring {}, format version {} instead of {}", file, version, FORMAT_VERSION);
+					return EMPTY;
+				}
+				int count = header.getInt();
+				DataInputStream in = new DataInputStream(
+						new BufferedInputStream(Channels.newInputStream(channel.position(header.getLong()))));
+				Map<String, long[]> index = new HashMap<>(count * 4 / 3 + 1);
+				for (int i = 0; i < count; i++) {
+					byte[] key = new byte[in.readInt()];
+					in.readFully(key);
+					index.put(new String(key, StandardCharsets.UTF_8), new long[] { in.readLong(), in.readInt() });
+				}
+				log.info("Mapped {} metadata entries from {}", count, file);
+				return new Mapping(segments, index);
+			}
+			catch (IOException | RuntimeException e) {
+				log.warn("Ignoring unreadable metadata snapshot {}: {}", file, e.getMessage());
+				return EMPTY;
+			}
+		}
+
+		/**
+		 * Returns a read-only view of a mapped value, without copying it.
+		 */
+		private ByteBuffer slice(String key) {
+			long[] position = index.get(key);
+			if (position == null)
+				return null;
+			ByteBuffer segment = segments[(int) (position[0] >>> SEGMENT_SHIFT)];
+			return segment.slice((int) (position[0] & (SEGMENT_SIZE - 1)), (int) position[1]);
+		}
+
+	}
+
+}
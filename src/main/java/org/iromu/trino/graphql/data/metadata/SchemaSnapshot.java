@@ -0,0 +1,167 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data.metadata;
+
+import lombok.SneakyThrows;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.iromu.trino.graphql.data.relations.JoinRelation;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.iromu.trino.graphql.data.metadata.MetadataSnapshot.key;
+
+/**
+ * Everything the GraphQL schema is built from: the catalogs, the crawled tables with
+ * their columns, and the relations detected between them.
+ * <p>
+ * A schema snapshot is saved after every full crawl, so the next start can build the
+ * schema from it in a few milliseconds, without contacting Trino, and reconcile with live
+ * metadata afterwards. It is stored in the {@link MetadataSnapshot} format, in a file of
+ * its own that is replaced as a whole.
+ * </p>
+ * <p>
+ * A snapshot can also be generated at build time and bundled in the application, see
+ * {@link #loadBundled()}.
+ * </p>
+ *
+ * @author Ivan Rodriguez
+ */
+@Value
+@Slf4j
+public class SchemaSnapshot {
+
+	/** Name of the schema snapshot file. */
+	public static final String FILE = "schema.snapshot";
+
+	/**
+	 * Classpath location of the snapshot bundled in the application at build time by the
+	 * {@link SchemaSnapshotGenerator}.
+	 */
+	public static final String BUNDLED = "META-INF/graphql-trino/" + FILE;
+
+	/** Every catalog, as listed by Trino. */
+	List<String> catalogs;
+
+	/** The crawled tables, keyed by catalog, in Trino listing order. */
+	Map<String, List<TableMetadata>> tables;
+
+	/** The relations detected between the crawled tables, keyed by catalog. */
+	Map<String, List<JoinRelation>> relations;
+
+	/**
+	 * Writes the snapshot, replacing the given file atomically.
+	 * @param file the snapshot file
+	 */
+	@SneakyThrows
+	public void save(Path file) {
+		Path temp = file.resolveSibling(file.getFileName() + ".new");
+		Files.deleteIfExists(temp);
+		MetadataSnapshot snapshot = new MetadataSnapshot(temp);
+		snapshot.putStrings(key("catalogs"), catalogs);
+		snapshot.putStrings(key("crawled"), new ArrayList<>(tables.keySet()));
+		tables.forEach((catalog, catalogTables) -> {
+			List<String> names = new ArrayList<>();
+			for (TableMetadata table : catalogTables) {
+				names.add(table.getSchema());
+				names.add(table.getTable());
+				snapshot.putRows(key("columns", catalog, table.getSchema(), table.getTable()), table.getColumns());
+			}
+			snapshot.putStrings(key("tables", catalog), names);
+			snapshot.putRows(key("joins", catalog),
+					relations.getOrDefault(catalog, List.of()).stream().map(JoinRelation::toRow).toList());
+		});
+		snapshot.flush();
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Reads a snapshot.
+	 * @param file the snapshot file
+	 * @return the snapshot, or {@code null} if the file does not exist, is not a schema
+	 * snapshot or misses some of its entries
+	 */
+	public static SchemaSnapshot load(Path file) {
+		MetadataSnapshot snapshot = new MetadataSnapshot(file);
+		List<String> catalogs = snapshot.getStrings(key("catalogs"));
+		List<String> crawled = snapshot.getStrings(key("crawled"));
+		if (catalogs == null || crawled == null)
+			return null;
+		Map<String, List<TableMetadata>> tables = new LinkedHashMap<>();
+		Map<String, List<JoinRelation>> relations = new LinkedHashMap<>();
+		for (String catalog : crawled) {
+			List<String> names = snapshot.getStrings(key("tables", catalog));
+			List<Map<String, Object>> joins = snapshot.getRows(key("joins", catalog));
+			if (names == null || names.size() % 2 != 0 || joins == null)
+				return incomplete(file, catalog);
+			List<TableMetadata> catalogTables = new ArrayList<>(names.size() / 2);
+			for (int i = 0; i < names.size(); i += 2) {
+				String schema = names.get(i);
+				String table = names.get(i + 1);
+				List<Map<String, Object>> columns = snapshot.getRows(key("columns", catalog, schema, table));
+				if (columns == null)
+					return incomplete(file, catalog);
+				catalogTables.add(new TableMetadata(catalog, schema, table, columns));
+			}
+			tables.put(catalog, catalogTables);
+			relations.put(catalog, joins.stream().map(JoinRelation::fromRow).toList());
+		}
+		return new SchemaSnapshot(catalogs, tables, relations);
+	}
+
+	private static SchemaSnapshot incomplete(Path file, String catalog) {
+		log.warn("Ignoring schema snapshot {}, entries of catalog {} are missing", file, catalog);
+		return null;
+	}
+
+	/**
+	 * Reads the snapshot bundled in the application, if any.
+	 * @return the snapshot, or {@code null} if none was bundled
+	 */
+	@SneakyThrows
+	public static SchemaSnapshot loadBundled() {
+		try (InputStream bundled = SchemaSnapshot.class.getClassLoader().getResourceAsStream(BUNDLED)) {
+			if (bundled == null)
+				return null;
+			// Snapshots are memory-mapped, which jar or native image resources can't be
+			Path file = Files.createTempFile("graphql-trino", FILE);
+			try {
+				Files.copy(bundled, file, StandardCopyOption.REPLACE_EXISTING);
+				return load(file);
+			}
+			finally {
+				Files.delete(file);
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of tables in the snapshot.
+	 * @return the number of tables
+	 */
+	public int getTableCount() {
+		return tables.values().stream().mapToInt(List::size).sum();
+	}
+
+}
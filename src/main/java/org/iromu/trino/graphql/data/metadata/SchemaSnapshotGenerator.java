@@ -0,0 +1,209 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data.metadata;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.iromu.trino.graphql.AppProperties;
+import org.iromu.trino.graphql.data.TrinoSchemaService;
+import org.iromu.trino.graphql.data.relations.JoinRelation;
+import org.iromu.trino.graphql.data.relations.SameSchemaJoinDetector;
+import org.iromu.trino.graphql.schema.GraphQLSchemaFixer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Generates the {@link SchemaSnapshot} bundled in the application at build time, so a
+ * native image builds its first schema without contacting Trino.
+ * <p>
+ * The metadata is read either from a Trino instance, with the same crawl as the gateway,
+ * or from a local stub listing the columns of every table, one per line, as the tab
+ * separated {@code table_catalog}, {@code table_schema}, {@code table_name},
+ * {@code column_name} and {@code data_type} values of {@code information_schema.columns},
+ * e.g. the {@code TSV} output of the Trino CLI. Stub snapshots have no relations; they
+ * are detected by the first refresh.
+ * </p>
+ * <p>
+ * Arguments:
+ * </p>
+ * <ul>
+ * <li>{@code --output=<file>}: the snapshot file to write</li>
+ * <li>{@code --url=<jdbc url>} and {@code --user=<user>}: the Trino instance to
+ * crawl</li>
+ * <li>{@code --metadata=<file>}: the metadata stub, used without {@code --url}</li>
+ * <li>{@code --include-catalogs=<names>}, {@code --exclude-catalogs=<names>} and
+ * {@code --exclude-schemas=<names>}: comma separated, as
+ * {@link AppProperties#getIncludeCatalogs()}, {@link AppProperties#getExcludeCatalogs()}
+ * and {@link AppProperties#getExcludeSchemas()}</li>
+ * <li>{@code --replace-objects-name-characters=<boolean>} and
+ * {@code --ignore-objects-with-wrong-characters=<boolean>}: as
+ * {@link AppProperties#isReplaceObjectsNameCharacters()} and
+ * {@link AppProperties#isIgnoreObjectsWithWrongCharacters()}</li>
+ * </ul>
+ * Nothing is written if neither {@code --url} nor {@code --metadata} is set, and the
+ * application then crawls Trino at startup as usual. Unset or empty settings keep the
+ * defaults of the application, and should match its configuration: the bundled snapshot
+ * holds the catalogs, schemas and tables it serves, named as it names them.
+ *
+ * @author Ivan Rodriguez
+ */
+@Slf4j
+public final class SchemaSnapshotGenerator {
+
+	private SchemaSnapshotGenerator() {
+	}
+
+	/**
+	 * Generates the snapshot.
+	 * @param args the arguments, see the class documentation
+	 */
+	@SneakyThrows
+	public static void main(String[] args) {
+		Map<String, String> options = new HashMap<>();
+		for (String arg : args) {
+			int separator = arg.indexOf('=');
+			if (arg.startsWith("--") && separator > 2 && separator < arg.length() - 1)
+				options.put(arg.substring(2, separator), arg.substring(separator + 1));
+		}
+		String output = options.get("output");
+		if (output == null)
+			throw new IllegalArgumentException("Missing --output=<file>");
+
+		AppProperties app = properties(options);
+		SchemaSnapshot snapshot;
+		if (options.containsKey("url")) {
+			snapshot = crawl(options.get("url"), options.getOrDefault("user", "trino"), app);
+		}
+		else if (options.containsKey("metadata")) {
+			snapshot = fromStub(Paths.get(options.get("metadata")), app);
+		}
+		else {
+			log.info("No Trino URL nor metadata stub, no schema snapshot generated");
+			return;
+		}
+		Path file = Paths.get(output);
+		Files.createDirectories(file.toAbsolutePath().getParent());
+		snapshot.save(file);
+		log.info("Generated schema snapshot {} with {} tables in {} catalogs", file, snapshot.getTableCount(),
+				snapshot.getTables().size());
+	}
+
+	/**
+	 * Builds the settings of the generation from the arguments.
+	 */
+	static AppProperties properties(Map<String, String> options) {
+		AppProperties app = new AppProperties();
+		if (options.containsKey("include-catalogs"))
+			app.setIncludeCatalogs(names(options.get("include-catalogs")));
+		if (options.containsKey("exclude-catalogs"))
+			app.setExcludeCatalogs(names(options.get("exclude-catalogs")));
+		if (options.containsKey("exclude-schemas"))
+			app.setExcludeSchemas(names(options.get("exclude-schemas")));
+		if (options.containsKey("replace-objects-name-characters"))
+			app.setReplaceObjectsNameCharacters(Boolean.parseBoolean(options.get("replace-objects-name-characters")));
+		if (options.containsKey("ignore-objects-with-wrong-characters"))
+			app.setIgnoreObjectsWithWrongCharacters(
+					Boolean.parseBoolean(options.get("ignore-objects-with-wrong-characters")));
+		return app;
+	}
+
+	private static List<String> names(String list) {
+		return Arrays.stream(list.split(",")).map(String::trim).filter(name -> !name.isEmpty()).toList();
+	}
+
+	/**
+	 * Crawls a Trino instance, keeping the metadata cache in a temporary folder.
+	 */
+	@SneakyThrows
+	static SchemaSnapshot crawl(String url, String user, AppProperties app) {
+		app.setSchemaFolder(Files.createTempDirectory("graphql-trino").toString());
+		app.setIgnoreCache(true);
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, user, null));
+		TrinoSchemaService trinoSchemaService = new TrinoSchemaService(jdbcTemplate, app, new GraphQLSchemaFixer(),
+				Optional.of(new SameSchemaJoinDetector(jdbcTemplate)));
+		TrinoMetadataCrawler crawler = new TrinoMetadataCrawler(trinoSchemaService, app, Optional.empty());
+
+		Map<String, List<TableMetadata>> tables = crawler.crawl();
+		if (trinoSchemaService.getFailedLookups() > 0)
+			throw new IllegalStateException(
+					trinoSchemaService.getFailedLookups() + " metadata requests to " + url + " failed");
+		Map<String, List<JoinRelation>> relations = new LinkedHashMap<>();
+		for (String catalog : tables.keySet()) {
+			relations.put(catalog, trinoSchemaService.getJoins(catalog));
+		}
+		return new SchemaSnapshot(crawler.getIndex().getCatalogs(), tables, relations);
+	}
+
+	/**
+	 * Reads a metadata stub, keeping the tables a crawl would. Blank lines, lines
+	 * starting with {@code #} and a header line are skipped.
+	 */
+	@SneakyThrows
+	static SchemaSnapshot fromStub(Path stub, AppProperties app) {
+		GraphQLSchemaFixer fixer = new GraphQLSchemaFixer();
+		UnaryOperator<String> name = app.isReplaceObjectsNameCharacters() ? fixer::sanitizeSchema
+				: UnaryOperator.identity();
+		Set<String> catalogs = new LinkedHashSet<>();
+		Map<String, Map<String, TableMetadata>> tables = new LinkedHashMap<>();
+		int number = 0;
+		for (String line : Files.readAllLines(stub, StandardCharsets.UTF_8)) {
+			number++;
+			if (line.isBlank() || line.startsWith("#") || line.startsWith("table_catalog\t"))
+				continue;
+			String[] values = line.split("\t", -1);
+			if (values.length != 5)
+				throw new IllegalArgumentException(stub + ":" + number + ": expected 5 tab separated values");
+			String catalog = name.apply(values[0]);
+			String schema = name.apply(values[1]);
+			String table = name.apply(values[2]);
+			catalogs.add(catalog);
+			if (!TrinoMetadataCrawler.isCatalogIncluded(app, catalog))
+				continue;
+			Map<String, TableMetadata> catalogTables = tables.computeIfAbsent(catalog, c -> new LinkedHashMap<>());
+			if (!TrinoMetadataCrawler.isSchemaIncluded(app, schema)
+					|| !TrinoMetadataCrawler.isTableIncluded(app, table))
+				continue;
+			Map<String, Object> column = new LinkedHashMap<>();
+			column.put("Column", name.apply(values[3]));
+			column.put("Type", values[4]);
+			catalogTables
+				.computeIfAbsent(schema + "." + table,
+						k -> new TableMetadata(catalog, schema, table, new ArrayList<>()))
+				.getColumns()
+				.add(column);
+		}
+		Map<String, List<TableMetadata>> metadata = new LinkedHashMap<>();
+		tables.forEach((catalog, catalogTables) -> metadata.put(catalog, List.copyOf(catalogTables.values())));
+		return new SchemaSnapshot(List.copyOf(catalogs), metadata, Map.of());
+	}
+
+}
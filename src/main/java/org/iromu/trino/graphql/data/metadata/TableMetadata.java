@@ -0,0 +1,78 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data.metadata;
+
+import lombok.SneakyThrows;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Metadata of a single Trino table, as crawled to build the GraphQL schema.
+ *
+ * @author Ivan Rodriguez
+ */
+@Value
+public class TableMetadata {
+
+	/** Sanitized catalog name. */
+	String catalog;
+
+	/** Sanitized schema name. */
+	String schema;
+
+	/** Sanitized table name. */
+	String table;
+
+	/**
+	 * Column metadata, one map per column with at least the {@code Column} and
+	 * {@code Type} keys.
+	 */
+	List<Map<String, Object>> columns;
+
+	/**
+	 * Returns the fingerprint of the columns of this table.
+	 * @return the fingerprint, see {@link #fingerprint(List)}
+	 */
+	public String getFingerprint() {
+		return fingerprint(columns);
+	}
+
+	/**
+	 * Computes a fingerprint of column metadata from the name and type of every column,
+	 * in order. Two fingerprints only differ if a column was added, dropped, renamed,
+	 * retyped or moved.
+	 * @param columns column metadata, with the {@code Column} and {@code Type} keys
+	 * @return the hex encoded SHA-256 of the column names and types
+	 */
+	@SneakyThrows
+	public static String fingerprint(List<Map<String, Object>> columns) {
+		MessageDigest digest = MessageDigest.getInstance("SHA-256");
+		for (Map<String, Object> column : columns) {
+			digest.update(String.valueOf(column.get("Column")).getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			digest.update(String.valueOf(column.get("Type")).getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) '\n');
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+}
@@ -0,0 +1,444 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data.metadata;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.iromu.trino.graphql.AppProperties;
+import org.iromu.trino.graphql.data.TrinoSchemaService;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.iromu.trino.graphql.schema.GraphQLSchemaFixer.isValidName;
+
+/**
+ * Crawls the metadata of every included Trino catalog, schema and table in parallel.
+ * <p>
+ * Metadata requests run on a pool bounded by
+ * {@link AppProperties#getMetadataConcurrency()} and, within a catalog, by
+ * {@link AppProperties#getMetadataCatalogConcurrency()}, so a large catalog cannot starve
+ * the others nor overload a single connector. The result keeps the order in which Trino
+ * lists catalogs, schemas and tables, so the generated schema does not depend on which
+ * request completes first.
+ * </p>
+ * <p>
+ * Columns are read in bulk, with one {@code information_schema.columns} query per
+ * catalog, unless {@link AppProperties#isBulkColumnMetadata()} is disabled; tables the
+ * bulk query misses fall back to a {@code DESCRIBE} each.
+ * </p>
+ * <p>
+ * {@link #refresh()} crawls again bypassing the metadata cache; with bulk column
+ * metadata, that costs one {@code SHOW TABLES} per schema plus one
+ * {@code information_schema.columns} query per catalog, and only the cache files of
+ * changed tables are replaced. The metadata cache is saved at the end of every crawl.
+ * </p>
+ * <p>
+ * Every crawl also publishes an immutable {@link MetadataIndex} of what it read, so
+ * catalog, schema and table lookups at request time are plain map reads. Crawls of some
+ * catalogs only, as used by lazy catalog materialization, replace those catalogs in the
+ * index and keep the others.
+ * </p>
+ * <p>
+ * Progress is logged while columns are fetched, and the duration of every crawl and the
+ * number of crawled tables are published as the {@code trino.metadata.crawl} timer and
+ * the {@code trino.metadata.tables} counter when a {@link MeterRegistry} is available.
+ * </p>
+ *
+ * @author Ivan Rodriguez
+ */
+@Component
+@Slf4j
+public class TrinoMetadataCrawler {
+
+	private final TrinoSchemaService trinoSchemaService;
+
+	private final AppProperties app;
+
+	private final MeterRegistry meterRegistry;
+
+	private volatile MetadataIndex index = MetadataIndex.EMPTY;
+
+	/**
+	 * Constructs the crawler.
+	 * @param trinoSchemaService service reading (and caching) Trino metadata
+	 * @param app application properties with the filters and concurrency limits
+	 * @param meterRegistry optional registry the crawl metrics are published to
+	 */
+	public TrinoMetadataCrawler(TrinoSchemaService trinoSchemaService, AppProperties app,
+			Optional<MeterRegistry> meterRegistry) {
+		this.trinoSchemaService = trinoSchemaService;
+		this.app = app;
+		this.meterRegistry = meterRegistry == null ? null : meterRegistry.orElse(null);
+	}
+
+	/**
+	 * Returns the index of the metadata read by the last crawl.
+	 * @return the index, {@link MetadataIndex#EMPTY} before the first crawl
+	 */
+	public MetadataIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * Crawls the metadata of every included table.
+	 * @return the tables of every included catalog, keyed by catalog, in Trino listing
+	 * order
+	 */
+	public Map<String, List<TableMetadata>> crawl() {
+		return crawl(false, null);
+	}
+
+	/**
+	 * Crawls the metadata of the tables of some catalogs only.
+	 * @param catalogs the catalogs to crawl; catalogs that are not included are skipped
+	 * @return the tables of the crawled catalogs, keyed by catalog, in Trino listing
+	 * order
+	 */
+	public Map<String, List<TableMetadata>> crawl(Collection<String> catalogs) {
+		return crawl(false, catalogs);
+	}
+
+	/**
+	 * Crawls the metadata of every included table from Trino, bypassing the metadata
+	 * cache, to pick up catalogs, schemas, tables and columns that changed since the last
+	 * crawl.
+	 * @return the tables of every included catalog, keyed by catalog, in Trino listing
+	 * order
+	 */
+	public Map<String, List<TableMetadata>> refresh() {
+		return crawl(true, null);
+	}
+
+	/**
+	 * Crawls the metadata of the tables of some catalogs from Trino, bypassing the
+	 * metadata cache.
+	 * @param catalogs the catalogs to crawl; catalogs that are not included are skipped
+	 * @return the tables of the crawled catalogs, keyed by catalog, in Trino listing
+	 * order
+	 */
+	public Map<String, List<TableMetadata>> refresh(Collection<String> catalogs) {
+		return crawl(true, catalogs);
+	}
+
+	/**
+	 * Lists the included catalogs without crawling them, and publishes them in the index.
+	 * @param reload whether to bypass the metadata cache
+	 * @return the included catalogs, in Trino listing order
+	 */
+	public List<String> includedCatalogs(boolean reload) {
+		List<String> catalogs = trinoSchemaService.getCatalogs(reload);
+		index = index.merge(MetadataIndex.of(catalogs, Map.of(), Map.of(), Map.of()));
+		return catalogs.stream().filter(this::isIncluded).toList();
+	}
+
+	/**
+	 * Publishes the metadata of a schema snapshot in the index, in place of a crawl. The
+	 * schemas and tables of every catalog are those of its tables in the snapshot.
+	 * @param snapshot the schema snapshot
+	 * @return the tables of the snapshot, keyed by catalog, in Trino listing order
+	 */
+	public Map<String, List<TableMetadata>> restore(SchemaSnapshot snapshot) {
+		Map<String, List<String>> schemas = new LinkedHashMap<>();
+		Map<String, Map<String, List<String>>> tables = new LinkedHashMap<>();
+		snapshot.getTables().forEach((catalog, catalogTables) -> {
+			Map<String, List<String>> catalogSchemas = new LinkedHashMap<>();
+			for (TableMetadata table : catalogTables) {
+				catalogSchemas.computeIfAbsent(table.getSchema(), schema -> new ArrayList<>()).add(table.getTable());
+			}
+			schemas.put(catalog, new ArrayList<>(catalogSchemas.keySet()));
+			tables.put(catalog, catalogSchemas);
+		});
+		index = MetadataIndex.of(snapshot.getCatalogs(), schemas, tables, snapshot.getTables());
+		log.info("Restored {} tables in {} catalogs from the schema snapshot", snapshot.getTableCount(),
+				snapshot.getTables().size());
+		return snapshot.getTables();
+	}
+
+	private boolean isIncluded(String catalog) {
+		return isCatalogIncluded(app, catalog);
+	}
+
+	/**
+	 * Whether a catalog is crawled: listed by the included catalogs if any, not excluded
+	 * and validly named unless invalid names are kept.
+	 * @param app the application properties
+	 * @param catalog the catalog name
+	 * @return whether the schemas of the catalog are crawled
+	 */
+	static boolean isCatalogIncluded(AppProperties app, String catalog) {
+		if (app.getExcludeCatalogs() != null && app.getExcludeCatalogs().contains(catalog))
+			return false;
+		if (app.getIncludeCatalogs() != null && !app.getIncludeCatalogs().contains(catalog))
+			return false;
+		return !app.isIgnoreObjectsWithWrongCharacters() || isValidName(catalog);
+	}
+
+	/**
+	 * Whether a schema of an included catalog is crawled: not excluded and validly named
+	 * unless invalid names are kept.
+	 * @param app the application properties
+	 * @param schema the schema name
+	 * @return whether the tables of the schema are crawled
+	 */
+	static boolean isSchemaIncluded(AppProperties app, String schema) {
+		if (app.getExcludeSchemas() != null && app.getExcludeSchemas().contains(schema))
+			return false;
+		return !app.isIgnoreObjectsWithWrongCharacters() || isValidName(schema);
+	}
+
+	/**
+	 * Whether a table of an included schema is crawled: validly named unless invalid
+	 * names are kept.
+	 * @param app the application properties
+	 * @param table the table name
+	 * @return whether the columns of the table are crawled
+	 */
+	static boolean isTableIncluded(AppProperties app, String table) {
+		return !app.isIgnoreObjectsWithWrongCharacters() || isValidName(table);
+	}
+
+	private Map<String, List<TableMetadata>> crawl(boolean reload, Collection<String> only) {
+		long start = System.nanoTime();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, app.getMetadataConcurrency()),
+				threadFactory());
+		try {
+			Crawl crawl = new Crawl(executor, reload);
+			Map<String, List<TableMetadata>> result = crawl.run(only);
+			trinoSchemaService.saveMetadata();
+			index = only == null ? crawl.index(result) : index.merge(crawl.index(result));
+
+			Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+			int tables = result.values().stream().mapToInt(List::size).sum();
+			log.info("Crawled {} tables in {} catalogs in {} ms", tables, result.size(), elapsed.toMillis());
+			if (meterRegistry != null) {
+				meterRegistry.timer("trino.metadata.crawl").record(elapsed);
+				meterRegistry.counter("trino.metadata.tables").increment(tables);
+			}
+			return result;
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static ThreadFactory threadFactory() {
+		AtomicInteger count = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, "trino-metadata-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * State of a single crawl: the shared pool and the per-catalog request queues.
+	 */
+	private class Crawl {
+
+		private final ExecutorService executor;
+
+		private final boolean reload;
+
+		private final Map<String, CatalogQueue> catalogQueues = new HashMap<>();
+
+		private final AtomicInteger crawledTables = new AtomicInteger();
+
+		private List<String> allCatalogs;
+
+		private final Map<String, List<String>> schemaNames = new LinkedHashMap<>();
+
+		private final Map<String, Map<String, List<String>>> tableNames = new LinkedHashMap<>();
+
+		private Crawl(ExecutorService executor, boolean reload) {
+			this.executor = executor;
+			this.reload = reload;
+		}
+
+		private Map<String, List<TableMetadata>> run(Collection<String> only) {
+			List<String> catalogs = new ArrayList<>();
+			allCatalogs = trinoSchemaService.getCatalogs(reload);
+			for (String catalog : allCatalogs) {
+				if (!isIncluded(catalog) || (only != null && !only.contains(catalog))) {
+					continue;
+				}
+				catalogs.add(catalog);
+				catalogQueues.put(catalog, new CatalogQueue());
+			}
+
+			// Schemas of every catalog
+			Map<String, CompletableFuture<List<String>>> schemas = new LinkedHashMap<>();
+			for (String catalog : catalogs) {
+				schemas.put(catalog, submit(catalog, () -> trinoSchemaService.getSchemas(catalog, reload)));
+			}
+
+			// Tables of every schema
+			Map<String, Map<String, CompletableFuture<List<String>>>> tables = new LinkedHashMap<>();
+			for (String catalog : catalogs) {
+				Map<String, CompletableFuture<List<String>>> catalogTables = new LinkedHashMap<>();
+				schemaNames.put(catalog, schemas.get(catalog).join());
+				for (String schema : schemaNames.get(catalog)) {
+					if (!isSchemaIncluded(app, schema)) {
+						continue;
+					}
+					catalogTables.put(schema,
+							submit(catalog, () -> trinoSchemaService.getTables(catalog, schema, reload)));
+				}
+				tables.put(catalog, catalogTables);
+			}
+
+			// Columns of every table
+			Map<String, List<CompletableFuture<TableMetadata>>> columns = new LinkedHashMap<>();
+			int total = 0;
+			for (String catalog : catalogs) {
+				Map<String, List<String>> catalogTables = new LinkedHashMap<>();
+				for (Map.Entry<String, CompletableFuture<List<String>>> entry : tables.get(catalog).entrySet()) {
+					List<String> schemaTables = new ArrayList<>();
+					tableNames.computeIfAbsent(catalog, k -> new LinkedHashMap<>())
+						.put(entry.getKey(), entry.getValue().join());
+					for (String table : entry.getValue().join()) {
+						if (!isTableIncluded(app, table))
+							continue;
+						schemaTables.add(table);
+					}
+					catalogTables.put(entry.getKey(), schemaTables);
+				}
+
+				// One information_schema query per catalog, DESCRIBE for whatever it
+				// missed
+				CompletableFuture<Map<String, Map<String, List<Map<String, Object>>>>> bulk = app.isBulkColumnMetadata()
+						? submit(catalog, () -> trinoSchemaService.getCatalogColumns(catalog, catalogTables, reload))
+						: CompletableFuture.completedFuture(Map.of());
+				List<CompletableFuture<TableMetadata>> catalogColumns = new ArrayList<>();
+				catalogTables.forEach((schema, schemaTables) -> {
+					for (String table : schemaTables) {
+						catalogColumns.add(bulk.thenCompose(bulkColumns -> {
+							List<Map<String, Object>> tableColumns = bulkColumns.getOrDefault(schema, Map.of())
+								.get(table);
+							if (tableColumns != null)
+								return CompletableFuture
+									.completedFuture(new TableMetadata(catalog, schema, table, tableColumns));
+							return submit(catalog, () -> new TableMetadata(catalog, schema, table,
+									trinoSchemaService.getColumns(catalog, schema, table, reload)));
+						}));
+					}
+				});
+				total += catalogColumns.size();
+				columns.put(catalog, catalogColumns);
+			}
+			log.info("Fetching columns of {} tables in {} catalogs", total, catalogs.size());
+
+			int step = Math.max(1, total / 10);
+			Map<String, List<TableMetadata>> result = new LinkedHashMap<>();
+			for (Map.Entry<String, List<CompletableFuture<TableMetadata>>> entry : columns.entrySet()) {
+				List<TableMetadata> catalogTables = new ArrayList<>();
+				for (CompletableFuture<TableMetadata> future : entry.getValue()) {
+					catalogTables.add(future.join());
+					int crawled = crawledTables.incrementAndGet();
+					if (crawled % step == 0 || crawled == total)
+						log.info("Crawled {}/{} tables", crawled, total);
+				}
+				result.put(entry.getKey(), catalogTables);
+			}
+			return result;
+		}
+
+		private MetadataIndex index(Map<String, List<TableMetadata>> result) {
+			return MetadataIndex.of(allCatalogs, schemaNames, tableNames, result);
+		}
+
+		/**
+		 * Runs a metadata request on the shared pool, within the permits of its catalog.
+		 */
+		private <T> CompletableFuture<T> submit(String catalog, Supplier<T> request) {
+			CompletableFuture<T> future = new CompletableFuture<>();
+			catalogQueues.get(catalog).submit(() -> {
+				try {
+					future.complete(request.get());
+				}
+				catch (Throwable e) {
+					future.completeExceptionally(e);
+				}
+			});
+			return future;
+		}
+
+		/**
+		 * Requests of a catalog waiting for one of its permits.
+		 * <p>
+		 * Requests are only handed to the shared pool once they hold a permit, and each
+		 * completed request hands over its permit to the next one, so pool threads never
+		 * wait for the permits of a busy catalog while other catalogs have work to do.
+		 * </p>
+		 */
+		private class CatalogQueue {
+
+			private final Queue<Runnable> pending = new ArrayDeque<>();
+
+			private final int permits = Math.max(1, app.getMetadataCatalogConcurrency());
+
+			private int running;
+
+			private synchronized void submit(Runnable request) {
+				if (running < permits) {
+					running++;
+					executor.execute(() -> run(request));
+				}
+				else {
+					pending.add(request);
+				}
+			}
+
+			private void run(Runnable request) {
+				try {
+					request.run();
+				}
+				finally {
+					next();
+				}
+			}
+
+			private synchronized void next() {
+				Runnable request = pending.poll();
+				if (request == null) {
+					running--;
+				}
+				else if (!executor.isShutdown()) {
+					executor.execute(() -> run(request));
+				}
+			}
+
+		}
+
+	}
+
+}
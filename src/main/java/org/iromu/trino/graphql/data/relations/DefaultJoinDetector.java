@@ -6,6 +6,7 @@ import org.springframework.stereotype.Component;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -50,111 +51,54 @@ public class DefaultJoinDetector extends JoinDetector {
 	 * This method looks for:
 	 * <ul>
 	 * <li>Columns ending in <code>_id</code> that may reference <code>id</code> columns
-	 * in other tables</li>
+	 * in other tables, named after the column or its plural</li>
 	 * <li>Columns with matching or similar names across tables</li>
 	 * </ul>
-	 * The results are printed to the console as part of the detection process.
+	 * A <code>_id</code> to <code>id</code> match yields a single valued relation and its
+	 * reverse; same-named columns yield a relation in each direction.
+	 * </p>
+	 * <p>
+	 * Candidates are looked up in indexes of the catalog columns, by normalized name and
+	 * by table name, and the columns of every schema are matched in parallel.
+	 * </p>
 	 * @param catalog the catalog to scan for possible joins
-	 * @return a list of join strings (currently returns an empty list as the
-	 * implementation prints instead)
+	 * @return the detected directed relations
 	 */
-	public List<String> detect(String catalog) {
+	@Override
+	public List<JoinRelation> detectRelations(String catalog) {
 		List<ColumnInfo> columns = getColumns(catalog);
-
-		// Map to store columns by column name
-		Map<String, List<ColumnInfo>> columnMap = new HashMap<>();
-		for (ColumnInfo col : columns) {
-			columnMap.computeIfAbsent(col.column, k -> new ArrayList<>()).add(col);
-		}
-
-		System.out.println("🔍 Possible Join Candidates for Catalog: " + catalog + "\n");
-
-		for (ColumnInfo col : columns) {
-			if (col.column.endsWith("_id")) {
-				String refName = col.column.substring(0, col.column.length() - 3); // strip
-				// "_id"
-				for (Map.Entry<String, List<ColumnInfo>> entry : columnMap.entrySet()) {
-					for (ColumnInfo candidate : entry.getValue()) {
-						boolean nameMatch = candidate.table.equalsIgnoreCase(refName)
-								|| candidate.table.equalsIgnoreCase(refName + "s");
-						if (nameMatch && candidate.column.equalsIgnoreCase("id")) {
-							System.out.println("🧩 " + col.fullName() + " → " + candidate.fullName());
-						}
-					}
-				}
-			}
+		Map<String, List<ColumnInfo>> byName = indexByName(columns);
+		Map<String, List<ColumnInfo>> idsByTable = new HashMap<>();
+		for (ColumnInfo column : columns) {
+			if (column.column.equalsIgnoreCase("id"))
+				idsByTable.computeIfAbsent(column.table.toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(column);
 		}
 
-		// Detect joins based on exact column name matches and similar names
-		for (Map.Entry<String, List<ColumnInfo>> entry : columnMap.entrySet()) {
-			String columnName = entry.getKey();
-			List<ColumnInfo> columnList = entry.getValue();
-
-			// If there are multiple tables with the same column name, it's a potential
-			// join
-			if (columnList.size() > 1) {
-				// Avoid matching columns that are too different (e.g., `s_manager` vs
-				// `s_company_name`)
-				for (int i = 0; i < columnList.size(); i++) {
-					for (int j = i + 1; j < columnList.size(); j++) {
-						ColumnInfo col1 = columnList.get(i);
-						ColumnInfo col2 = columnList.get(j);
-
-						// Apply smarter name matching logic (for example, don't match
-						// `s_manager` with `s_company_name`)
-						if (isJoinable(col1.column, col2.column)) {
-							System.out.println("🧩 " + col1.fullName() + " ↔ " + col2.fullName());
-						}
-					}
+		return List.copyOf(groupBySchema(columns).values()).parallelStream().flatMap(schemaColumns -> {
+			List<JoinRelation> relations = new ArrayList<>();
+			for (ColumnInfo column : schemaColumns) {
+				if (column.column.endsWith("_id")) {
+					String stem = column.column.substring(0, column.column.length() - 3).toLowerCase(Locale.ROOT);
+					addForeignKeyRelations(column, idsByTable.get(stem), relations);
+					addForeignKeyRelations(column, idsByTable.get(stem + "s"), relations);
 				}
+				addSameNameRelations(column, byName, relations);
 			}
-		}
-		return new ArrayList<>();
+			return relations.stream();
+		}).toList();
 	}
 
 	/**
-	 * Determines if two columns are likely joinable based on their names.
-	 * @param column1 the name of the first column
-	 * @param column2 the name of the second column
-	 * @return {@code true} if the columns are considered joinable, {@code false}
-	 * otherwise
+	 * Adds the relations between a foreign key column and the {@code id} columns of the
+	 * tables it is named after.
 	 */
-	private boolean isJoinable(String column1, String column2) {
-		// Here we apply better heuristics to avoid false positives
-		// Example: Avoid matching `manager` with `company_name`, but allow `user_id` with
-		// `user_id`
-
-		// Check if the columns have the same base name (e.g., `user_id` vs `user_id`)
-		if (column1.equalsIgnoreCase(column2)) {
-			return true;
-		}
-
-		// Normalize the column names (remove underscores and convert to lowercase)
-		String normalizedColumn1 = normalizeColumnName(column1);
-		String normalizedColumn2 = normalizeColumnName(column2);
-
-		// Check if the columns are exactly the same after normalization
-		if (normalizedColumn1.equals(normalizedColumn2)) {
-			return true;
-		}
-
-		// Additional checks for common join patterns (e.g., '_id' suffixes)
-		if (column1.endsWith("_id") && column2.endsWith("_id")) {
-			return column1.substring(0, column1.length() - 3)
-				.equalsIgnoreCase(column2.substring(0, column2.length() - 3));
+	private static void addForeignKeyRelations(ColumnInfo column, List<ColumnInfo> ids, List<JoinRelation> relations) {
+		if (ids == null)
+			return;
+		for (ColumnInfo id : ids) {
+			relations.add(JoinRelation.of(column, id, false));
+			relations.add(JoinRelation.of(id, column, true));
 		}
-
-		// Add more custom logic for your data model if needed
-		return false;
-	} // Normalize column name by removing underscores and converting to lowercase
-
-	/**
-	 * Normalizes a column name by removing underscores and converting to lowercase.
-	 * @param columnName the original column name
-	 * @return a normalized version of the column name
-	 */
-	private String normalizeColumnName(String columnName) {
-		return columnName.replace("_", "").toLowerCase();
 	}
 
 }
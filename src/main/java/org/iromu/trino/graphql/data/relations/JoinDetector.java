@@ -1,15 +1,23 @@
 package org.iromu.trino.graphql.data.relations;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Abstract base class for detecting join relationships between tables in a Trino catalog.
  * <p>
- * Subclasses must implement the {@link #detect(String)} method to define how joins are
- * inferred. This class also provides a utility method to retrieve column metadata from
- * the Trino information schema.
+ * Subclasses must implement the {@link #detectRelations(String)} method to define how
+ * joins are inferred. This class also provides a utility method to retrieve column
+ * metadata from the Trino information schema.
  * </p>
  *
  * <p>
@@ -17,10 +25,23 @@ import java.util.List;
  * JSON, etc.) and excludes system/internal schemas from the results.
  * </p>
  *
+ * <p>
+ * Candidates are found through hash indexes, by normalized column name and by table name,
+ * instead of comparing every pair of columns, so a catalog with hundreds of thousands of
+ * columns is analysed in seconds.
+ * </p>
+ *
  * @author Ivan Rodriguez
  */
+@Slf4j
 public abstract class JoinDetector {
 
+	/**
+	 * Maximum number of tables a column name may appear in to relate them by that name.
+	 * Names shared by more tables, such as audit columns, are not keys.
+	 */
+	static final int MAX_SAME_NAME_TABLES = 10;
+
 	private final JdbcTemplate jdbcTemplate;
 
 	/**
@@ -35,9 +56,101 @@ public abstract class JoinDetector {
 	 * Abstract method to be implemented by subclasses to detect possible join
 	 * relationships in the provided catalog.
 	 * @param catalog the catalog to scan
-	 * @return a list of join description strings (implementation dependent)
+	 * @return the detected directed relations
+	 */
+	public abstract List<JoinRelation> detectRelations(String catalog);
+
+	/**
+	 * Detects possible join relationships in the provided catalog.
+	 * @param catalog the catalog to scan
+	 * @return the graph of the detected relations
 	 */
-	public abstract List<String> detect(String catalog);
+	public JoinGraph detect(String catalog) {
+		long start = System.nanoTime();
+		JoinGraph graph = JoinGraph.of(detectRelations(catalog));
+		log.info("Detected {} in catalog {} in {} ms", graph, catalog, (System.nanoTime() - start) / 1_000_000);
+		if (log.isDebugEnabled())
+			graph.getRelations().forEach(relation -> log.debug("🧩 {}", relation));
+		return graph;
+	}
+
+	/**
+	 * Normalizes a column name for comparison, removing underscores and converting it to
+	 * lowercase. Names equal once normalized are likely joinable, which covers common
+	 * foreign key conventions (e.g. {@code user_id} with {@code UserId}).
+	 * @param column the original column name
+	 * @return the normalized column name
+	 */
+	static String normalize(String column) {
+		return column.replace("_", "").toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Groups columns by schema, keeping their order.
+	 * @param columns the columns of a catalog
+	 * @return the columns of every schema, keyed by schema
+	 */
+	static Map<String, List<ColumnInfo>> groupBySchema(List<ColumnInfo> columns) {
+		Map<String, List<ColumnInfo>> bySchema = new LinkedHashMap<>();
+		for (ColumnInfo column : columns) {
+			bySchema.computeIfAbsent(column.schema, k -> new ArrayList<>()).add(column);
+		}
+		return bySchema;
+	}
+
+	/**
+	 * Indexes columns by normalized name.
+	 * @param columns the columns to index
+	 * @return the columns, keyed by {@link #normalize(String) normalized} name
+	 */
+	static Map<String, List<ColumnInfo>> indexByName(List<ColumnInfo> columns) {
+		Map<String, List<ColumnInfo>> byName = new HashMap<>();
+		for (ColumnInfo column : columns) {
+			byName.computeIfAbsent(normalize(column.column), k -> new ArrayList<>()).add(column);
+		}
+		return byName;
+	}
+
+	/**
+	 * Adds a relation from a column to every column of another table with the same
+	 * normalized name. Each pair of columns is found from both sides, giving a relation
+	 * in each direction.
+	 * <p>
+	 * Plain {@code id} columns are skipped: nearly every table has one, they would relate
+	 * every table to every other, and they are matched through foreign key names instead.
+	 * For the same reason, names found in more than {@value #MAX_SAME_NAME_TABLES} tables
+	 * are skipped, so a ubiquitous column cannot add a relation per pair of tables.
+	 * </p>
+	 * @param column the source column
+	 * @param byName the candidate columns, indexed by {@link #indexByName(List)}
+	 * @param relations the relations to add to
+	 */
+	static void addSameNameRelations(ColumnInfo column, Map<String, List<ColumnInfo>> byName,
+			List<JoinRelation> relations) {
+		String name = normalize(column.column);
+		List<ColumnInfo> candidates = byName.get(name);
+		if (candidates == null || candidates.size() < 2 || name.equals("id") || isUbiquitous(candidates))
+			return;
+		for (ColumnInfo candidate : candidates) {
+			if (!candidate.table.equals(column.table) || !candidate.schema.equals(column.schema))
+				relations.add(JoinRelation.of(column, candidate, true));
+		}
+	}
+
+	/**
+	 * Tells whether columns sharing a name belong to more than
+	 * {@value #MAX_SAME_NAME_TABLES} tables.
+	 */
+	private static boolean isUbiquitous(List<ColumnInfo> candidates) {
+		if (candidates.size() <= MAX_SAME_NAME_TABLES)
+			return false;
+		Set<List<String>> tables = new HashSet<>();
+		for (ColumnInfo candidate : candidates) {
+			if (tables.add(List.of(candidate.schema, candidate.table)) && tables.size() > MAX_SAME_NAME_TABLES)
+				return true;
+		}
+		return false;
+	}
 
 	/**
 	 * Retrieves a filtered list of column metadata from the specified Trino catalog.
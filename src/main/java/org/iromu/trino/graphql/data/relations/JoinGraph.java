@@ -0,0 +1,124 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data.relations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable graph of the join relations detected in a Trino catalog, as returned by
+ * {@link JoinDetector#detect(String)}.
+ * <p>
+ * Tables are the nodes and {@link JoinRelation}s the directed edges. The relations
+ * leaving a table are indexed, so they are a single map read.
+ * </p>
+ *
+ * @author Ivan Rodriguez
+ */
+public final class JoinGraph {
+
+	/** Graph of a catalog without relations. */
+	public static final JoinGraph EMPTY = new JoinGraph(List.of());
+
+	private final List<JoinRelation> relations;
+
+	private final Map<String, List<JoinRelation>> outgoing = new HashMap<>();
+
+	private final Set<String> tables = new LinkedHashSet<>();
+
+	private JoinGraph(List<JoinRelation> relations) {
+		this.relations = relations;
+		for (JoinRelation relation : relations) {
+			String source = relation.getSchema() + "." + relation.getTable();
+			outgoing.computeIfAbsent(source, k -> new ArrayList<>()).add(relation);
+			tables.add(source);
+			tables.add(relation.getTargetSchema() + "." + relation.getTargetTable());
+		}
+	}
+
+	/**
+	 * Builds a graph.
+	 * @param relations the detected relations
+	 * @return the graph
+	 */
+	public static JoinGraph of(List<JoinRelation> relations) {
+		return relations.isEmpty() ? EMPTY : new JoinGraph(List.copyOf(relations));
+	}
+
+	/**
+	 * Returns every relation of the graph, in detection order.
+	 * @return the relations
+	 */
+	public List<JoinRelation> getRelations() {
+		return relations;
+	}
+
+	/**
+	 * Returns the relations leaving a table.
+	 * @param schema the schema of the table
+	 * @param table the table
+	 * @return the relations whose source is the table; empty if it has none
+	 */
+	public List<JoinRelation> getRelations(String schema, String table) {
+		return outgoing.getOrDefault(schema + "." + table, List.of());
+	}
+
+	/**
+	 * Returns the tables that are the source or target of a relation.
+	 * @return the table names, as {@code schema.table}
+	 */
+	public Set<String> getTables() {
+		return Collections.unmodifiableSet(tables);
+	}
+
+	/**
+	 * Returns the number of relations.
+	 * @return the number of edges of the graph
+	 */
+	public int size() {
+		return relations.size();
+	}
+
+	/**
+	 * Returns a copy of the graph with every catalog, schema, table and column name
+	 * converted, e.g. sanitized for GraphQL.
+	 * @param names the conversion of a name
+	 * @return the converted graph
+	 */
+	public JoinGraph map(UnaryOperator<String> names) {
+		List<JoinRelation> mapped = new ArrayList<>(relations.size());
+		for (JoinRelation relation : relations) {
+			mapped.add(new JoinRelation(names.apply(relation.getCatalog()), names.apply(relation.getSchema()),
+					names.apply(relation.getTable()), names.apply(relation.getColumn()),
+					names.apply(relation.getTargetSchema()), names.apply(relation.getTargetTable()),
+					names.apply(relation.getTargetColumn()), relation.isMany()));
+		}
+		return of(mapped);
+	}
+
+	@Override
+	public String toString() {
+		return relations.size() + " relations between " + tables.size() + " tables";
+	}
+
+}
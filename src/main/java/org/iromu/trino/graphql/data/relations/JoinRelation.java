@@ -0,0 +1,115 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data.relations;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Directed join relationship between two tables of the same Trino catalog, as detected by
+ * a {@link JoinDetector}.
+ * <p>
+ * A relation always points from a source column to a target column. Symmetric candidates
+ * (e.g. {@code orders.custkey ↔ customer.custkey}) are represented by two relations, one
+ * in each direction.
+ * </p>
+ *
+ * @author Ivan Rodriguez
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JoinRelation {
+
+	/** Catalog both tables belong to. */
+	private String catalog;
+
+	/** Schema of the source table. */
+	private String schema;
+
+	/** Source table holding the join column. */
+	private String table;
+
+	/** Join column in the source table. */
+	private String column;
+
+	/** Schema of the target table. */
+	private String targetSchema;
+
+	/** Target table the relation resolves to. */
+	private String targetTable;
+
+	/** Join column in the target table. */
+	private String targetColumn;
+
+	/**
+	 * Whether a source row may match many target rows. Only foreign key to {@code id}
+	 * relations are known to be single valued.
+	 */
+	private boolean many;
+
+	/**
+	 * Builds the relation pointing from one detected column to another.
+	 * @param from the source column
+	 * @param to the target column
+	 * @param many whether a source row may match many target rows
+	 * @return the relation
+	 */
+	static JoinRelation of(JoinDetector.ColumnInfo from, JoinDetector.ColumnInfo to, boolean many) {
+		return new JoinRelation(from.catalog, from.schema, from.table, from.column, to.schema, to.table, to.column,
+				many);
+	}
+
+	/**
+	 * Converts the relation to a row of the metadata cache.
+	 * @return the relation properties, keyed by name
+	 */
+	public Map<String, Object> toRow() {
+		Map<String, Object> row = new LinkedHashMap<>();
+		row.put("catalog", catalog);
+		row.put("schema", schema);
+		row.put("table", table);
+		row.put("column", column);
+		row.put("targetSchema", targetSchema);
+		row.put("targetTable", targetTable);
+		row.put("targetColumn", targetColumn);
+		row.put("many", many);
+		return row;
+	}
+
+	/**
+	 * Reads a relation from a row of the metadata cache, where every value is a string.
+	 * @param row the relation properties, keyed by name
+	 * @return the relation
+	 */
+	public static JoinRelation fromRow(Map<String, Object> row) {
+		return new JoinRelation((String) row.get("catalog"), (String) row.get("schema"), (String) row.get("table"),
+				(String) row.get("column"), (String) row.get("targetSchema"), (String) row.get("targetTable"),
+				(String) row.get("targetColumn"), Boolean.parseBoolean(String.valueOf(row.get("many"))));
+	}
+
+	@Override
+	public String toString() {
+		return catalog + "." + schema + "." + table + "." + column + " → " + catalog + "." + targetSchema + "."
+				+ targetTable + "." + targetColumn + (many ? " [*]" : "");
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data.relations;
+
+import lombok.Value;
+import org.iromu.trino.graphql.data.TrinoQueryService;
+import org.iromu.trino.graphql.schema.GraphQLSchemaFixer;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-request DataLoader resolving relation fields generated from {@link JoinRelation}s.
+ * <p>
+ * Every relation field of every parent row registers its key with this loader; when the
+ * loader is dispatched, keys are grouped by relation and each group is fetched with a
+ * single {@code WHERE column IN (...)} query through
+ * {@link TrinoQueryService#queryTableByKeys}. A nested selection therefore costs one
+ * Trino query per relation and level instead of one per parent row.
+ * </p>
+ *
+ * @author Ivan Rodriguez
+ */
+@Component
+public class RelationDataLoader {
+
+	/**
+	 * Name the loader is registered under in the per-request DataLoader registry.
+	 */
+	public static final String NAME = "trinoRelations";
+
+	private final TrinoQueryService trinoQueryService;
+
+	private final GraphQLSchemaFixer fixer;
+
+	/**
+	 * Registers the relation loader with the GraphQL batch loader registry.
+	 * @param registry registry used by Spring GraphQL to build per-request DataLoaders
+	 * @param trinoQueryService service used to fetch related rows
+	 * @param fixer helper used to match sanitized column names
+	 */
+	public RelationDataLoader(BatchLoaderRegistry registry, TrinoQueryService trinoQueryService,
+			GraphQLSchemaFixer fixer) {
+		this.trinoQueryService = trinoQueryService;
+		this.fixer = fixer;
+		registry.<Key, List<Map<String, Object>>>forName(NAME)
+			.registerMappedBatchLoader((keys, env) -> Mono.fromCallable(() -> load(keys)));
+	}
+
+	/**
+	 * Resolves a batch of relation keys, issuing one query per distinct relation.
+	 * @param keys the keys collected during the current dispatch
+	 * @return the related rows for every key, an empty list when nothing matches
+	 */
+	public Map<Key, List<Map<String, Object>>> load(Set<Key> keys) {
+		Map<JoinRelation, Set<Object>> valuesByRelation = new LinkedHashMap<>();
+		for (Key key : keys) {
+			valuesByRelation.computeIfAbsent(key.getRelation(), k -> new LinkedHashSet<>()).add(key.getValue());
+		}
+
+		Map<Key, List<Map<String, Object>>> result = new HashMap<>();
+		for (Map.Entry<JoinRelation, Set<Object>> entry : valuesByRelation.entrySet()) {
+			JoinRelation relation = entry.getKey();
+			String targetColumn = fixer.sanitizeSchema(relation.getTargetColumn());
+
+			// Index rows by the string form of the key so int/bigint pairs still match
+			Map<String, List<Map<String, Object>>> rowsByKey = new HashMap<>();
+			for (Map<String, Object> row : trinoQueryService.queryTableByKeys(relation.getCatalog(),
+					relation.getTargetSchema(), relation.getTargetTable(), relation.getTargetColumn(),
+					entry.getValue())) {
+				rowsByKey.computeIfAbsent(String.valueOf(row.get(targetColumn)), k -> new ArrayList<>()).add(row);
+			}
+			for (Object value : entry.getValue()) {
+				result.put(new Key(relation, value), rowsByKey.getOrDefault(String.valueOf(value), new ArrayList<>()));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Key loaded by the relation DataLoader: a relation and the value of its source
+	 * column in the parent row.
+	 */
+	@Value
+	public static class Key {
+
+		/** Relation being resolved. */
+		JoinRelation relation;
+
+		/** Value of the source join column in the parent row. */
+		Object value;
+
+	}
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data.relations;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tree describing which columns and relations of a table a GraphQL selection needs, used
+ * to compile a root table field and its nested relation fields into a single Trino
+ * {@code JOIN} query.
+ * <p>
+ * The root node stands for the queried table; every child node stands for a relation
+ * field selected on its parent and is joined on the relation columns.
+ * </p>
+ *
+ * @author Ivan Rodriguez
+ */
+@Getter
+public class RelationJoinPlan {
+
+	/** Relation joining this node to its parent, {@code null} for the root. */
+	private final JoinRelation relation;
+
+	/** Name of the relation field in the parent type, {@code null} for the root. */
+	private final String fieldName;
+
+	/** Sanitized names of the columns to project for this table. */
+	private final Set<String> columns = new LinkedHashSet<>();
+
+	/** Selected relation fields, keyed by field name. */
+	private final Map<String, RelationJoinPlan> children = new LinkedHashMap<>();
+
+	private RelationJoinPlan(JoinRelation relation, String fieldName) {
+		this.relation = relation;
+		this.fieldName = fieldName;
+	}
+
+	/**
+	 * Creates the plan node for the queried table.
+	 * @return an empty root node
+	 */
+	public static RelationJoinPlan root() {
+		return new RelationJoinPlan(null, null);
+	}
+
+	/**
+	 * Returns the node for a relation field, creating it on first use so that a field
+	 * selected several times is joined once.
+	 * @param fieldName the relation field name
+	 * @param relation the relation behind the field
+	 * @return the child node
+	 */
+	public RelationJoinPlan child(String fieldName, JoinRelation relation) {
+		return children.computeIfAbsent(fieldName, k -> new RelationJoinPlan(relation, fieldName));
+	}
+
+	/**
+	 * Adds a column to the projection of this node.
+	 * @param column the sanitized column name
+	 */
+	public void column(String column) {
+		columns.add(column);
+	}
+
+	/**
+	 * Returns the child nodes in selection order.
+	 * @return the child nodes
+	 */
+	public Collection<RelationJoinPlan> getChildNodes() {
+		return children.values();
+	}
+
+	/**
+	 * Whether any relation field is selected below this node.
+	 * @return {@code true} if the plan needs at least one join
+	 */
+	public boolean hasChildren() {
+		return !children.isEmpty();
+	}
+
+	/**
+	 * Whether a list relation other than the given field is already joined on this node.
+	 * Joining a second one would multiply the rows of both, so it is left to batched
+	 * queries instead.
+	 * @param fieldName the relation field about to be joined
+	 * @return {@code true} if another list relation is joined on this node
+	 */
+	public boolean joinsOtherList(String fieldName) {
+		return children.values().stream().anyMatch(child -> child.isMany() && !child.fieldName.equals(fieldName));
+	}
+
+	/**
+	 * Whether a parent row may match many rows of this node.
+	 * @return {@code true} for list relations
+	 */
+	public boolean isMany() {
+		return relation != null && relation.isMany();
+	}
+
+}
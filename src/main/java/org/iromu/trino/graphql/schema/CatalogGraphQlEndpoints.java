@@ -0,0 +1,248 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.schema;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.iromu.trino.graphql.AppProperties;
+import org.iromu.trino.graphql.data.metadata.TrinoMetadataCrawler;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.graphql.GraphQlProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.graphql.execution.DefaultExecutionGraphQlService;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.webflux.GraphQlHttpHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves every included catalog on its own GraphQL endpoint, at
+ * {@code <spring.graphql.path>/{catalog}}, e.g. {@code /api/hive}.
+ * <p>
+ * The schema of a catalog endpoint only holds the tables of that catalog, so validation,
+ * introspection and GraphiQL cost what the catalog costs rather than the whole warehouse.
+ * Catalog schemas are built on the first request to their endpoint, and refreshed
+ * independently: every {@link AppProperties#getSchemaRefreshInterval()} when set, and on
+ * demand with {@code POST <spring.graphql.path>/{catalog}/refresh}. Each endpoint has its
+ * own {@link ReloadableGraphQlSource}, configured like the main one, and runs the same
+ * {@link WebGraphQlInterceptor} chain; interceptors find the source of a catalog request
+ * in its {@link #GRAPHQL_SOURCE_ATTRIBUTE} attribute.
+ * </p>
+ * <p>
+ * Enabled with {@link AppProperties#isCatalogEndpoints()}.
+ * </p>
+ *
+ * @author Ivan Rodriguez
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = AppProperties.APP_PREFIX, name = "catalog-endpoints", havingValue = "true")
+public class CatalogGraphQlEndpoints implements DisposableBean {
+
+	/**
+	 * Request attribute holding the {@link ReloadableGraphQlSource} of the catalog a
+	 * request is executed against.
+	 */
+	public static final String GRAPHQL_SOURCE_ATTRIBUTE = CatalogGraphQlEndpoints.class.getName() + ".graphQlSource";
+
+	private final ReloadableGraphQlSource graphQlSource;
+
+	private final GraphQLDynamicSchemaService schemaService;
+
+	private final TrinoMetadataCrawler metadataCrawler;
+
+	private final ObjectProvider<BatchLoaderRegistry> batchLoaderRegistry;
+
+	private final ObjectProvider<WebGraphQlInterceptor> interceptors;
+
+	private final String path;
+
+	private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+	private final ScheduledExecutorService scheduler;
+
+	/**
+	 * Constructs the catalog endpoints and schedules their periodic refresh if
+	 * configured.
+	 * @param graphQlSource the main source, whose configuration catalog sources copy
+	 * @param schemaService the service building catalog schemas
+	 * @param metadataCrawler the crawler listing the included catalogs
+	 * @param batchLoaderRegistry the registry of the DataLoaders used by relation fields
+	 * @param interceptors the interceptors of the main endpoint
+	 * @param graphQlProperties Spring GraphQL properties holding the main endpoint path
+	 * @param app application properties holding the refresh interval
+	 */
+	public CatalogGraphQlEndpoints(ReloadableGraphQlSource graphQlSource, GraphQLDynamicSchemaService schemaService,
+			TrinoMetadataCrawler metadataCrawler, ObjectProvider<BatchLoaderRegistry> batchLoaderRegistry,
+			ObjectProvider<WebGraphQlInterceptor> interceptors, GraphQlProperties graphQlProperties,
+			AppProperties app) {
+		this.graphQlSource = graphQlSource;
+		this.schemaService = schemaService;
+		this.metadataCrawler = metadataCrawler;
+		this.batchLoaderRegistry = batchLoaderRegistry;
+		this.interceptors = interceptors;
+		this.path = graphQlProperties.getHttp().getPath();
+
+		Duration interval = app.getSchemaRefreshInterval();
+		if (interval != null && !interval.isZero() && !interval.isNegative()) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "graphql-catalog-refresh");
+				thread.setDaemon(true);
+				return thread;
+			});
+			scheduler.scheduleWithFixedDelay(this::refreshQuietly, interval.toMillis(), interval.toMillis(),
+					TimeUnit.MILLISECONDS);
+		}
+		else {
+			scheduler = null;
+		}
+	}
+
+	/**
+	 * Routes the requests of the catalog endpoints.
+	 * @return the router function of the catalog endpoints
+	 */
+	@Bean
+	public RouterFunction<ServerResponse> catalogGraphQlRoutes() {
+		return RouterFunctions.route()
+			.POST(path + "/{catalog}", this::execute)
+			.POST(path + "/{catalog}/refresh", this::refresh)
+			.build();
+	}
+
+	/**
+	 * Executes a GraphQL request against the schema of a catalog, building it first if
+	 * needed.
+	 * @param request the HTTP request
+	 * @return the GraphQL response, or 404 if the catalog is not included
+	 */
+	public Mono<ServerResponse> execute(ServerRequest request) {
+		String catalog = request.pathVariable("catalog");
+		Endpoint endpoint = endpoints.get(catalog);
+		if (endpoint != null)
+			return handle(endpoint, request);
+		return Mono.fromCallable(() -> create(catalog))
+			.subscribeOn(Schedulers.boundedElastic())
+			.flatMap(created -> handle(created, request))
+			.switchIfEmpty(ServerResponse.notFound().build());
+	}
+
+	private static Mono<ServerResponse> handle(Endpoint endpoint, ServerRequest request) {
+		request.attributes().put(GRAPHQL_SOURCE_ATTRIBUTE, endpoint.getGraphQlSource());
+		return endpoint.getHttpHandler().handleRequest(request);
+	}
+
+	/**
+	 * Rebuilds the schema of a catalog from fresh Trino metadata and makes it live.
+	 * @param request the HTTP request
+	 * @return the {@code version} of the live schema of the catalog, or 404 if its
+	 * endpoint was never used
+	 */
+	public Mono<ServerResponse> refresh(ServerRequest request) {
+		String catalog = request.pathVariable("catalog");
+		if (!endpoints.containsKey(catalog))
+			return ServerResponse.notFound().build();
+		return Mono.fromCallable(() -> Map.of("version", refresh(catalog)))
+			.subscribeOn(Schedulers.boundedElastic())
+			.flatMap(version -> ServerResponse.ok().bodyValue(version));
+	}
+
+	/**
+	 * Rebuilds the schema of a catalog from fresh Trino metadata and makes it live.
+	 * @param catalog the catalog, whose endpoint must have been used
+	 * @return the version of the live schema of the catalog; unchanged if no table of the
+	 * catalog changed
+	 */
+	public synchronized long refresh(String catalog) {
+		ReloadableGraphQlSource source = endpoints.get(catalog).getGraphQlSource();
+		return schemaService.refreshCatalogSchema(catalog).map(source::swap).orElseGet(source::getVersion);
+	}
+
+	/**
+	 * Returns the source serving the schema of a catalog.
+	 * @param catalog the catalog
+	 * @return the source, or {@code null} if the endpoint of the catalog was never used
+	 */
+	public ReloadableGraphQlSource getGraphQlSource(String catalog) {
+		Endpoint endpoint = endpoints.get(catalog);
+		return endpoint == null ? null : endpoint.getGraphQlSource();
+	}
+
+	private synchronized Endpoint create(String catalog) {
+		Endpoint endpoint = endpoints.get(catalog);
+		if (endpoint != null || !metadataCrawler.includedCatalogs(false).contains(catalog))
+			return endpoint;
+		long start = System.nanoTime();
+		ReloadableGraphQlSource source = graphQlSource.withSchema(schemaService.generateCatalogSchema(catalog));
+		DefaultExecutionGraphQlService executionService = new DefaultExecutionGraphQlService(source);
+		batchLoaderRegistry.ifAvailable(executionService::addDataLoaderRegistrar);
+		WebGraphQlHandler handler = WebGraphQlHandler.builder(executionService)
+			.interceptors(interceptors.orderedStream().toList())
+			.build();
+		endpoint = new Endpoint(source, new GraphQlHttpHandler(handler));
+		endpoints.put(catalog, endpoint);
+		log.info("Built the schema of catalog {} in {} ms", catalog,
+				Duration.ofNanos(System.nanoTime() - start).toMillis());
+		return endpoint;
+	}
+
+	private void refreshQuietly() {
+		for (String catalog : endpoints.keySet()) {
+			try {
+				refresh(catalog);
+			}
+			catch (Exception e) {
+				log.error("Schema refresh of catalog {} failed: {}", catalog, e.getMessage());
+			}
+		}
+	}
+
+	@Override
+	public void destroy() {
+		if (scheduler != null)
+			scheduler.shutdownNow();
+	}
+
+	/**
+	 * The source and HTTP handler of a catalog endpoint.
+	 */
+	@Value
+	private static class Endpoint {
+
+		ReloadableGraphQlSource graphQlSource;
+
+		GraphQlHttpHandler httpHandler;
+
+	}
+
+}
@@ -16,28 +16,40 @@
 
 package org.iromu.trino.graphql.schema;
 
-import graphql.schema.GraphQLSchema;
-import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import graphql.execution.instrumentation.Instrumentation;
+import org.iromu.trino.graphql.data.metadata.SchemaSnapshotRuntimeHints;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.graphql.execution.DataFetcherExceptionResolver;
 import org.springframework.graphql.execution.GraphQlSource;
+import org.springframework.graphql.execution.SubscriptionExceptionResolver;
 
 /**
  * Spring configuration class for setting up GraphQL with a dynamically generated schema.
  *
  * <p>
  * This configuration integrates with {@link GraphQLDynamicSchemaService} to build the
- * schema and registers it with the Spring GraphQL context.
+ * schema and registers it with the Spring GraphQL context through a
+ * {@link ReloadableGraphQlSource}, so that {@link GraphQLSchemaRefresher} can replace it
+ * at runtime.
  * </p>
  *
  * <p>
- * It also enables customization of the {@code GraphQlSourceBuilder} for federation
- * support or other GraphQL schema customizations if needed.
+ * Exception resolvers and instrumentations declared as beans are applied to every version
+ * of the schema, as Spring Boot does for its own {@link GraphQlSource}.
+ * </p>
+ *
+ * <p>
+ * The schema snapshot bundled at build time is registered as a native image resource, so
+ * a native binary starts from it.
  * </p>
  *
  * @author Ivan Rodriguez
  */
 @Configuration
+@ImportRuntimeHints(SchemaSnapshotRuntimeHints.class)
 public class GraphQLConfig {
 
 	private final GraphQLDynamicSchemaService schemaService;
@@ -51,25 +63,22 @@ public class GraphQLConfig {
 	}
 
 	/**
-	 * Creates a {@link GraphQLSchema} bean using the custom dynamic schema service.
-	 * @return a dynamically generated {@link GraphQLSchema}
-	 */
-	@Bean
-	public GraphQLSchema schema() {
-		return schemaService.generateSchema();
-	}
-
-	/**
-	 * Customizes the {@link GraphQlSource.SchemaResourceBuilder} to use the provided
-	 * schema. This hook is essential for enabling support for advanced GraphQL features
-	 * such as federation or schema transformations.
-	 * @param schema the {@link GraphQLSchema} generated by the application
-	 * @return a {@link GraphQlSourceBuilderCustomizer} that sets the schema on the
-	 * builder
+	 * Creates the {@link GraphQlSource} serving the dynamically generated schema, built
+	 * once at startup and replaceable at runtime.
+	 * @param exceptionResolvers resolvers for data fetcher exceptions
+	 * @param subscriptionExceptionResolvers resolvers for subscription exceptions
+	 * @param instrumentations GraphQL Java instrumentations
+	 * @return the reloadable source
 	 */
 	@Bean
-	public GraphQlSourceBuilderCustomizer federationTransform(GraphQLSchema schema) {
-		return builder -> builder.configureGraphQl(graphQLBuilder -> graphQLBuilder.schema(schema));
+	public ReloadableGraphQlSource graphQlSource(ObjectProvider<DataFetcherExceptionResolver> exceptionResolvers,
+			ObjectProvider<SubscriptionExceptionResolver> subscriptionExceptionResolvers,
+			ObjectProvider<Instrumentation> instrumentations) {
+		return new ReloadableGraphQlSource(schema -> GraphQlSource.builder(schema)
+			.exceptionResolvers(exceptionResolvers.orderedStream().toList())
+			.subscriptionExceptionResolvers(subscriptionExceptionResolvers.orderedStream().toList())
+			.instrumentation(instrumentations.orderedStream().toList())
+			.build(), schemaService.generateStartupSchema());
 	}
 
 }
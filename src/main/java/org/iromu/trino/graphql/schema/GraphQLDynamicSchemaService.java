@@ -19,19 +19,44 @@ package org.iromu.trino.graphql.schema;
 import graphql.Scalars;
 import graphql.language.SchemaDefinition;
 import graphql.schema.*;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
+import org.dataloader.DataLoader;
 import org.iromu.trino.graphql.AppProperties;
+import org.iromu.trino.graphql.AppProperties.RelationStrategy;
+import org.iromu.trino.graphql.data.ApproximateAggregate;
+import org.iromu.trino.graphql.data.LiveQueryService;
+import org.iromu.trino.graphql.data.RowChange;
 import org.iromu.trino.graphql.data.TrinoQueryService;
+import org.iromu.trino.graphql.data.TrinoScalars;
 import org.iromu.trino.graphql.data.TrinoSchemaService;
 import org.iromu.trino.graphql.data.TrinoToGraphQLOutputTypeMapper;
+import org.iromu.trino.graphql.data.TrinoType;
+import org.iromu.trino.graphql.data.metadata.SchemaSnapshot;
+import org.iromu.trino.graphql.data.metadata.TableMetadata;
+import org.iromu.trino.graphql.data.metadata.TrinoMetadataCrawler;
+import org.iromu.trino.graphql.data.relations.JoinRelation;
+import org.iromu.trino.graphql.data.relations.RelationDataLoader;
+import org.iromu.trino.graphql.data.relations.RelationJoinPlan;
+import org.springframework.core.NativeDetector;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
-import static org.iromu.trino.graphql.schema.GraphQLSchemaFixer.VALID_CHAR_PATTERN;
+import static org.iromu.trino.graphql.schema.GraphQLSchemaFixer.isValidName;
 
 /**
  * Service responsible for dynamically generating a {@link GraphQLSchema} from Trino
@@ -43,12 +68,51 @@ import static org.iromu.trino.graphql.schema.GraphQLSchemaFixer.VALID_CHAR_PATTE
  * </p>
  *
  * <p>
- * It integrates with {@link TrinoSchemaService} to read catalog/schema/table/column
- * structure and with {@link TrinoQueryService} to provide data fetching at query time.
+ * It integrates with {@link TrinoMetadataCrawler} to read catalog/schema/table/column
+ * structure in parallel and with {@link TrinoQueryService} to provide data fetching at
+ * query time.
  * </p>
  *
  * <p>
  * Filter operations are also supported using a custom enum and input type definition.
+ * Join relationships detected between tables can optionally be exposed as nested fields,
+ * resolved in batches by the {@link RelationDataLoader} or compiled together with their
+ * root table field into a single {@code JOIN} query. Tables can also get an aggregate
+ * field exposing Trino's approximate aggregate functions per column, and a live
+ * subscription field pushing only the rows that changed between polls.
+ * </p>
+ *
+ * <p>
+ * The types built for a table are kept until the next generation and reused as long as
+ * the {@link TableMetadata#getFingerprint() fingerprint} of its columns is unchanged, so
+ * a {@link #refreshSchema() refresh} only rebuilds the types of altered tables.
+ * </p>
+ *
+ * <p>
+ * With {@link AppProperties#isSharedTableTypes()}, structurally identical tables, such as
+ * the same table in several TPC scale factors or date-sharded copies, share one output
+ * type named after their fingerprint, while keeping their own query fields. Tables with
+ * relation fields keep a type of their own.
+ * </p>
+ *
+ * <p>
+ * With {@link AppProperties#isLazyCatalogs()}, only the catalogs are listed at startup.
+ * The tables of a catalog are crawled and their types built the first time it is used,
+ * through {@link #materializeCatalogs(Collection)}, so startup time and memory do not
+ * depend on the size of the warehouse. Refreshes only crawl the catalogs materialized so
+ * far.
+ * </p>
+ *
+ * <p>
+ * Schemas holding the tables of a single catalog, as served by
+ * {@link CatalogGraphQlEndpoints}, are built and refreshed independently with
+ * {@link #generateCatalogSchema(String)} and {@link #refreshCatalogSchema(String)}.
+ * </p>
+ *
+ * <p>
+ * With {@link AppProperties#isSchemaSnapshot()}, the tables and relations of every full
+ * crawl are saved to a {@link SchemaSnapshot}, and {@link #generateStartupSchema()}
+ * builds the first schema from it, without contacting Trino.
  * </p>
  *
  * @author Ivan Rodriguez
@@ -57,23 +121,67 @@ import static org.iromu.trino.graphql.schema.GraphQLSchemaFixer.VALID_CHAR_PATTE
 @Slf4j
 public class GraphQLDynamicSchemaService {
 
+	/** Trino types rows cannot be sorted on. */
+	private static final Set<String> NOT_ORDERABLE_TYPES = Set.of("json", "hyperloglog", "p4hyperloglog", "qdigest",
+			"tdigest", "setdigest", "geometry", "sphericalgeography");
+
 	private final TrinoSchemaService trinoSchemaService;
 
 	private final TrinoQueryService trinoQueryService;
 
 	private final AppProperties app;
 
+	private final GraphQLSchemaFixer fixer;
+
+	private final LiveQueryService liveQueryService;
+
+	private final TrinoMetadataCrawler metadataCrawler;
+
+	/**
+	 * Types built by the last generation, keyed by table type name.
+	 */
+	private volatile Map<String, TableTypes> builtTypes = Map.of();
+
+	/**
+	 * Included catalogs, when they are materialized lazily.
+	 */
+	private volatile List<String> lazyCatalogs = List.of();
+
+	/**
+	 * Crawled tables of the catalogs materialized so far, keyed by catalog, when catalogs
+	 * are materialized lazily.
+	 */
+	private volatile Map<String, List<TableMetadata>> materialized = Map.of();
+
+	/**
+	 * Types built by the last generation of every single catalog schema, keyed by catalog
+	 * and table type name.
+	 */
+	private final Map<String, Map<String, TableTypes>> catalogTypes = new ConcurrentHashMap<>();
+
+	/**
+	 * Whether the current schema was built from the schema snapshot.
+	 */
+	private volatile boolean startedFromSnapshot;
+
 	/**
 	 * Constructs a dynamic schema service with injected dependencies.
 	 * @param trinoSchemaService service for accessing Trino catalog/schema/table metadata
 	 * @param trinoQueryService service responsible for executing queries with filtering
 	 * @param app application properties containing configuration flags
+	 * @param fixer helper for sanitizing column names read from query results
+	 * @param liveQueryService service turning table queries into live queries
+	 * @param metadataCrawler crawler reading the metadata of every table in parallel
 	 */
 	public GraphQLDynamicSchemaService(TrinoSchemaService trinoSchemaService, TrinoQueryService trinoQueryService,
-			AppProperties app) {
+			AppProperties app, GraphQLSchemaFixer fixer, LiveQueryService liveQueryService,
+			TrinoMetadataCrawler metadataCrawler) {
 		this.trinoSchemaService = trinoSchemaService;
 		this.trinoQueryService = trinoQueryService;
 		this.app = app;
+		this.fixer = fixer;
+		this.liveQueryService = liveQueryService;
+		this.metadataCrawler = metadataCrawler;
 	}
 
 	/**
@@ -81,11 +189,221 @@ public class GraphQLDynamicSchemaService {
 	 * <p>
 	 * For every valid table in every valid schema and catalog, a corresponding
 	 * {@link graphql.schema.GraphQLObjectType} is created and exposed via GraphQL.
-	 * Filtering is supported via a {@code filters} argument and optional {@code limit}.
+	 * Filtering is supported via a {@code filters} argument and optional {@code limit},
+	 * and sampling via an optional {@code sample} argument.
 	 * </p>
 	 * @return the fully constructed {@link GraphQLSchema}
 	 */
 	public GraphQLSchema generateSchema() {
+		if (!app.isLazyCatalogs())
+			return generateFullSchema(metadataCrawler.crawl(), false);
+		lazyCatalogs = metadataCrawler.includedCatalogs(false);
+		Set<String> loaded = materialized.keySet();
+		return generateLazySchema(loaded.isEmpty() ? Map.of() : metadataCrawler.crawl(loaded), loaded, false);
+	}
+
+	/**
+	 * Builds the first schema, from the schema snapshot if snapshots are enabled and
+	 * there is one, or from the snapshot bundled in the application at build time when
+	 * enabled or running as a native image, otherwise from Trino metadata like
+	 * {@link #generateSchema()}.
+	 * @return the fully constructed {@link GraphQLSchema}
+	 */
+	public GraphQLSchema generateStartupSchema() {
+		SchemaSnapshot snapshot = null;
+		if (!app.isLazyCatalogs()) {
+			if (app.isSchemaSnapshot())
+				snapshot = SchemaSnapshot.load(snapshotFile());
+			if (snapshot == null && (app.isBundledSchemaSnapshot() || NativeDetector.inNativeImage()))
+				snapshot = SchemaSnapshot.loadBundled();
+		}
+		if (snapshot == null)
+			return generateSchema();
+		Map<String, List<TableMetadata>> restored = metadataCrawler.restore(snapshot);
+		GraphQLSchema schema = generateSchema(restored, app.isRelationFields() ? snapshot.getRelations() : Map.of());
+		startedFromSnapshot = true;
+		return schema;
+	}
+
+	/**
+	 * Returns whether the first schema was built from the schema snapshot, and still
+	 * needs to be reconciled with live metadata.
+	 * @return {@code true} if the schema was built from the snapshot
+	 */
+	public boolean isStartedFromSnapshot() {
+		return startedFromSnapshot;
+	}
+
+	/**
+	 * Rebuilds the schema from metadata read from Trino, bypassing the metadata cache.
+	 * <p>
+	 * Only the types of tables added or altered since the last generation are rebuilt;
+	 * the others are reused as they are.
+	 * </p>
+	 * @return the new schema, or empty if no table was added, dropped or altered
+	 */
+	public Optional<GraphQLSchema> refreshSchema() {
+		Map<String, TableTypes> previous = builtTypes;
+		GraphQLSchema schema;
+		if (app.isLazyCatalogs()) {
+			lazyCatalogs = metadataCrawler.includedCatalogs(true);
+			Set<String> loaded = materialized.keySet();
+			schema = generateLazySchema(loaded.isEmpty() ? Map.of() : metadataCrawler.refresh(loaded), loaded, true);
+		}
+		else {
+			schema = generateFullSchema(metadataCrawler.refresh(), true);
+		}
+		return unchanged(previous, builtTypes) ? Optional.empty() : Optional.of(schema);
+	}
+
+	/**
+	 * Builds a schema holding the tables of a single catalog.
+	 * @param catalog the catalog
+	 * @return the schema of the catalog
+	 */
+	public GraphQLSchema generateCatalogSchema(String catalog) {
+		return generateCatalogSchema(catalog, metadataCrawler.crawl(List.of(catalog)), false);
+	}
+
+	/**
+	 * Rebuilds the schema of a single catalog from metadata read from Trino, bypassing
+	 * the metadata cache.
+	 * @param catalog the catalog
+	 * @return the new schema of the catalog, or empty if no table of the catalog was
+	 * added, dropped or altered
+	 */
+	public Optional<GraphQLSchema> refreshCatalogSchema(String catalog) {
+		Map<String, TableTypes> previous = catalogTypes.getOrDefault(catalog, Map.of());
+		GraphQLSchema schema = generateCatalogSchema(catalog, metadataCrawler.refresh(List.of(catalog)), true);
+		return unchanged(previous, catalogTypes.get(catalog)) ? Optional.empty() : Optional.of(schema);
+	}
+
+	private GraphQLSchema generateCatalogSchema(String catalog, Map<String, List<TableMetadata>> crawled,
+			boolean reload) {
+		// Types of unchanged tables are shared with the full schema
+		Map<String, TableTypes> previousTypes = new HashMap<>(builtTypes);
+		previousTypes.putAll(catalogTypes.getOrDefault(catalog, Map.of()));
+		Map<String, TableTypes> currentTypes = new HashMap<>();
+		GraphQLSchema schema = buildSchema(Map.of(catalog, crawled.getOrDefault(catalog, List.of())),
+				relations(List.of(catalog), reload), previousTypes, currentTypes);
+		catalogTypes.put(catalog, currentTypes);
+		return schema;
+	}
+
+	private static boolean unchanged(Map<String, TableTypes> previous, Map<String, TableTypes> current) {
+		return current.keySet().equals(previous.keySet())
+				&& current.entrySet().stream().allMatch(e -> e.getValue() == previous.get(e.getKey()));
+	}
+
+	/**
+	 * Returns the included catalogs, materialized or not.
+	 * @return the sanitized names of the included catalogs; empty unless catalogs are
+	 * materialized lazily
+	 */
+	public List<String> getLazyCatalogs() {
+		return lazyCatalogs;
+	}
+
+	/**
+	 * Returns the catalogs that are not materialized yet.
+	 * @return the included catalogs whose tables are not in the schema yet; empty unless
+	 * catalogs are materialized lazily
+	 */
+	public List<String> getPendingCatalogs() {
+		Map<String, List<TableMetadata>> loaded = materialized;
+		return lazyCatalogs.stream().filter(catalog -> !loaded.containsKey(catalog)).toList();
+	}
+
+	/**
+	 * Crawls the tables of catalogs that are not materialized yet and builds a schema
+	 * extended with them.
+	 * @param catalogs the catalogs to materialize; catalogs that are already materialized
+	 * or not included are ignored
+	 * @return the extended schema, or empty if no catalog had to be materialized
+	 */
+	public Optional<GraphQLSchema> materializeCatalogs(Collection<String> catalogs) {
+		List<String> pending = getPendingCatalogs().stream().filter(catalogs::contains).toList();
+		if (pending.isEmpty())
+			return Optional.empty();
+		log.info("Materializing catalogs {}", pending);
+		Map<String, List<TableMetadata>> crawled = new HashMap<>(materialized);
+		crawled.putAll(metadataCrawler.crawl(pending));
+		Set<String> loaded = new HashSet<>(materialized.keySet());
+		loaded.addAll(pending);
+		return Optional.of(generateLazySchema(crawled, loaded, false));
+	}
+
+	/**
+	 * Builds the schema of the materialized catalogs, in Trino listing order. Catalogs
+	 * the crawl found no table in stay materialized.
+	 */
+	private GraphQLSchema generateLazySchema(Map<String, List<TableMetadata>> crawled, Collection<String> loaded,
+			boolean reload) {
+		Map<String, List<TableMetadata>> metadataByCatalog = new LinkedHashMap<>();
+		for (String catalog : lazyCatalogs) {
+			if (loaded.contains(catalog))
+				metadataByCatalog.put(catalog, crawled.getOrDefault(catalog, List.of()));
+		}
+		materialized = metadataByCatalog;
+		return generateSchema(metadataByCatalog, relations(metadataByCatalog.keySet(), reload));
+	}
+
+	/**
+	 * Builds the schema of every included catalog and, if enabled, saves its tables and
+	 * relations to the schema snapshot. Crawls with failed lookups are not saved, so a
+	 * partial schema is never restored.
+	 */
+	private GraphQLSchema generateFullSchema(Map<String, List<TableMetadata>> metadataByCatalog, boolean reload) {
+		Map<String, List<JoinRelation>> relationsByCatalog = relations(metadataByCatalog.keySet(), reload);
+		GraphQLSchema schema = generateSchema(metadataByCatalog, relationsByCatalog);
+		startedFromSnapshot = false;
+		if (app.isSchemaSnapshot() && trinoSchemaService.getFailedLookups() == 0
+				&& metadataByCatalog.values().stream().anyMatch(tables -> !tables.isEmpty())) {
+			List<String> catalogs = metadataCrawler.getIndex().getCatalogs();
+			new SchemaSnapshot(catalogs != null ? catalogs : List.copyOf(metadataByCatalog.keySet()), metadataByCatalog,
+					relationsByCatalog)
+				.save(snapshotFile());
+		}
+		return schema;
+	}
+
+	private Path snapshotFile() {
+		return Paths.get(app.getSchemaFolder(), SchemaSnapshot.FILE);
+	}
+
+	private GraphQLSchema generateSchema(Map<String, List<TableMetadata>> metadataByCatalog,
+			Map<String, List<JoinRelation>> relationsByCatalog) {
+		Map<String, TableTypes> currentTypes = new HashMap<>();
+		GraphQLSchema schema = buildSchema(metadataByCatalog, relationsByCatalog, builtTypes, currentTypes);
+		builtTypes = currentTypes;
+		return schema;
+	}
+
+	/**
+	 * Returns the join relations of some catalogs, if relation fields are enabled,
+	 * detecting them again on a refresh.
+	 */
+	private Map<String, List<JoinRelation>> relations(Collection<String> catalogs, boolean reload) {
+		if (!app.isRelationFields())
+			return Map.of();
+		Map<String, List<JoinRelation>> relationsByCatalog = new LinkedHashMap<>();
+		for (String catalog : catalogs) {
+			relationsByCatalog.put(catalog, trinoSchemaService.getJoins(catalog, reload));
+		}
+		return relationsByCatalog;
+	}
+
+	/**
+	 * Builds a schema, reusing the types of the tables whose columns did not change.
+	 * @param metadataByCatalog the tables to expose, keyed by catalog
+	 * @param relationsByCatalog the relations to expose as fields, keyed by catalog
+	 * @param previousTypes the types built previously, keyed by table type name
+	 * @param currentTypes filled with the types of every table of the new schema
+	 * @return the schema
+	 */
+	private GraphQLSchema buildSchema(Map<String, List<TableMetadata>> metadataByCatalog,
+			Map<String, List<JoinRelation>> relationsByCatalog, Map<String, TableTypes> previousTypes,
+			Map<String, TableTypes> currentTypes) {
 		GraphQLSchema.Builder schemaBuilder = GraphQLSchema.newSchema();
 		GraphQLObjectType.Builder queryBuilder = GraphQLObjectType.newObject().name("Query");
 		GraphQLObjectType.Builder subscriptionBuilder = GraphQLObjectType.newObject().name("Subscription");
@@ -96,79 +414,209 @@ public class GraphQLDynamicSchemaService {
 		queryBuilder.field(GraphQLFieldDefinition.newFieldDefinition()
 			.name("catalogs")
 			.type(GraphQLList.list(Scalars.GraphQLString))
-			.dataFetcher(env -> trinoSchemaService.getCatalogs())
+			.dataFetcher(env -> {
+				List<String> catalogs = metadataCrawler.getIndex().getCatalogs();
+				return catalogs != null ? catalogs : trinoSchemaService.getCatalogs();
+			})
 			.build());
 
-		for (String catalog : trinoSchemaService.getCatalogs()) {
-			if (app.getExcludeCatalogs() != null && app.getExcludeSchemas().contains(catalog)) {
-				continue;
-			}
-			if (app.getIncludeCatalogs() != null && !app.getIncludeCatalogs().contains(catalog)) {
-				continue;
-			}
-			if (app.isIgnoreObjectsWithWrongCharacters() && !VALID_CHAR_PATTERN.matcher(catalog).matches()) {
-				continue;
-			}
-			for (String schema : trinoSchemaService.getSchemas(catalog)) {
-				if (app.getExcludeSchemas() != null && app.getExcludeSchemas().contains(catalog)) {
-					continue;
-				}
-				if (app.isIgnoreObjectsWithWrongCharacters() && !VALID_CHAR_PATTERN.matcher(schema).matches()) {
+		// Relation fields of every table type, used to plan JOIN queries
+		Map<String, Map<String, JoinRelation>> relationIndex = new HashMap<>();
+
+		// Types shared by structurally identical tables, keyed by fingerprint
+		Map<String, TableTypes> sharedTypes = new HashMap<>();
+		Map<String, GraphQLObjectType> changeTypes = new HashMap<>();
+
+		for (Map.Entry<String, List<TableMetadata>> crawled : metadataByCatalog.entrySet()) {
+			String catalog = crawled.getKey();
+			Map<String, GraphQLObjectType> tableTypes = new LinkedHashMap<>();
+			List<JoinRelation> relations = relationsByCatalog.getOrDefault(catalog, List.of());
+			Set<String> relatedTables = relatedTables(catalog, relations);
+			for (TableMetadata metadata : crawled.getValue()) {
+				String schema = metadata.getSchema();
+				String table = metadata.getTable();
+				// Create a unique name for each table (avoid collisions)
+				String tableName = catalog + "_" + schema + "_" + table;
+				String queryFieldName = catalog + "_" + schema + "_" + table;
+
+				// Tables with relation fields keep a type of their own
+				List<Map<String, Object>> columns = metadata.getColumns();
+				String fingerprint = metadata.getFingerprint();
+				boolean shared = app.isSharedTableTypes() && !relatedTables.contains(tableName);
+				String typeName = shared ? sharedTypeName(fingerprint) : tableName;
+
+				// Define GraphQLObjectType for the table, unless the table is unchanged
+				TableTypes types = shared ? sharedTypes.get(fingerprint) : null;
+				if (types == null)
+					types = previousTypes.get(tableName);
+				if (types == null || !types.getFingerprint().equals(fingerprint)
+						|| !types.getTableType().getName().equals(typeName))
+					types = new TableTypes(fingerprint, createTableType(typeName, columns),
+							app.isAggregateFields() ? createAggregateType(typeName, columns) : null);
+				if (shared)
+					sharedTypes.putIfAbsent(fingerprint, types);
+				currentTypes.put(tableName, types);
+				GraphQLObjectType tableType = types.getTableType();
+				if (tableType.getFieldDefinitions().isEmpty())
 					continue;
+				tableTypes.put(typeName, tableType);
+
+				// Add a field for each table with filter arguments
+				for (GraphQLObjectType.Builder builder : List.of(queryBuilder, subscriptionBuilder)) {
+
+					builder.field(GraphQLFieldDefinition.newFieldDefinition()
+						.name(queryFieldName)
+						.description("Catalog: " + catalog + ", Schema: " + schema + ", Table: " + table)
+						.type(GraphQLList.list(GraphQLTypeReference.typeRef(typeName)))
+						.argument(GraphQLArgument.newArgument()
+							.name("limit")
+							.type(Scalars.GraphQLInt)
+							.description("Limit number of rows"))
+						.argument(GraphQLArgument.newArgument()
+							.name("filters") // Add filters argument
+							.description("Filter selection")
+							.type(GraphQLList.list(FILTER_INPUT_TYPE)) // Accept a
+						// list of
+						// filters
+						)
+						.argument(GraphQLArgument.newArgument()
+							.name("sample")
+							.description("Read only a random sample of the table (TABLESAMPLE)")
+							.type(SAMPLE_INPUT_TYPE))
+						.dataFetcher(env -> {
+							Integer limit = env.getArgument("limit") != null ? env.getArgument("limit") : 1000;
+							List<Map<String, Object>> filters = env.getArgument("filters");
+							Map<String, Object> sample = env.getArgument("sample");
+
+							if (app.isRelationFields() && app.getRelationStrategy() == RelationStrategy.JOIN) {
+								RelationJoinPlan plan = planJoins(catalog, tableName,
+										env.getSelectionSet().getImmediateFields(), RelationJoinPlan.root(),
+										relationIndex);
+								if (plan.hasChildren())
+									// noinspection DataFlowIssue
+									return trinoQueryService.queryTableWithJoins(catalog, schema, table, limit, filters,
+											sample, plan);
+							}
+
+							// Fetch and filter data based on filters
+							// noinspection DataFlowIssue
+							return trinoQueryService.queryTableWithFilters(catalog, schema, table, limit, filters,
+									sample);
+						})
+						.build());
 				}
-				for (String table : trinoSchemaService.getTables(catalog, schema)) {
-					if (app.isIgnoreObjectsWithWrongCharacters() && !VALID_CHAR_PATTERN.matcher(table).matches())
-						continue;
-					// Create a unique name for each table type (avoid collisions)
-					String typeName = catalog + "_" + schema + "_" + table;
-					String queryFieldName = catalog + "_" + schema + "_" + table;
 
-					// Define GraphQLObjectType for the table
-					GraphQLObjectType tableType = createTableType(catalog, schema, table, typeName);
-					if (tableType.getFieldDefinitions().isEmpty())
-						continue;
-					additionalTypes.add(tableType);
-
-					// Add a field for each table with filter arguments
-					for (GraphQLObjectType.Builder builder : List.of(queryBuilder, subscriptionBuilder)) {
-
-						builder.field(GraphQLFieldDefinition.newFieldDefinition()
-							.name(queryFieldName)
-							.description("Catalog: " + catalog + ", Schema: " + schema + ", Table: " + table)
-							.type(GraphQLList.list(GraphQLTypeReference.typeRef(typeName)))
-							.argument(GraphQLArgument.newArgument()
-								.name("limit")
-								.type(Scalars.GraphQLInt)
-								.description("Limit number of rows"))
-							.argument(GraphQLArgument.newArgument()
-								.name("filters") // Add filters argument
-								.description("Filter selection")
-								.type(GraphQLList.list(FILTER_INPUT_TYPE)) // Accept a
-							// list of
-							// filters
-							)
-							.dataFetcher(env -> {
-								Integer limit = env.getArgument("limit") != null ? env.getArgument("limit") : 1000;
-								List<Map<String, Object>> filters = env.getArgument("filters");
-
-								// Fetch and filter data based on filters
-								// noinspection DataFlowIssue
-								return trinoQueryService.queryTableWithFilters(catalog, schema, table, limit, filters);
-							})
-							.build());
+				if (app.isLiveSubscriptions() && !subscriptionBuilder.hasField(queryFieldName + "_live")) {
+					GraphQLObjectType changeType = changeTypes.computeIfAbsent(typeName, this::createChangeType);
+					additionalTypes.add(changeType);
+					subscriptionBuilder.field(createLiveField(catalog, schema, table, queryFieldName, tableType,
+							changeType.getName(), columns));
+					if (!subscriptionBuilder.hasField(queryFieldName + "_tail")) {
+						subscriptionBuilder
+							.field(createTailField(catalog, schema, table, queryFieldName, typeName, columns));
 					}
+				}
 
+				if (app.isAggregateFields()) {
+					GraphQLObjectType aggregateType = types.getAggregateType();
+					if (aggregateType != null && !queryBuilder.hasField(queryFieldName + "_aggregate")) {
+						additionalTypes.add(aggregateType);
+						queryBuilder.field(
+								createAggregateField(catalog, schema, table, queryFieldName, aggregateType.getName()));
+					}
 				}
+
+			}
+			if (app.isRelationFields()) {
+				addRelationFields(catalog, relations, tableTypes, relationIndex);
 			}
+			additionalTypes.addAll(tableTypes.values());
 		}
 
+		long rebuilt = currentTypes.entrySet()
+			.stream()
+			.filter(e -> e.getValue() != previousTypes.get(e.getKey()))
+			.count();
+		log.info("Built the types of {} of {} tables", rebuilt, currentTypes.size());
+		if (app.isSharedTableTypes())
+			log.info("{} tables share {} types", currentTypes.size(), sharedTypes.size());
+
 		schemaBuilder.query(queryBuilder.build());
-		schemaBuilder.subscription(subscriptionBuilder.build());
+		GraphQLObjectType subscriptionType = subscriptionBuilder.build();
+		// An empty Subscription type is invalid, e.g. before any catalog is materialized
+		if (!subscriptionType.getFieldDefinitions().isEmpty())
+			schemaBuilder.subscription(subscriptionType);
 		schemaBuilder.additionalTypes(additionalTypes);
 		schemaBuilder.definition(SchemaDefinition.newSchemaDefinition().build());
 		return schemaBuilder.build();
 	}
 
+	/**
+	 * Returns the name of the type shared by the tables with the given fingerprint.
+	 * @param fingerprint the fingerprint of the columns of the tables
+	 * @return the type name, e.g. {@code Row_3fa2b1c94e0d7a65}
+	 */
+	static String sharedTypeName(String fingerprint) {
+		return "Row_" + fingerprint.substring(0, 16);
+	}
+
+	/**
+	 * Returns the sanitized names of the columns rows can be sorted on.
+	 */
+	private static List<String> orderableColumns(List<Map<String, Object>> columns) {
+		return columns.stream()
+			.filter(column -> isOrderable((String) column.get("Type")))
+			.map(column -> (String) column.get("Column"))
+			.toList();
+	}
+
+	/**
+	 * Whether Trino can sort rows on a column of the given type. Maps, JSON and sketches
+	 * are not orderable, nor are arrays and rows holding them.
+	 */
+	static boolean isOrderable(String type) {
+		return isOrderable(TrinoType.parse(type));
+	}
+
+	private static boolean isOrderable(TrinoType type) {
+		if (type.isMap() || NOT_ORDERABLE_TYPES.contains(type.getName()))
+			return false;
+		if (type.isArray())
+			return isOrderable(type.getElementType());
+		if (type.isRow())
+			return type.getFields().stream().allMatch(field -> isOrderable(field.getType()));
+		return true;
+	}
+
+	/**
+	 * Returns the tables of a catalog that are the source or target of a relation, and
+	 * therefore keep a type of their own.
+	 */
+	private static Set<String> relatedTables(String catalog, List<JoinRelation> relations) {
+		Set<String> related = new HashSet<>();
+		for (JoinRelation relation : relations) {
+			related.add(catalog + "_" + relation.getSchema() + "_" + relation.getTable());
+			related.add(catalog + "_" + relation.getTargetSchema() + "_" + relation.getTargetTable());
+		}
+		return related;
+	}
+
+	/**
+	 * Types built for a table, with the fingerprint of the columns they were built from.
+	 * They only hold scalar fields and nested object types, never type references, so
+	 * they can be shared by successive schemas.
+	 */
+	@Value
+	private static class TableTypes {
+
+		String fingerprint;
+
+		GraphQLObjectType tableType;
+
+		GraphQLObjectType aggregateType;
+
+	}
+
 	/**
 	 * Enum type defining supported filtering operations.
 	 * <p>
@@ -200,7 +648,8 @@ public class GraphQLDynamicSchemaService {
 	 *
 	 * <p>
 	 * Supports a variety of value types (string, int, float, etc.) as well as value lists
-	 * for operations like {@code IN} and {@code BETWEEN}.
+	 * for operations like {@code IN} and {@code BETWEEN}. Typed values are compared with
+	 * SQL literals of their type.
 	 * </p>
 	 */
 	public static final GraphQLInputObjectType FILTER_INPUT_TYPE = GraphQLInputObjectType.newInputObject()
@@ -219,46 +668,545 @@ public class GraphQLDynamicSchemaService {
 		.field(GraphQLInputObjectField.newInputObjectField().name("intValue").type(Scalars.GraphQLInt))
 		.field(GraphQLInputObjectField.newInputObjectField().name("floatValue").type(Scalars.GraphQLFloat))
 		.field(GraphQLInputObjectField.newInputObjectField().name("booleanValue").type(Scalars.GraphQLBoolean))
-		.field(GraphQLInputObjectField.newInputObjectField().name("dateValue").type(Scalars.GraphQLString)) // ISO
-		// 8601
-		// date
-		// string
+		.field(GraphQLInputObjectField.newInputObjectField().name("longValue").type(TrinoScalars.LONG))
+		.field(GraphQLInputObjectField.newInputObjectField().name("decimalValue").type(TrinoScalars.BIG_DECIMAL))
+		.field(GraphQLInputObjectField.newInputObjectField().name("dateValue").type(TrinoScalars.DATE))
+		.field(GraphQLInputObjectField.newInputObjectField().name("dateTimeValue").type(TrinoScalars.DATE_TIME))
 		.field(GraphQLInputObjectField.newInputObjectField()
 			.name("values")
 			.description("List of values for IN, BETWEEN, etc.")
 			.type(GraphQLList.list(Scalars.GraphQLString)))
 		.build();
 
+	/**
+	 * Enum type defining the Trino sampling methods.
+	 * <p>
+	 * Used by the {@link #SAMPLE_INPUT_TYPE} to choose between row level and split level
+	 * sampling.
+	 * </p>
+	 */
+	public static final GraphQLEnumType SAMPLE_METHOD_ENUM = GraphQLEnumType.newEnum()
+		.name("SampleMethod")
+		.description("Trino TABLESAMPLE methods")
+		.value("BERNOULLI", "BERNOULLI", "Each row is kept with the given probability")
+		.value("SYSTEM", "SYSTEM", "Whole splits are kept with the given probability; faster but less uniform")
+		.build();
+
+	/**
+	 * Defines an input type used to sample table queries.
+	 *
+	 * <p>
+	 * Emitted as a {@code TABLESAMPLE} clause, so exploratory queries only scan the given
+	 * percentage of the table.
+	 * </p>
+	 */
+	public static final GraphQLInputObjectType SAMPLE_INPUT_TYPE = GraphQLInputObjectType.newInputObject()
+		.name("SampleInput")
+		.field(GraphQLInputObjectField.newInputObjectField()
+			.name("method")
+			.description("Sampling method")
+			.type(SAMPLE_METHOD_ENUM)
+			.defaultValueProgrammatic("BERNOULLI"))
+		.field(GraphQLInputObjectField.newInputObjectField()
+			.name("percentage")
+			.description("Percentage of the table to sample, between 0 and 100")
+			.type(GraphQLNonNull.nonNull(Scalars.GraphQLFloat)))
+		.build();
+
+	/**
+	 * Enum type defining the kinds of row changes pushed by live subscriptions.
+	 */
+	public static final GraphQLEnumType ROW_CHANGE_OPERATION_ENUM = GraphQLEnumType.newEnum()
+		.name("RowChangeOperation")
+		.description("Kind of change of a live query row")
+		.value("INSERT", RowChange.Operation.INSERT, "The row is new")
+		.value("UPDATE", RowChange.Operation.UPDATE, "The row has new values")
+		.value("DELETE", RowChange.Operation.DELETE, "The row is gone; its last known values are returned")
+		.build();
+
 	/**
 	 * Creates a {@link GraphQLObjectType} for a Trino table.
 	 *
 	 * <p>
 	 * Each column in the table is mapped to a GraphQL field with a matching type using
-	 * {@link TrinoToGraphQLOutputTypeMapper}.
+	 * {@link TrinoToGraphQLOutputTypeMapper}. Values of {@code array}, {@code map} and
+	 * {@code row} columns are converted to the shape of their GraphQL type.
 	 * </p>
-	 * @param catalog the catalog the table belongs to
-	 * @param schema the schema the table belongs to
-	 * @param table the table name
 	 * @param typeName the unique GraphQL type name for this table
+	 * @param columns the column metadata of the table
 	 * @return the generated {@link GraphQLObjectType}
 	 */
-	private GraphQLObjectType createTableType(String catalog, String schema, String table, String typeName) {
+	private GraphQLObjectType createTableType(String typeName, List<Map<String, Object>> columns) {
 		GraphQLObjectType.Builder typeBuilder = GraphQLObjectType.newObject().name(typeName);
 
-		for (Map<String, Object> column : trinoSchemaService.getColumns(catalog, schema, table)) {
+		for (Map<String, Object> column : columns) {
 			String columnName = (String) column.get("Column");
 			String columnType = (String) column.get("Type");
 
-			if (app.isIgnoreObjectsWithWrongCharacters() && !VALID_CHAR_PATTERN.matcher(columnName).matches())
+			if (app.isIgnoreObjectsWithWrongCharacters() && !isValidName(columnName))
 				continue;
-			typeBuilder.field(GraphQLFieldDefinition.newFieldDefinition()
+			TrinoType type = TrinoType.parse(columnType);
+			GraphQLFieldDefinition.Builder field = GraphQLFieldDefinition.newFieldDefinition()
 				.name(columnName)
 				.description("Trino type: " + columnType)
-				.type(TrinoToGraphQLOutputTypeMapper.mapType(columnType))
-				.build());
+				.type(TrinoToGraphQLOutputTypeMapper.mapType(type));
+			if (type.isStructural())
+				field.dataFetcher(env -> {
+					Map<String, Object> source = env.getSource();
+					return source == null ? null
+							: TrinoToGraphQLOutputTypeMapper.toGraphQLValue(type, source.get(columnName));
+				});
+			typeBuilder.field(field.build());
 		}
 
 		return typeBuilder.build();
 	}
 
+	/**
+	 * Returns the value stored in the source map under the result key (alias or name) of
+	 * the field, so that a field selected several times with different arguments gets its
+	 * own value.
+	 */
+	private static final DataFetcher<Object> RESULT_KEY_FETCHER = env -> {
+		Map<String, Object> source = env.getSource();
+		return source == null ? null : source.get(env.getField().getResultKey());
+	};
+
+	/**
+	 * Result type of {@code approx_most_frequent}, the counts of the most frequent
+	 * values.
+	 */
+	private static final TrinoType MOST_FREQUENT_TYPE = TrinoType.parse("map(varchar, bigint)");
+
+	/**
+	 * Creates the type holding the approximate aggregates of a table.
+	 * <p>
+	 * It has one object field per approximate function ({@code approx_distinct},
+	 * {@code approx_percentile}, {@code approx_most_frequent}), which in turn has a field
+	 * for every column the function accepts, typed after the function result.
+	 * </p>
+	 * @param typeName the GraphQL type name of the table
+	 * @param columns the column metadata of the table
+	 * @return the aggregate type, or {@code null} if no column can be aggregated
+	 */
+	private GraphQLObjectType createAggregateType(String typeName, List<Map<String, Object>> columns) {
+		GraphQLObjectType.Builder aggregateBuilder = GraphQLObjectType.newObject().name(typeName + "_aggregate");
+		boolean empty = true;
+
+		for (ApproximateAggregate.Function function : ApproximateAggregate.Function.values()) {
+			GraphQLObjectType.Builder functionBuilder = GraphQLObjectType.newObject()
+				.name(typeName + "_" + function.sqlName());
+			boolean hasColumns = false;
+			for (Map<String, Object> column : columns) {
+				String columnName = (String) column.get("Column");
+				String columnType = (String) column.get("Type");
+				if (!isValidName(columnName) || !function.supports(columnType))
+					continue;
+				functionBuilder.field(createAggregateColumnField(function, columnName, columnType));
+				hasColumns = true;
+			}
+			if (!hasColumns)
+				continue;
+			aggregateBuilder.field(GraphQLFieldDefinition.newFieldDefinition()
+				.name(function.sqlName())
+				.description("Trino " + function.sqlName() + " per column")
+				.type(functionBuilder.build())
+				.dataFetcher(RESULT_KEY_FETCHER));
+			empty = false;
+		}
+
+		return empty ? null : aggregateBuilder.build();
+	}
+
+	/**
+	 * Creates the field computing an approximate aggregate over one column, with the
+	 * arguments of the function.
+	 * @param function the approximate function
+	 * @param columnName the column name
+	 * @param columnType the Trino column type
+	 * @return the field definition
+	 */
+	private GraphQLFieldDefinition createAggregateColumnField(ApproximateAggregate.Function function, String columnName,
+			String columnType) {
+		GraphQLFieldDefinition.Builder field = GraphQLFieldDefinition.newFieldDefinition()
+			.name(columnName)
+			.description(function.sqlName() + "(" + columnName + "), Trino type: " + columnType)
+			.dataFetcher(RESULT_KEY_FETCHER);
+		switch (function) {
+			case APPROX_DISTINCT -> field.type(TrinoToGraphQLOutputTypeMapper.mapType("bigint"))
+				.argument(GraphQLArgument.newArgument()
+					.name("maxStandardError")
+					.description("Maximum standard error, between 0.0040625 and 0.26000 (default 0.023)")
+					.type(Scalars.GraphQLFloat));
+			case APPROX_PERCENTILE -> field
+				.type(TrinoToGraphQLOutputTypeMapper
+					.mapType(columnType.equals("real") || columnType.equals("double") ? columnType : "bigint"))
+				.argument(GraphQLArgument.newArgument()
+					.name("percentage")
+					.description("Percentile to compute, between 0 and 1")
+					.type(GraphQLNonNull.nonNull(Scalars.GraphQLFloat)));
+			case APPROX_MOST_FREQUENT -> field.type(TrinoToGraphQLOutputTypeMapper.mapType(MOST_FREQUENT_TYPE))
+				.dataFetcher(env -> TrinoToGraphQLOutputTypeMapper.toGraphQLValue(MOST_FREQUENT_TYPE,
+						RESULT_KEY_FETCHER.get(env)))
+				.argument(GraphQLArgument.newArgument()
+					.name("buckets")
+					.description("Number of most frequent values to return")
+					.type(GraphQLNonNull.nonNull(Scalars.GraphQLInt)))
+				.argument(GraphQLArgument.newArgument()
+					.name("capacity")
+					.description("Number of values tracked; larger is more accurate and more expensive")
+					.type(Scalars.GraphQLInt)
+					.defaultValueProgrammatic(100));
+		}
+		return field.build();
+	}
+
+	/**
+	 * Creates the root query field computing the approximate aggregates of a table.
+	 * <p>
+	 * The selection is compiled into a single query projecting one aggregate call per
+	 * selected column field, so clients can pick several percentiles of the same column
+	 * through aliases.
+	 * </p>
+	 * @param catalog the catalog the table belongs to
+	 * @param schema the schema the table belongs to
+	 * @param table the table name
+	 * @param queryFieldName the name of the table query field
+	 * @param aggregateTypeName the name of the aggregate type
+	 * @return the field definition
+	 */
+	private GraphQLFieldDefinition createAggregateField(String catalog, String schema, String table,
+			String queryFieldName, String aggregateTypeName) {
+		return GraphQLFieldDefinition.newFieldDefinition()
+			.name(queryFieldName + "_aggregate")
+			.description("Approximate aggregates of Catalog: " + catalog + ", Schema: " + schema + ", Table: " + table)
+			.type(GraphQLTypeReference.typeRef(aggregateTypeName))
+			.argument(GraphQLArgument.newArgument()
+				.name("filters")
+				.description("Filter selection")
+				.type(GraphQLList.list(FILTER_INPUT_TYPE)))
+			.argument(GraphQLArgument.newArgument()
+				.name("sample")
+				.description("Aggregate only a random sample of the table (TABLESAMPLE)")
+				.type(SAMPLE_INPUT_TYPE))
+			.dataFetcher(env -> {
+				List<Map<String, Object>> filters = env.getArgument("filters");
+				Map<String, Object> sample = env.getArgument("sample");
+
+				List<ApproximateAggregate> aggregates = new ArrayList<>();
+				Map<String, String[]> resultKeys = new HashMap<>();
+				for (SelectedField functionField : env.getSelectionSet().getImmediateFields()) {
+					if (functionField.getName().startsWith("__"))
+						continue;
+					ApproximateAggregate.Function function = ApproximateAggregate.Function
+						.valueOf(functionField.getName().toUpperCase());
+					for (SelectedField columnField : functionField.getSelectionSet().getImmediateFields()) {
+						if (columnField.getName().startsWith("__"))
+							continue;
+						Map<String, Object> arguments = columnField.getArguments();
+						String alias = "a" + aggregates.size();
+						Object parameter = switch (function) {
+							case APPROX_DISTINCT -> arguments.get("maxStandardError");
+							case APPROX_PERCENTILE -> arguments.get("percentage");
+							case APPROX_MOST_FREQUENT -> arguments.get("buckets");
+						};
+						Object capacity = arguments.get("capacity");
+						aggregates.add(new ApproximateAggregate(alias, function, columnField.getName(),
+								(Number) parameter, capacity != null ? (Integer) capacity : 100));
+						resultKeys.put(alias,
+								new String[] { functionField.getResultKey(), columnField.getResultKey() });
+					}
+				}
+
+				Map<String, Object> result = new LinkedHashMap<>();
+				// noinspection DataFlowIssue
+				trinoQueryService.queryApproximateAggregates(catalog, schema, table, aggregates, filters, sample)
+					.forEach((alias, value) -> {
+						String[] keys = resultKeys.get(alias.toLowerCase());
+						if (keys == null)
+							return;
+						// Raw values, approx_most_frequent maps included, are converted
+						// by the typed fetcher of their field
+						// noinspection unchecked
+						((Map<String, Object>) result.computeIfAbsent(keys[0], k -> new LinkedHashMap<>())).put(keys[1],
+								value);
+					});
+				return result;
+			})
+			.build();
+	}
+
+	/**
+	 * Creates the type of the changes pushed by the live subscription of a table.
+	 * @param typeName the GraphQL type name of the table
+	 * @return the change type, holding the operation and the changed row
+	 */
+	private GraphQLObjectType createChangeType(String typeName) {
+		return GraphQLObjectType.newObject()
+			.name(typeName + "_change")
+			.field(GraphQLFieldDefinition.newFieldDefinition()
+				.name("operation")
+				.type(GraphQLNonNull.nonNull(ROW_CHANGE_OPERATION_ENUM)))
+			.field(GraphQLFieldDefinition.newFieldDefinition().name("row").type(GraphQLTypeReference.typeRef(typeName)))
+			.build();
+	}
+
+	/**
+	 * Creates the live subscription field of a table.
+	 * <p>
+	 * The field re-runs the filtered table query on an interval and emits, for every run
+	 * that changed the result, the list of inserted, updated and deleted rows. Rows are
+	 * matched between runs by the {@code key} columns, or by all their values.
+	 * </p>
+	 * @param catalog the catalog the table belongs to
+	 * @param schema the schema the table belongs to
+	 * @param table the table name
+	 * @param queryFieldName the name of the table query field
+	 * @param tableType the table type, used to validate the key columns
+	 * @param changeTypeName the name of the change type
+	 * @param columns the column metadata of the table, used to sort rows without a key
+	 * @return the field definition
+	 */
+	private GraphQLFieldDefinition createLiveField(String catalog, String schema, String table, String queryFieldName,
+			GraphQLObjectType tableType, String changeTypeName, List<Map<String, Object>> columns) {
+		// Without a key, rows are sorted on every column that can be sorted on
+		List<String> orderable = orderableColumns(columns);
+
+		return GraphQLFieldDefinition.newFieldDefinition()
+			.name(queryFieldName + "_live")
+			.description("Live changes of Catalog: " + catalog + ", Schema: " + schema + ", Table: " + table)
+			.type(GraphQLList.list(GraphQLTypeReference.typeRef(changeTypeName)))
+			.argument(GraphQLArgument.newArgument()
+				.name("limit")
+				.type(Scalars.GraphQLInt)
+				.description("Limit number of rows"))
+			.argument(GraphQLArgument.newArgument()
+				.name("filters")
+				.description("Filter selection")
+				.type(GraphQLList.list(FILTER_INPUT_TYPE)))
+			.argument(GraphQLArgument.newArgument()
+				.name("key")
+				.description("Columns identifying a row; all columns when omitted")
+				.type(GraphQLList.list(GraphQLNonNull.nonNull(Scalars.GraphQLString))))
+			.argument(GraphQLArgument.newArgument()
+				.name("interval")
+				.description("Polling interval in seconds")
+				.type(Scalars.GraphQLInt))
+			.dataFetcher(env -> {
+				Integer limit = env.getArgument("limit") != null ? env.getArgument("limit") : 1000;
+				List<Map<String, Object>> filters = env.getArgument("filters");
+				List<String> key = env.getArgument("key") != null ? env.getArgument("key") : List.of();
+				Integer seconds = env.getArgument("interval");
+
+				for (String column : key) {
+					if (tableType.getFieldDefinition(column) == null)
+						throw new IllegalArgumentException("Unknown key column: " + column);
+				}
+				Duration interval = seconds != null ? Duration.ofSeconds(seconds) : app.getLiveInterval();
+				if (interval.compareTo(app.getLiveMinInterval()) < 0)
+					interval = app.getLiveMinInterval();
+
+				// Sorted, so every run reads the same rows past the limit;
+				// identical subscriptions share one polling pipeline
+				List<String> orderBy = key.isEmpty() ? orderable : key;
+				String queryKey = LiveQueryService.queryKey(catalog, schema, table, limit, filters, interval) + "|key="
+						+ key;
+				// noinspection DataFlowIssue
+				return liveQueryService.live(queryKey,
+						() -> trinoQueryService.queryTableOrdered(catalog, schema, table, limit, filters, orderBy), key,
+						interval);
+			})
+			.build();
+	}
+
+	/**
+	 * Creates the tail subscription field of a table, for append-only tables.
+	 * <p>
+	 * Instead of re-running the whole query, every run only fetches the rows whose
+	 * {@code watermark} column is greater than the last value seen, and emits them. The
+	 * watermark starts at {@code from}, or at the current maximum of the column. Rows
+	 * sharing the last value seen are read again and only the new ones emitted.
+	 * </p>
+	 * @param catalog the catalog the table belongs to
+	 * @param schema the schema the table belongs to
+	 * @param table the table name
+	 * @param queryFieldName the name of the table query field
+	 * @param typeName the GraphQL type name of the table
+	 * @param columns the column metadata of the table, used to type the watermark
+	 * @return the field definition
+	 */
+	private GraphQLFieldDefinition createTailField(String catalog, String schema, String table, String queryFieldName,
+			String typeName, List<Map<String, Object>> columns) {
+		Map<String, String> columnTypes = new HashMap<>();
+		for (Map<String, Object> column : columns) {
+			columnTypes.put((String) column.get("Column"), (String) column.get("Type"));
+		}
+		// Sort rows with the same watermark, so that they are read in the same order
+		List<String> orderable = orderableColumns(columns);
+
+		return GraphQLFieldDefinition.newFieldDefinition()
+			.name(queryFieldName + "_tail")
+			.description("Rows appended to Catalog: " + catalog + ", Schema: " + schema + ", Table: " + table)
+			.type(GraphQLList.list(GraphQLTypeReference.typeRef(typeName)))
+			.argument(GraphQLArgument.newArgument()
+				.name("watermark")
+				.description("Append-only column, such as an event timestamp or an increasing id")
+				.type(GraphQLNonNull.nonNull(Scalars.GraphQLString)))
+			.argument(GraphQLArgument.newArgument()
+				.name("from")
+				.description("Emit rows after this watermark value; rows appended from now on when omitted")
+				.type(Scalars.GraphQLString))
+			.argument(GraphQLArgument.newArgument()
+				.name("limit")
+				.type(Scalars.GraphQLInt)
+				.description("Limit number of rows per poll"))
+			.argument(GraphQLArgument.newArgument()
+				.name("filters")
+				.description("Filter selection")
+				.type(GraphQLList.list(FILTER_INPUT_TYPE)))
+			.argument(GraphQLArgument.newArgument()
+				.name("interval")
+				.description("Polling interval in seconds")
+				.type(Scalars.GraphQLInt))
+			.dataFetcher(env -> {
+				String watermark = env.getArgument("watermark");
+				String from = env.getArgument("from");
+				Integer limit = env.getArgument("limit") != null ? env.getArgument("limit") : 1000;
+				List<Map<String, Object>> filters = env.getArgument("filters");
+				Integer seconds = env.getArgument("interval");
+
+				String watermarkType = columnTypes.get(watermark);
+				if (watermarkType == null)
+					throw new IllegalArgumentException("Unknown watermark column: " + watermark);
+				Duration interval = seconds != null ? Duration.ofSeconds(seconds) : app.getLiveInterval();
+				if (interval.compareTo(app.getLiveMinInterval()) < 0)
+					interval = app.getLiveMinInterval();
+
+				// Identical tails from the end of the table share one polling
+				// pipeline and its watermark; a tail from a given watermark has to
+				// read from there on its own
+				String queryKey = LiveQueryService.queryKey(catalog, schema, table, limit, filters, interval) + "|tail="
+						+ watermark;
+				// noinspection DataFlowIssue
+				return liveQueryService.tail(queryKey, from == null,
+						() -> from != null ? from
+								: trinoQueryService.queryMaxWatermark(catalog, schema, table, filters, watermark),
+						(last, seen) -> trinoQueryService.queryTableAfterWatermark(catalog, schema, table, limit,
+								filters, watermark, watermarkType, last, seen, orderable),
+						watermark, interval);
+			})
+			.build();
+	}
+
+	/**
+	 * Adds a nested field to the table types of a catalog for every relation detected
+	 * between two of them.
+	 * <p>
+	 * Relation fields are named after the target table and the join column (e.g.
+	 * {@code customer_by_custkey}), prefixed with the target schema when it differs from
+	 * the source one. Relations whose tables are not part of the schema, or whose field
+	 * name clashes with an existing field, are skipped.
+	 * </p>
+	 * @param catalog the catalog the table types belong to
+	 * @param relations the relations detected in the catalog
+	 * @param tableTypes the table types of the catalog, keyed by type name; updated in
+	 * place
+	 * @param relationIndex the relations behind the added fields, keyed by type and field
+	 * name; updated in place
+	 */
+	private void addRelationFields(String catalog, List<JoinRelation> relations,
+			Map<String, GraphQLObjectType> tableTypes, Map<String, Map<String, JoinRelation>> relationIndex) {
+		for (JoinRelation relation : relations) {
+			String typeName = catalog + "_" + relation.getSchema() + "_" + relation.getTable();
+			String targetTypeName = catalog + "_" + relation.getTargetSchema() + "_" + relation.getTargetTable();
+			GraphQLObjectType tableType = tableTypes.get(typeName);
+			if (tableType == null || !tableTypes.containsKey(targetTypeName))
+				continue;
+
+			String fieldName = (relation.getSchema().equals(relation.getTargetSchema()) ? ""
+					: relation.getTargetSchema() + "_") + relation.getTargetTable() + "_by_" + relation.getColumn();
+			if (tableType.getFieldDefinition(fieldName) != null) {
+				log.debug("Skipping relation {}, field {} already exists", relation, fieldName);
+				continue;
+			}
+			GraphQLFieldDefinition field = createRelationField(relation, fieldName, targetTypeName);
+			tableTypes.put(typeName, tableType.transform(builder -> builder.field(field)));
+			relationIndex.computeIfAbsent(typeName, k -> new HashMap<>()).put(fieldName, relation);
+		}
+	}
+
+	/**
+	 * Builds the JOIN plan of a table field from its GraphQL selection.
+	 * <p>
+	 * Selected relation fields become child nodes, joined on the relation columns and
+	 * planned recursively from their own selection; any other selected field is projected
+	 * as a column. At most one list relation is joined per node, as the rows of two would
+	 * multiply; further ones are resolved by the {@link RelationDataLoader}.
+	 * </p>
+	 * @param catalog the catalog the tables belong to
+	 * @param typeName the GraphQL type name of the table of this node
+	 * @param fields the fields selected on the table
+	 * @param node the plan node to fill in
+	 * @param relationIndex the relation fields of every table type
+	 * @return the filled in plan node
+	 */
+	private RelationJoinPlan planJoins(String catalog, String typeName, List<SelectedField> fields,
+			RelationJoinPlan node, Map<String, Map<String, JoinRelation>> relationIndex) {
+		Map<String, JoinRelation> relations = relationIndex.getOrDefault(typeName, Map.of());
+		for (SelectedField field : fields) {
+			if (field.getName().startsWith("__"))
+				continue;
+			JoinRelation relation = relations.get(field.getName());
+			if (relation == null) {
+				node.column(field.getName());
+				continue;
+			}
+			if (relation.isMany() && node.joinsOtherList(field.getName())) {
+				// Resolved by the DataLoader from the relation column
+				node.column(fixer.sanitizeSchema(relation.getColumn()));
+				continue;
+			}
+			RelationJoinPlan child = node.child(field.getName(), relation);
+			planJoins(catalog, catalog + "_" + relation.getTargetSchema() + "_" + relation.getTargetTable(),
+					field.getSelectionSet().getImmediateFields(), child, relationIndex);
+		}
+		return node;
+	}
+
+	/**
+	 * Creates the field resolving a relation through the {@link RelationDataLoader}.
+	 * <p>
+	 * Single valued relations are exposed as an object field, all others as a list.
+	 * </p>
+	 * @param relation the relation to expose
+	 * @param fieldName the name of the field
+	 * @param targetTypeName the GraphQL type name of the target table
+	 * @return the relation field definition
+	 */
+	private GraphQLFieldDefinition createRelationField(JoinRelation relation, String fieldName, String targetTypeName) {
+		String sourceColumn = fixer.sanitizeSchema(relation.getColumn());
+		GraphQLTypeReference targetType = GraphQLTypeReference.typeRef(targetTypeName);
+
+		return GraphQLFieldDefinition.newFieldDefinition()
+			.name(fieldName)
+			.description("Relation: " + relation)
+			.type(relation.isMany() ? GraphQLList.list(targetType) : targetType)
+			.dataFetcher(env -> {
+				Map<String, Object> source = env.getSource();
+				// Already fetched by a JOIN query
+				if (source != null && source.containsKey(fieldName))
+					return source.get(fieldName);
+				Object value = source == null ? null : source.get(sourceColumn);
+				if (value == null)
+					return relation.isMany() ? List.of() : null;
+
+				DataLoader<RelationDataLoader.Key, List<Map<String, Object>>> loader = env
+					.getDataLoader(RelationDataLoader.NAME);
+				CompletableFuture<List<Map<String, Object>>> rows = loader
+					.load(new RelationDataLoader.Key(relation, value));
+				return relation.isMany() ? rows : rows.thenApply(r -> r.isEmpty() ? null : r.get(0));
+			})
+			.build();
+	}
+
 }
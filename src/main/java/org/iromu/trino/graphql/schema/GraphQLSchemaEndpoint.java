@@ -18,8 +18,26 @@ package org.iromu.trino.graphql.schema;
 
 import graphql.schema.GraphQLSchema;
 import graphql.schema.idl.SchemaPrinter;
+import lombok.SneakyThrows;
+import lombok.Value;
+import org.springframework.graphql.execution.GraphQlSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * REST controller that exposes the GraphQL schema as a GraphQL SDL (Schema Definition
@@ -31,8 +49,16 @@ import org.springframework.web.bind.annotation.RestController;
  * </p>
  *
  * <p>
- * The schema is dynamically generated by the {@link GraphQLSchema} object and printed
- * using the {@link SchemaPrinter}.
+ * The schema currently served by the {@link GraphQlSource} is printed using the
+ * {@link SchemaPrinter}, so the SDL follows every schema refresh, which can also be
+ * triggered from here.
+ * </p>
+ *
+ * <p>
+ * The SDL is printed once per schema, and kept together with its gzip compressed form and
+ * a strong ETag derived from its content. Clients sending {@code If-None-Match} get a
+ * {@code 304 Not Modified} until the schema changes, and clients accepting gzip get the
+ * compressed form.
  * </p>
  *
  * @author Ivan Rodriguez
@@ -40,17 +66,22 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class GraphQLSchemaEndpoint {
 
-	private final GraphQLSchema graphQLSchema;
+	private final GraphQlSource graphQlSource;
+
+	private final GraphQLSchemaRefresher refresher;
 
 	private final SchemaPrinter schemaPrinter;
 
+	private volatile RenderedSchema rendered;
+
 	/**
-	 * Constructor that initializes the GraphQL schema and the schema printer.
-	 * @param graphQLSchema the dynamically generated {@link GraphQLSchema} that will be
-	 * exposed
+	 * Constructor that initializes the GraphQL source and the schema printer.
+	 * @param graphQlSource the source serving the current schema
+	 * @param refresher the refresher rebuilding the schema on demand
 	 */
-	public GraphQLSchemaEndpoint(GraphQLSchema graphQLSchema) {
-		this.graphQLSchema = graphQLSchema;
+	public GraphQLSchemaEndpoint(GraphQlSource graphQlSource, GraphQLSchemaRefresher refresher) {
+		this.graphQlSource = graphQlSource;
+		this.refresher = refresher;
 		this.schemaPrinter = new SchemaPrinter(SchemaPrinter.Options.defaultOptions()
 			.includeScalarTypes(true)
 			.includeSchemaDefinition(true)
@@ -66,11 +97,117 @@ public class GraphQLSchemaEndpoint {
 	 * response is a text containing the full schema definition, including scalar types,
 	 * schema definitions, and directives.
 	 * </p>
-	 * @return the GraphQL schema in SDL format as a plain text string
+	 * @param acceptEncoding the {@code Accept-Encoding} request header, if any
+	 * @return the GraphQL schema in SDL format as plain text, gzip compressed if
+	 * accepted; {@code 304 Not Modified} if it matches {@code If-None-Match}
 	 */
 	@GetMapping(value = "/schema.graphqls", produces = "text/plain")
-	public String getSchema() {
-		return schemaPrinter.print(graphQLSchema);
+	public ResponseEntity<byte[]> getSchema(
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		RenderedSchema current = render();
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+			.contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+			.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (acceptsGzip(acceptEncoding))
+			return response.eTag(current.getEtag() + "-gzip")
+				.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+				.body(current.getGzip());
+		return response.eTag(current.getEtag()).body(current.getSdl());
+	}
+
+	/**
+	 * Tells whether an {@code Accept-Encoding} header accepts gzip, either by name or
+	 * through {@code *}, with a non-zero quality value.
+	 * @param acceptEncoding the {@code Accept-Encoding} request header, if any
+	 * @return whether the gzip compressed form can be sent
+	 */
+	static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null)
+			return false;
+		Double gzip = null;
+		Double any = null;
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.split(";");
+			String name = parts[0].trim().toLowerCase(Locale.ROOT);
+			double quality = 1;
+			for (int i = 1; i < parts.length; i++) {
+				String parameter = parts[i].trim();
+				if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+					try {
+						quality = Double.parseDouble(parameter.substring(2).trim());
+					}
+					catch (NumberFormatException e) {
+						quality = 0;
+					}
+				}
+			}
+			if (name.equals("gzip") || name.equals("x-gzip"))
+				gzip = gzip == null ? quality : Math.max(gzip, quality);
+			else if (name.equals("*"))
+				any = quality;
+		}
+		if (gzip != null)
+			return gzip > 0;
+		return any != null && any > 0;
+	}
+
+	/**
+	 * Returns the rendered SDL of the current schema, printing it if the schema changed.
+	 */
+	private RenderedSchema render() {
+		GraphQLSchema schema = graphQlSource.schema();
+		RenderedSchema current = rendered;
+		if (current != null && current.getSchema() == schema)
+			return current;
+		synchronized (this) {
+			current = rendered;
+			if (current == null || current.getSchema() != schema) {
+				current = RenderedSchema.of(schema, schemaPrinter.print(schema));
+				rendered = current;
+			}
+			return current;
+		}
+	}
+
+	/**
+	 * Rebuilds the schema from fresh Trino metadata and makes it live.
+	 * <p>
+	 * Requests already running finish on the previous schema. The rebuild runs off the
+	 * event loop, and the response holds the version of the live schema.
+	 * </p>
+	 * @return the {@code version} of the live schema after the refresh
+	 */
+	@PostMapping(value = "/schema/refresh", produces = "application/json")
+	public Mono<Map<String, Long>> refreshSchema() {
+		return Mono.fromCallable(() -> Map.of("version", refresher.refresh())).subscribeOn(Schedulers.boundedElastic());
+	}
+
+	/**
+	 * The SDL of a schema, as plain and gzip compressed UTF-8, with the unquoted ETag of
+	 * the plain form.
+	 */
+	@Value
+	private static class RenderedSchema {
+
+		GraphQLSchema schema;
+
+		byte[] sdl;
+
+		byte[] gzip;
+
+		String etag;
+
+		@SneakyThrows
+		private static RenderedSchema of(GraphQLSchema schema, String sdl) {
+			byte[] bytes = sdl.getBytes(StandardCharsets.UTF_8);
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+			try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+				gzip.write(bytes);
+			}
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+			return new RenderedSchema(schema, bytes, compressed.toByteArray(), HexFormat.of().formatHex(digest, 0, 16));
+		}
+
 	}
 
 }
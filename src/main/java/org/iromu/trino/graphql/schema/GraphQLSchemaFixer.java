@@ -18,7 +18,8 @@ package org.iromu.trino.graphql.schema;
 
 import org.springframework.stereotype.Component;
 
-import java.util.regex.Matcher;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -36,20 +37,50 @@ import java.util.regex.Pattern;
  * with encoded Unicode representations.
  * </p>
  *
+ * <p>
+ * Both directions run for every metadata item and every column of every result row, and
+ * almost every name is already valid. Such names are returned as they are after a single
+ * scan, without allocating. The names that do need encoding are remembered, in both
+ * directions, in a bounded memo.
+ * </p>
+ *
  * @author Ivan Rodriguez
  */
 @Component
 public class GraphQLSchemaFixer {
 
 	/**
-	 * Pattern to match encoded Unicode characters in the form _UXXXX_
+	 * Pattern to validate characters allowed in GraphQL schema names
 	 */
-	private static final Pattern ENCODED_CHAR_PATTERN = Pattern.compile("_U([0-9A-Fa-f]{4,6})_");
+	public static final Pattern VALID_CHAR_PATTERN = Pattern.compile("^[_A-Za-z][_0-9A-Za-z]*$");
 
 	/**
-	 * Pattern to validate characters allowed in GraphQL schema names
+	 * Number of names remembered in each direction before the memo is cleared.
 	 */
-	public static final Pattern VALID_CHAR_PATTERN = Pattern.compile("^[_A-Za-z][_0-9A-Za-z]*$");
+	static final int MAX_MEMO_ENTRIES = 4096;
+
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+	private final Map<String, String> sanitized = new ConcurrentHashMap<>();
+
+	private final Map<String, String> restored = new ConcurrentHashMap<>();
+
+	/**
+	 * Checks whether a name is a valid GraphQL name, without allocating. Same as matching
+	 * {@link #VALID_CHAR_PATTERN}.
+	 * @param name the name to check
+	 * @return {@code true} if the name is not empty, starts with a letter or underscore
+	 * and holds only letters, digits and underscores
+	 */
+	public static boolean isValidName(String name) {
+		if (name == null || name.isEmpty() || !isNameStart(name.charAt(0)))
+			return false;
+		for (int i = 1; i < name.length(); i++) {
+			if (!isNamePart(name.charAt(i)))
+				return false;
+		}
+		return true;
+	}
 
 	/**
 	 * Sanitizes the input string by replacing invalid characters with their Unicode
@@ -62,31 +93,32 @@ public class GraphQLSchemaFixer {
 	 * </p>
 	 * @param input the schema name to sanitize
 	 * @return a sanitized version of the schema name, where invalid characters are
-	 * replaced by Unicode escapes
+	 * replaced by Unicode escapes; the input itself if it is already valid
 	 */
 	public String sanitizeSchema(String input) {
-		if (input == null || input.isEmpty())
+		if (input == null || input.isEmpty() || isValidName(input))
 			return input;
 
-		StringBuilder sanitized = new StringBuilder();
-
-		int[] codePoints = input.codePoints().toArray();
-		for (int i = 0; i < codePoints.length; i++) {
-			int cp = codePoints[i];
-
-			// Special handling for the first character
-			if (i == 0 && !((cp >= 'A' && cp <= 'Z') || (cp >= 'a' && cp <= 'z') || cp == '_')) {
-				sanitized.append("_U").append(String.format("%04X", cp)).append("_");
-			}
-			else if ((cp >= 'A' && cp <= 'Z') || (cp >= 'a' && cp <= 'z') || (cp >= '0' && cp <= '9') || cp == '_') {
-				sanitized.appendCodePoint(cp);
-			}
-			else {
-				sanitized.append("_U").append(String.format("%04X", cp)).append("_");
-			}
+		String encoded = sanitized.get(input);
+		if (encoded != null)
+			return encoded;
+
+		StringBuilder result = new StringBuilder(input.length() + 16);
+		for (int i = 0; i < input.length();) {
+			int cp = input.codePointAt(i);
+			if (i == 0 ? isNameStart(cp) : isNamePart(cp))
+				result.append((char) cp);
+			else
+				appendEscape(result, cp);
+			i += Character.charCount(cp);
 		}
+		encoded = result.toString();
 
-		return sanitized.toString();
+		remember(sanitized, input, encoded);
+		// Only escapes produced above can be decoded, so restoring gives the input back
+		if (input.indexOf("_U") < 0)
+			remember(restored, encoded, input);
+		return encoded;
 	}
 
 	/**
@@ -99,21 +131,75 @@ public class GraphQLSchemaFixer {
 	 * </p>
 	 * @param input the sanitized schema name to restore
 	 * @return the restored schema name with Unicode escape sequences replaced by original
-	 * characters
+	 * characters; the input itself if it holds no escape sequence
 	 */
 	public String restoreSanitizedSchema(String input) {
-		Matcher matcher = ENCODED_CHAR_PATTERN.matcher(input);
-		StringBuilder result = new StringBuilder();
-
-		while (matcher.find()) {
-			String hex = matcher.group(1);
-			int codePoint = Integer.parseInt(hex, 16);
-			String replacement = new String(Character.toChars(codePoint));
-			matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+		int start = input.indexOf("_U");
+		if (start < 0)
+			return input;
+
+		String decoded = restored.get(input);
+		if (decoded != null)
+			return decoded;
+
+		StringBuilder result = null;
+		int copied = 0;
+		for (int i = start; i >= 0; i = input.indexOf("_U", i + 1)) {
+			int end = escapeEnd(input, i);
+			if (end < 0)
+				continue;
+			int cp = Integer.parseInt(input, i + 2, end - 1, 16);
+			if (!Character.isValidCodePoint(cp))
+				continue;
+			if (result == null)
+				result = new StringBuilder(input.length());
+			result.append(input, copied, i).appendCodePoint(cp);
+			copied = end;
+			i = end - 1;
 		}
+		if (result == null)
+			return input;
+		decoded = result.append(input, copied, input.length()).toString();
+
+		remember(restored, input, decoded);
+		return decoded;
+	}
+
+	/**
+	 * Returns the end of the escape sequence, {@code _U} followed by 4 to 6 hexadecimal
+	 * digits and {@code _}, starting at the given index.
+	 */
+	private static int escapeEnd(String input, int start) {
+		int digits = start + 2;
+		int i = digits;
+		while (i < input.length() && i - digits <= 6 && Character.digit(input.charAt(i), 16) >= 0)
+			i++;
+		int count = i - digits;
+		if (count < 4 || count > 6 || i >= input.length() || input.charAt(i) != '_')
+			return -1;
+		return i + 1;
+	}
+
+	private static void appendEscape(StringBuilder result, int cp) {
+		result.append("_U");
+		int digits = Math.max(4, (Integer.SIZE - Integer.numberOfLeadingZeros(cp) + 3) / 4);
+		for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4)
+			result.append(HEX_DIGITS[(cp >>> shift) & 0xF]);
+		result.append('_');
+	}
+
+	private static void remember(Map<String, String> memo, String key, String value) {
+		if (memo.size() >= MAX_MEMO_ENTRIES)
+			memo.clear();
+		memo.put(key, value);
+	}
+
+	private static boolean isNameStart(int c) {
+		return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || c == '_';
+	}
 
-		matcher.appendTail(result);
-		return result.toString();
+	private static boolean isNamePart(int c) {
+		return isNameStart(c) || (c >= '0' && c <= '9');
 	}
 
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.schema;
+
+import graphql.schema.GraphQLSchema;
+import lombok.extern.slf4j.Slf4j;
+import org.iromu.trino.graphql.AppProperties;
+import org.iromu.trino.graphql.data.TrinoSchemaService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebuilds the GraphQL schema from fresh Trino metadata and swaps it into the running
+ * {@link ReloadableGraphQlSource}, so new tables show up without a restart.
+ * <p>
+ * A refresh runs every {@link AppProperties#getSchemaRefreshInterval()} when set, and on
+ * demand through {@link #refresh()}. Refreshes never overlap. Only the types of tables
+ * that changed are rebuilt, and the schema is not swapped at all if nothing changed. The
+ * new schema is built next to the current one, which keeps serving requests until the
+ * swap; a refresh that finds no table at all while the current schema has some is treated
+ * as a Trino outage and discarded.
+ * </p>
+ * <p>
+ * Every {@link AppProperties#getMetadataRepairInterval()}, metadata requests that failed
+ * are retried; if any of them succeeds, the schema is rebuilt from the metadata cache and
+ * swapped in, so tables missing after a transient Trino error show up again.
+ * </p>
+ * <p>
+ * When the first schema was built from the schema snapshot, a refresh runs right after
+ * startup to reconcile it with live metadata.
+ * </p>
+ *
+ * @author Ivan Rodriguez
+ */
+@Component
+@Slf4j
+public class GraphQLSchemaRefresher implements DisposableBean {
+
+	private final ReloadableGraphQlSource graphQlSource;
+
+	private final GraphQLDynamicSchemaService schemaService;
+
+	private final TrinoSchemaService trinoSchemaService;
+
+	private final ScheduledExecutorService scheduler;
+
+	/**
+	 * Constructs the refresher and schedules periodic refreshes and repairs if
+	 * configured.
+	 * @param graphQlSource the source serving the current schema
+	 * @param schemaService the service building schemas from Trino metadata
+	 * @param trinoSchemaService the service reading Trino metadata, whose failed requests
+	 * are repaired
+	 * @param app application properties holding the refresh and repair intervals
+	 */
+	public GraphQLSchemaRefresher(ReloadableGraphQlSource graphQlSource, GraphQLDynamicSchemaService schemaService,
+			TrinoSchemaService trinoSchemaService, AppProperties app) {
+		this.graphQlSource = graphQlSource;
+		this.schemaService = schemaService;
+		this.trinoSchemaService = trinoSchemaService;
+
+		Duration interval = app.getSchemaRefreshInterval();
+		Duration repairInterval = app.getMetadataRepairInterval();
+		boolean reconcile = schemaService.isStartedFromSnapshot();
+		if (reconcile || isPositive(interval) || isPositive(repairInterval)) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "graphql-schema-refresh");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		else {
+			scheduler = null;
+		}
+		if (isPositive(interval)) {
+			scheduler.scheduleWithFixedDelay(this::refreshQuietly, interval.toMillis(), interval.toMillis(),
+					TimeUnit.MILLISECONDS);
+			log.info("GraphQL schema refresh scheduled every {}", interval);
+		}
+		if (isPositive(repairInterval)) {
+			scheduler.scheduleWithFixedDelay(this::repairQuietly, repairInterval.toMillis(), repairInterval.toMillis(),
+					TimeUnit.MILLISECONDS);
+		}
+		if (reconcile) {
+			scheduler.execute(this::refreshQuietly);
+			log.info("GraphQL schema started from the schema snapshot, refreshing from Trino in the background");
+		}
+	}
+
+	/**
+	 * Rebuilds the schema from fresh Trino metadata and makes it live.
+	 * @return the version of the live schema after the refresh; unchanged if nothing
+	 * changed or the refresh was discarded
+	 */
+	public synchronized long refresh() {
+		long start = System.nanoTime();
+		Optional<GraphQLSchema> refreshed = schemaService.refreshSchema();
+		if (refreshed.isEmpty()) {
+			log.info("No table changed, keeping schema version {}", graphQlSource.getVersion());
+			return graphQlSource.getVersion();
+		}
+		return swap(refreshed.get(), start);
+	}
+
+	/**
+	 * Retries the metadata requests that failed and, if any of them succeeds, rebuilds
+	 * the schema from the metadata cache and makes it live.
+	 * @return the version of the live schema after the repair; unchanged if no request
+	 * was repaired
+	 */
+	public synchronized long repair() {
+		long start = System.nanoTime();
+		if (trinoSchemaService.repairFailedLookups() == 0)
+			return graphQlSource.getVersion();
+		return swap(schemaService.generateSchema(), start);
+	}
+
+	/**
+	 * Extends the schema with the tables of catalogs that are materialized lazily and
+	 * makes it live.
+	 * @param catalogs the catalogs to materialize
+	 * @return the version of the live schema; unchanged if every catalog was already
+	 * materialized
+	 */
+	public synchronized long materialize(Collection<String> catalogs) {
+		long start = System.nanoTime();
+		Optional<GraphQLSchema> extended = schemaService.materializeCatalogs(catalogs);
+		if (extended.isEmpty())
+			return graphQlSource.getVersion();
+		long version = graphQlSource.swap(extended.get());
+		log.info("Materialized catalogs {} in {} ms", catalogs, Duration.ofNanos(System.nanoTime() - start).toMillis());
+		return version;
+	}
+
+	private long swap(GraphQLSchema schema, long start) {
+		if (countFields(schema) <= 1 && countFields(graphQlSource.schema()) > 1) {
+			log.warn("Schema refresh found no tables, keeping schema version {}", graphQlSource.getVersion());
+			return graphQlSource.getVersion();
+		}
+		long version = graphQlSource.swap(schema);
+		log.info("Schema refreshed in {} ms", Duration.ofNanos(System.nanoTime() - start).toMillis());
+		return version;
+	}
+
+	private void refreshQuietly() {
+		try {
+			refresh();
+		}
+		catch (Exception e) {
+			log.error("Schema refresh failed, keeping schema version {}: {}", graphQlSource.getVersion(),
+					e.getMessage());
+		}
+	}
+
+	private void repairQuietly() {
+		try {
+			repair();
+		}
+		catch (Exception e) {
+			log.error("Metadata repair failed, keeping schema version {}: {}", graphQlSource.getVersion(),
+					e.getMessage());
+		}
+	}
+
+	private static boolean isPositive(Duration interval) {
+		return interval != null && !interval.isZero() && !interval.isNegative();
+	}
+
+	private static int countFields(GraphQLSchema schema) {
+		return schema.getQueryType() == null ? 0 : schema.getQueryType().getFieldDefinitions().size();
+	}
+
+	@Override
+	public void destroy() {
+		if (scheduler != null)
+			scheduler.shutdownNow();
+	}
+
+}
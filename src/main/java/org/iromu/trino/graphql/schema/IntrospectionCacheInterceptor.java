@@ -0,0 +1,163 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.schema;
+
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLSchema;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.execution.GraphQlSource;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves introspection requests, such as the ones GraphiQL and code generators send, from
+ * a cache.
+ * <p>
+ * A request is an introspection request when the operation it runs is a query selecting
+ * nothing but {@code __schema}, {@code __type} and {@code __typename}. Its result is
+ * computed once per schema and per distinct request, and reused until the schema is
+ * replaced, so introspection storms after a deploy or a schema refresh only cost one
+ * execution each. Results with errors are not cached, and at most {@value #MAX_ENTRIES}
+ * distinct requests are kept per schema. Requests of catalog endpoints are cached against
+ * the schema of their catalog.
+ * </p>
+ *
+ * @author Ivan Rodriguez
+ */
+@Component
+@Slf4j
+public class IntrospectionCacheInterceptor implements WebGraphQlInterceptor {
+
+	/** Maximum number of distinct introspection requests cached per schema. */
+	static final int MAX_ENTRIES = 32;
+
+	private static final Set<String> INTROSPECTION_FIELDS = Set.of("__schema", "__type", "__typename");
+
+	private final GraphQlSource graphQlSource;
+
+	private final Map<GraphQlSource, Cache> caches = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructs the interceptor.
+	 * @param graphQlSource the source serving the current schema
+	 */
+	public IntrospectionCacheInterceptor(GraphQlSource graphQlSource) {
+		this.graphQlSource = graphQlSource;
+	}
+
+	@Override
+	public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+		String document = request.getDocument();
+		if (!document.contains("__schema") && !document.contains("__type")
+				|| !isIntrospection(document, request.getOperationName()))
+			return chain.next(request);
+
+		Cache current = cache(request.getAttributes()
+			.get(CatalogGraphQlEndpoints.GRAPHQL_SOURCE_ATTRIBUTE) instanceof GraphQlSource source ? source
+					: graphQlSource);
+		String key = document + '\u0000' + request.getOperationName() + '\u0000' + request.getVariables();
+		ExecutionGraphQlResponse cached = current.get(key);
+		if (cached != null)
+			return Mono.just(new WebGraphQlResponse(cached));
+		return chain.next(request).doOnNext(response -> {
+			if (response.getErrors().isEmpty())
+				current.put(key, response);
+		});
+	}
+
+	/**
+	 * Returns the cache of the current schema of a source, starting an empty one if the
+	 * schema was replaced.
+	 */
+	private Cache cache(GraphQlSource source) {
+		GraphQLSchema schema = source.schema();
+		return caches.compute(source,
+				(key, current) -> current == null || current.schema != schema ? new Cache(schema) : current);
+	}
+
+	/**
+	 * Tells whether the operation a document runs only selects introspection fields.
+	 * @param document the GraphQL document of the request
+	 * @param operationName the name of the operation to run, if any
+	 * @return whether the request is an introspection request
+	 */
+	static boolean isIntrospection(String document, String operationName) {
+		Document parsed;
+		try {
+			parsed = Parser.parse(document);
+		}
+		catch (InvalidSyntaxException e) {
+			return false;
+		}
+		List<OperationDefinition> operations = parsed.getDefinitionsOfType(OperationDefinition.class)
+			.stream()
+			.filter(operation -> operationName == null || operationName.equals(operation.getName()))
+			.toList();
+		if (operations.size() != 1 || operations.get(0).getOperation() != OperationDefinition.Operation.QUERY)
+			return false;
+		for (Selection<?> selection : operations.get(0).getSelectionSet().getSelections()) {
+			if (!(selection instanceof Field field) || !INTROSPECTION_FIELDS.contains(field.getName()))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Introspection results of one schema, least recently used evicted first.
+	 */
+	private static final class Cache {
+
+		private final GraphQLSchema schema;
+
+		private final Map<String, ExecutionGraphQlResponse> responses = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, ExecutionGraphQlResponse> eldest) {
+				return size() > MAX_ENTRIES;
+			}
+		};
+
+		private Cache(GraphQLSchema schema) {
+			this.schema = schema;
+		}
+
+		private synchronized ExecutionGraphQlResponse get(String key) {
+			return responses.get(key);
+		}
+
+		private synchronized void put(String key, ExecutionGraphQlResponse response) {
+			responses.put(key, response);
+			log.debug("Cached introspection result {} of {}", responses.size(), MAX_ENTRIES);
+		}
+
+	}
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.schema;
+
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Materializes lazily loaded catalogs before the requests that use them run.
+ * <p>
+ * Table fields are named <code>&lt;catalog&gt;_&lt;schema&gt;_&lt;table&gt;</code>, so
+ * the catalogs a request uses are found from the names of its root fields, matching the
+ * longest catalog name first as catalog names may contain underscores. Catalogs that are
+ * not materialized yet are crawled and added to the schema through
+ * {@link GraphQLSchemaRefresher#materialize(java.util.Collection)}, off the event loop,
+ * and the request then runs against the extended schema. Requests only using materialized
+ * catalogs, requests of catalog endpoints, or any request when catalogs are not loaded
+ * lazily, go straight through.
+ * </p>
+ *
+ * @author Ivan Rodriguez
+ */
+@Component
+public class LazyCatalogInterceptor implements WebGraphQlInterceptor {
+
+	private final GraphQLDynamicSchemaService schemaService;
+
+	private final GraphQLSchemaRefresher refresher;
+
+	/**
+	 * Constructs the interceptor.
+	 * @param schemaService the service knowing which catalogs are not materialized yet
+	 * @param refresher the refresher extending the live schema
+	 */
+	public LazyCatalogInterceptor(GraphQLDynamicSchemaService schemaService, GraphQLSchemaRefresher refresher) {
+		this.schemaService = schemaService;
+		this.refresher = refresher;
+	}
+
+	@Override
+	public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+		List<String> pending = schemaService.getPendingCatalogs();
+		// Catalog endpoints build the schema of their catalog themselves
+		if (pending.isEmpty() || request.getAttributes().containsKey(CatalogGraphQlEndpoints.GRAPHQL_SOURCE_ATTRIBUTE))
+			return chain.next(request);
+		Set<String> catalogs = usedCatalogs(request.getDocument(), schemaService.getLazyCatalogs(), pending);
+		if (catalogs.isEmpty())
+			return chain.next(request);
+		return Mono.fromCallable(() -> refresher.materialize(catalogs))
+			.subscribeOn(Schedulers.boundedElastic())
+			.then(Mono.defer(() -> chain.next(request)));
+	}
+
+	/**
+	 * Returns the pending catalogs that the root fields of a document belong to.
+	 * @param document the GraphQL document of the request
+	 * @param catalogs the sanitized names of every catalog that may have fields
+	 * @param pending the candidate catalogs, among the former
+	 * @return the used pending catalogs; empty if the document cannot be parsed, leaving
+	 * the error to the execution
+	 */
+	static Set<String> usedCatalogs(String document, List<String> catalogs, List<String> pending) {
+		Set<String> fields = new HashSet<>();
+		try {
+			Document parsed = Parser.parse(document);
+			Map<String, FragmentDefinition> fragments = new HashMap<>();
+			parsed.getDefinitionsOfType(FragmentDefinition.class)
+				.forEach(fragment -> fragments.put(fragment.getName(), fragment));
+			parsed.getDefinitionsOfType(OperationDefinition.class)
+				.forEach(operation -> collectRootFields(operation.getSelectionSet(), fragments, new HashSet<>(),
+						fields));
+		}
+		catch (InvalidSyntaxException e) {
+			return Set.of();
+		}
+		List<String> longestFirst = catalogs.stream()
+			.sorted(Comparator.comparingInt(String::length).reversed())
+			.toList();
+		Set<String> owners = new HashSet<>();
+		for (String field : fields) {
+			longestFirst.stream().filter(catalog -> field.startsWith(catalog + "_")).findFirst().ifPresent(owners::add);
+		}
+		Set<String> used = new LinkedHashSet<>();
+		for (String catalog : pending) {
+			if (owners.contains(catalog))
+				used.add(catalog);
+		}
+		return used;
+	}
+
+	/**
+	 * Collects the names of the fields selected on the root type, through inline
+	 * fragments and fragment spreads, but not the fields of nested selections.
+	 */
+	private static void collectRootFields(SelectionSet selectionSet, Map<String, FragmentDefinition> fragments,
+			Set<String> visited, Set<String> fields) {
+		if (selectionSet == null)
+			return;
+		for (Selection<?> selection : selectionSet.getSelections()) {
+			if (selection instanceof Field field) {
+				fields.add(field.getName());
+			}
+			else if (selection instanceof InlineFragment fragment) {
+				collectRootFields(fragment.getSelectionSet(), fragments, visited, fields);
+			}
+			else if (selection instanceof FragmentSpread spread && visited.add(spread.getName())) {
+				FragmentDefinition fragment = fragments.get(spread.getName());
+				if (fragment != null)
+					collectRootFields(fragment.getSelectionSet(), fragments, visited, fields);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.schema;
+
+import graphql.GraphQL;
+import graphql.schema.GraphQLSchema;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.graphql.execution.GraphQlSource;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * {@link GraphQlSource} whose schema can be replaced at runtime.
+ * <p>
+ * Spring GraphQL asks the source for its {@link GraphQL} instance once per request, so
+ * swapping the schema only affects requests started afterwards: requests and
+ * subscriptions already running finish on the version they started with.
+ * </p>
+ *
+ * @author Ivan Rodriguez
+ */
+@Slf4j
+public class ReloadableGraphQlSource implements GraphQlSource {
+
+	private final Function<GraphQLSchema, GraphQlSource> factory;
+
+	private final AtomicReference<Version> current = new AtomicReference<>();
+
+	/**
+	 * Creates the source with its initial schema.
+	 * @param factory builds a configured {@link GraphQlSource} around a schema
+	 * @param schema the initial schema
+	 */
+	public ReloadableGraphQlSource(Function<GraphQLSchema, GraphQlSource> factory, GraphQLSchema schema) {
+		this.factory = factory;
+		this.current.set(new Version(1, factory.apply(schema)));
+	}
+
+	@Override
+	public GraphQL graphQl() {
+		return current.get().getSource().graphQl();
+	}
+
+	@Override
+	public GraphQLSchema schema() {
+		return current.get().getSource().schema();
+	}
+
+	/**
+	 * Returns the version of the current schema, starting at 1 and incremented by every
+	 * swap.
+	 * @return the schema version
+	 */
+	public long getVersion() {
+		return current.get().getNumber();
+	}
+
+	/**
+	 * Atomically replaces the schema used by new requests.
+	 * @param schema the new schema
+	 * @return the version of the new schema
+	 */
+	public long swap(GraphQLSchema schema) {
+		GraphQlSource source = factory.apply(schema);
+		Version version = current.updateAndGet(previous -> new Version(previous.getNumber() + 1, source));
+		log.info("GraphQL schema version {} is live", version.getNumber());
+		return version.getNumber();
+	}
+
+	/**
+	 * Creates another source, configured like this one, serving another schema.
+	 * @param schema the initial schema of the new source
+	 * @return the new source
+	 */
+	public ReloadableGraphQlSource withSchema(GraphQLSchema schema) {
+		return new ReloadableGraphQlSource(factory, schema);
+	}
+
+	/**
+	 * A schema and its version number.
+	 */
+	@Value
+	private static class Version {
+
+		long number;
+
+		GraphQlSource source;
+
+	}
+
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data;
+
+import org.iromu.trino.graphql.AppProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Ivan Rodriguez
+ */
+class LiveQueryServiceTest {
+
+	private final LiveQueryService service = new LiveQueryService(new AppProperties());
+
+	@Test
+	void testDiffByKeyReportsInsertsUpdatesAndDeletes() {
+		List<Map<String, Object>> first = List.of(Map.of("id", 1, "status", "open"), Map.of("id", 2, "status", "open"));
+		List<Map<String, Object>> second = List.of(Map.of("id", 1, "status", "closed"),
+				Map.of("id", 3, "status", "open"));
+
+		StepVerifier.create(service.diff(Flux.just(first, first, second), List.of("id"))).assertNext(changes -> {
+			assertEquals(2, changes.size());
+			assertEquals(RowChange.Operation.INSERT, changes.get(0).getOperation());
+		})
+			.assertNext(
+					changes -> assertEquals(
+							List.of(new RowChange(RowChange.Operation.UPDATE, Map.of("id", 1, "status", "closed")),
+									new RowChange(RowChange.Operation.INSERT, Map.of("id", 3, "status", "open")),
+									new RowChange(RowChange.Operation.DELETE, Map.of("id", 2, "status", "open"))),
+							changes))
+			.verifyComplete();
+	}
+
+	@Test
+	void testDiffWithoutKeyComparesWholeRows() {
+		List<Map<String, Object>> first = List.of(Map.of("id", 1, "status", "open"));
+		List<Map<String, Object>> second = List.of(Map.of("id", 1, "status", "closed"));
+
+		StepVerifier.create(service.diff(Flux.just(first, second), List.of()))
+			.expectNextCount(1)
+			.assertNext(
+					changes -> assertEquals(
+							List.of(new RowChange(RowChange.Operation.INSERT, Map.of("id", 1, "status", "closed")),
+									new RowChange(RowChange.Operation.DELETE, Map.of("id", 1, "status", "open"))),
+							changes))
+			.verifyComplete();
+	}
+
+	@Test
+	void testDiffWithoutKeyCountsIdenticalRows() {
+		Map<String, Object> row = Map.of("id", 1, "status", "open");
+
+		StepVerifier.create(service.diff(Flux.just(List.of(row), List.of(row, row), List.of(row)), List.of()))
+			.expectNextCount(1)
+			.assertNext(changes -> assertEquals(List.of(new RowChange(RowChange.Operation.INSERT, row)), changes))
+			.assertNext(changes -> assertEquals(List.of(new RowChange(RowChange.Operation.DELETE, row)), changes))
+			.verifyComplete();
+	}
+
+	@Test
+	void testPollSkipsFailedRuns() {
+		AtomicInteger calls = new AtomicInteger();
+
+		StepVerifier.withVirtualTime(() -> service.poll(() -> {
+			if (calls.incrementAndGet() == 2)
+				throw new IllegalStateException("Trino unavailable");
+			return List.of(Map.of("run", calls.get()));
+		}, Duration.ofSeconds(10)).take(2))
+			.thenAwait(Duration.ofSeconds(30))
+			.assertNext(rows -> assertEquals(1, rows.get(0).get("run")))
+			.assertNext(rows -> assertEquals(3, rows.get(0).get("run")))
+			.verifyComplete();
+	}
+
+	@Test
+	void testIdenticalQueriesShareOnePipeline() {
+		AtomicInteger calls = new AtomicInteger();
+		String key = LiveQueryService.queryKey("hive", "sales", "orders", 10, null, Duration.ofHours(1));
+
+		Disposable first = service
+			.share(key, () -> List.of(Map.of("run", calls.incrementAndGet())), Duration.ofHours(1))
+			.subscribe();
+		StepVerifier
+			.create(service.share(key, () -> List.of(Map.of("run", calls.incrementAndGet())), Duration.ofHours(1))
+				.take(1))
+			.assertNext(rows -> assertEquals(1, rows.get(0).get("run")))
+			.verifyComplete();
+
+		assertEquals(1, calls.get());
+		assertEquals(1, service.getActivePipelines());
+		first.dispose();
+		assertEquals(0, service.getActivePipelines());
+	}
+
+	@Test
+	void testPipelineRestartedAfterStoppingIsSharedAgain() {
+		AtomicInteger calls = new AtomicInteger();
+		String key = LiveQueryService.queryKey("hive", "sales", "orders", 10, null, Duration.ofHours(1));
+
+		Disposable first = service
+			.share(key, () -> List.of(Map.of("run", calls.incrementAndGet())), Duration.ofHours(1))
+			.subscribe();
+		// A subscriber that got the pipeline right before it stopped
+		@SuppressWarnings("unchecked")
+		Flux<List<Map<String, Object>>> stopping = ((Map<String, Flux<List<Map<String, Object>>>>) ReflectionTestUtils
+			.getField(service, "pipelines")).get(key);
+		first.dispose();
+		assertEquals(0, service.getActivePipelines());
+
+		Disposable late = stopping.subscribe();
+		assertEquals(1, service.getActivePipelines());
+		StepVerifier.create(service.share(key, () -> List.of(Map.of("run", -1)), Duration.ofHours(1)).take(1))
+			.assertNext(rows -> assertEquals(calls.get(), rows.get(0).get("run")))
+			.verifyComplete();
+
+		late.dispose();
+		assertEquals(0, service.getActivePipelines());
+	}
+
+	@Test
+	void testTailCarriesWatermarkForward() {
+		List<Object> watermarks = new ArrayList<>();
+
+		StepVerifier.withVirtualTime(() -> service.tail("events", true, () -> 10L, (watermark, seen) -> {
+			watermarks.add(watermark);
+			long last = (Long) watermark;
+			return last < 12 ? List.of(Map.of("id", last + 1), Map.of("id", last + 2)) : List.of();
+		}, "id", Duration.ofSeconds(5)).take(1))
+			.thenAwait(Duration.ofSeconds(20))
+			.assertNext(rows -> assertEquals(List.of(Map.of("id", 11L), Map.of("id", 12L)), rows))
+			.verifyComplete();
+
+		assertEquals(10L, watermarks.get(0));
+	}
+
+	@Test
+	void testTailKeepsRowsSharingTheWatermark() {
+		List<Map<String, Object>> table = new ArrayList<>(List.of(Map.of("ts", 1L, "v", "a"),
+				Map.of("ts", 1L, "v", "b"), Map.of("ts", 1L, "v", "c"), Map.of("ts", 2L, "v", "d")));
+
+		// Behaves like "ts > watermark" or "ts >= watermark" ORDER BY ts, v LIMIT 2
+		StepVerifier
+			.withVirtualTime(() -> service.tail("events", false, () -> 0L,
+					(watermark, seen) -> table.stream()
+						.filter(row -> seen > 0 ? (Long) row.get("ts") >= (Long) watermark
+								: (Long) row.get("ts") > (Long) watermark)
+						.sorted(Comparator.comparing((Map<String, Object> row) -> (Long) row.get("ts"))
+							.thenComparing(row -> (String) row.get("v")))
+						.limit(2 + seen)
+						.toList(),
+					"ts", Duration.ofSeconds(5))
+				.take(3))
+			.thenAwait(Duration.ofSeconds(5))
+			.assertNext(rows -> assertEquals(List.of(Map.of("ts", 1L, "v", "a"), Map.of("ts", 1L, "v", "b")), rows))
+			.then(() -> table.add(Map.of("ts", 1L, "v", "e")))
+			.thenAwait(Duration.ofSeconds(5))
+			.assertNext(rows -> assertEquals(List.of(Map.of("ts", 1L, "v", "c"), Map.of("ts", 1L, "v", "e")), rows))
+			.then(() -> table.add(Map.of("ts", 2L, "v", "f")))
+			.thenAwait(Duration.ofSeconds(5))
+			.assertNext(rows -> assertEquals(List.of(Map.of("ts", 2L, "v", "d"), Map.of("ts", 2L, "v", "f")), rows))
+			.verifyComplete();
+	}
+
+	@Test
+	void testQueryKeyIgnoresFilterFieldOrder() {
+		Map<String, Object> filter = new LinkedHashMap<>();
+		filter.put("operator", "eq");
+		filter.put("field", "status");
+		filter.put("stringValue", "open");
+
+		assertEquals(LiveQueryService.queryKey("hive", "sales", "orders", 10,
+				List.of(Map.of("field", "status", "operator", "eq", "stringValue", "open")), Duration.ofSeconds(5)),
+				LiveQueryService.queryKey("hive", "sales", "orders", 10, List.of(filter), Duration.ofSeconds(5)));
+	}
+
+}
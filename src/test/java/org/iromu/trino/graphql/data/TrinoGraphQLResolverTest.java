@@ -16,6 +16,8 @@
 
 package org.iromu.trino.graphql.data;
 
+import org.iromu.trino.graphql.AppProperties;
+import org.iromu.trino.graphql.data.metadata.TrinoMetadataCrawler;
 import org.iromu.trino.graphql.schema.GraphQLSchemaFixer;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +25,7 @@ import org.springframework.boot.test.autoconfigure.graphql.GraphQlTest;
 import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Primary;
 import org.springframework.graphql.test.tester.GraphQlTester;
 
@@ -34,6 +37,7 @@ import java.util.Map;
  */
 @AutoConfigureGraphQlTester
 @GraphQlTest(controllers = TrinoGraphQLResolver.class)
+@Import({ TrinoMetadataCrawler.class, AppProperties.class })
 class TrinoGraphQLResolverTest {
 
 	@Autowired
@@ -89,7 +93,7 @@ class TrinoGraphQLResolverTest {
 		@Bean
 		@Primary
 		public TrinoSchemaService testTrinoSchemaService() {
-			return new TrinoSchemaService(null, null, null, new GraphQLSchemaFixer(), null) {
+			return new TrinoSchemaService(null, null, new GraphQLSchemaFixer(), null) {
 				@Override
 				public List<String> getCatalogs() {
 					return List.of("hive", "mysql");
@@ -16,12 +16,19 @@
 
 package org.iromu.trino.graphql.data;
 
+import org.iromu.trino.graphql.data.relations.JoinRelation;
+import org.iromu.trino.graphql.data.relations.RelationJoinPlan;
 import org.iromu.trino.graphql.schema.GraphQLSchemaFixer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -78,10 +85,214 @@ class TrinoQueryServiceTest {
 		String generatedSql = sqlCaptor.getValue();
 		assertTrue(generatedSql.contains("SELECT t1.* FROM test_catalog.test_schema.test_table t1"));
 		assertTrue(generatedSql.contains("name = Alice"));
-		assertTrue(generatedSql.contains("age > '25'"));
+		assertTrue(generatedSql.contains("age > 25"));
 		assertTrue(generatedSql.contains("LIMIT 10"));
 	}
 
+	@Test
+	void testQueryTableByKeysUsesSingleInQuery() {
+		when(fixer.restoreSanitizedSchema(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+		when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of());
+
+		service.queryTableByKeys("tpch", "tiny", "customer", "custkey", List.of(1L, 2L, "O'Hara"));
+
+		ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+		verify(jdbcTemplate).queryForList(sqlCaptor.capture());
+		assertEquals("SELECT t1.* FROM tpch.tiny.customer t1 WHERE custkey IN (1, 2, 'O''Hara')", sqlCaptor.getValue());
+	}
+
+	@Test
+	void testQueryTableByTemporalKeys() {
+		when(fixer.restoreSanitizedSchema(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+		when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of());
+
+		service.queryTableByKeys("hive", "sales", "calendar", "day",
+				List.of(java.sql.Date.valueOf("2025-01-31"), LocalDate.of(2025, 2, 1)));
+		service.queryTableByKeys("hive", "sales", "events", "ts",
+				List.of(Timestamp.valueOf("2025-01-31 10:15:30.5"), LocalDateTime.of(2025, 2, 1, 8, 0, 1)));
+
+		ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+		verify(jdbcTemplate, times(2)).queryForList(sqlCaptor.capture());
+		assertEquals("SELECT t1.* FROM hive.sales.calendar t1 WHERE day IN (DATE '2025-01-31', DATE '2025-02-01')",
+				sqlCaptor.getAllValues().get(0));
+		assertEquals(
+				"SELECT t1.* FROM hive.sales.events t1 WHERE ts IN"
+						+ " (TIMESTAMP '2025-01-31 10:15:30.500', TIMESTAMP '2025-02-01 08:00:01')",
+				sqlCaptor.getAllValues().get(1));
+	}
+
+	@Test
+	void testQueryTableWithJoinsReassemblesNestedRows() throws Exception {
+		when(fixer.restoreSanitizedSchema(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+		when(fixer.sanitizeSchema(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+
+		RelationJoinPlan plan = RelationJoinPlan.root();
+		plan.column("orderkey");
+		RelationJoinPlan customer = plan.child("customer_by_custkey",
+				new JoinRelation("tpch", "tiny", "orders", "custkey", "tiny", "customer", "custkey", false));
+		customer.column("custkey");
+		customer.column("name");
+
+		Object[][] rows = { { 1L, 10L, 7L, 100L, "Alice" }, { 2L, 11L, null, null, null } };
+		doAnswer(invocation -> {
+			RowCallbackHandler handler = invocation.getArgument(1);
+			for (Object[] row : rows) {
+				ResultSet rs = mock(ResultSet.class);
+				when(rs.getObject(anyInt())).thenAnswer(i -> row[(int) i.getArgument(0) - 1]);
+				handler.processRow(rs);
+			}
+			return null;
+		}).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+		List<Map<String, Object>> result = service.queryTableWithJoins("tpch", "tiny", "orders", 2, null, null, plan);
+
+		assertEquals(2, result.size());
+		assertEquals(10L, result.get(0).get("orderkey"));
+		assertEquals(Map.of("custkey", 100L, "name", "Alice"), result.get(0).get("customer_by_custkey"));
+		assertNull(result.get(1).get("customer_by_custkey"));
+
+		ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+		verify(jdbcTemplate).query(sqlCaptor.capture(), any(RowCallbackHandler.class));
+		assertEquals(
+				"SELECT t0.graphql_row, t0.orderkey, t1.graphql_row, t1.custkey, t1.name"
+						+ " FROM (SELECT r.*, row_number() OVER () AS graphql_row"
+						+ " FROM (SELECT t1.* FROM tpch.tiny.orders t1 LIMIT 2) r) t0"
+						+ " LEFT JOIN (SELECT r.*, row_number() OVER (PARTITION BY r.custkey) AS graphql_row"
+						+ " FROM tpch.tiny.customer r) t1" + " ON t0.custkey = t1.custkey ORDER BY t0.graphql_row",
+				sqlCaptor.getValue());
+	}
+
+	@Test
+	void testQueryTableWithJoinsKeepsIdenticalRelatedRows() throws Exception {
+		when(fixer.restoreSanitizedSchema(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+
+		RelationJoinPlan plan = RelationJoinPlan.root();
+		plan.column("custkey");
+		RelationJoinPlan orders = plan.child("orders_by_custkey",
+				new JoinRelation("tpch", "tiny", "customer", "custkey", "tiny", "orders", "custkey", true));
+		orders.column("orderstatus");
+
+		// Two orders of the same customer with the same status, told apart by row number
+		Object[][] rows = { { 1L, 100L, 7L, "O" }, { 1L, 100L, 8L, "O" } };
+		doAnswer(invocation -> {
+			RowCallbackHandler handler = invocation.getArgument(1);
+			for (Object[] row : rows) {
+				ResultSet rs = mock(ResultSet.class);
+				when(rs.getObject(anyInt())).thenAnswer(i -> row[(int) i.getArgument(0) - 1]);
+				handler.processRow(rs);
+			}
+			return null;
+		}).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+		List<Map<String, Object>> result = service.queryTableWithJoins("tpch", "tiny", "customer", 1, null, null, plan);
+
+		assertEquals(1, result.size());
+		assertEquals(List.of(Map.of("orderstatus", "O"), Map.of("orderstatus", "O")),
+				result.get(0).get("orders_by_custkey"));
+	}
+
+	@Test
+	void testQueryTableWithJoinsNumbersRelatedRowsWithinTheirJoinValue() {
+		when(fixer.restoreSanitizedSchema(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+
+		RelationJoinPlan plan = RelationJoinPlan.root();
+		plan.column("custkey");
+		RelationJoinPlan orders = plan.child("orders_by_custkey",
+				new JoinRelation("tpch", "tiny", "customer", "custkey", "tiny", "orders", "custkey", true));
+		orders.column("orderkey");
+		RelationJoinPlan lineitems = orders.child("lineitem_by_orderkey",
+				new JoinRelation("tpch", "tiny", "orders", "orderkey", "tiny", "lineitem", "orderkey", true));
+		lineitems.column("linenumber");
+
+		service.queryTableWithJoins("tpch", "tiny", "customer", 5, null, null, plan);
+
+		// No global window over a whole related table: it would run on a single node and
+		// keep the join filter from reaching the table scan
+		ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+		verify(jdbcTemplate).query(sqlCaptor.capture(), any(RowCallbackHandler.class));
+		assertEquals(
+				"SELECT t0.graphql_row, t0.custkey, t1.graphql_row, t1.orderkey, t2.graphql_row, t2.linenumber"
+						+ " FROM (SELECT r.*, row_number() OVER () AS graphql_row"
+						+ " FROM (SELECT t1.* FROM tpch.tiny.customer t1 LIMIT 5) r) t0"
+						+ " LEFT JOIN (SELECT r.*, row_number() OVER (PARTITION BY r.custkey) AS graphql_row"
+						+ " FROM tpch.tiny.orders r) t1 ON t0.custkey = t1.custkey"
+						+ " LEFT JOIN (SELECT r.*, row_number() OVER (PARTITION BY r.orderkey) AS graphql_row"
+						+ " FROM tpch.tiny.lineitem r) t2 ON t1.orderkey = t2.orderkey ORDER BY t0.graphql_row",
+				sqlCaptor.getValue());
+	}
+
+	@Test
+	void testQueryTableOrdered() {
+		when(fixer.restoreSanitizedSchema(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+		when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of());
+
+		service.queryTableOrdered("tpch", "tiny", "orders", 10, null, List.of("orderkey", "custkey"));
+
+		ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+		verify(jdbcTemplate).queryForList(sqlCaptor.capture());
+		assertEquals("SELECT t1.* FROM tpch.tiny.orders t1 ORDER BY orderkey, custkey LIMIT 10", sqlCaptor.getValue());
+	}
+
+	@Test
+	void testQueryTableWithSample() {
+		when(fixer.restoreSanitizedSchema(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+		when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of());
+
+		service.queryTableWithFilters("tpch", "sf1", "orders", 10, null, Map.of("method", "SYSTEM", "percentage", 1.5));
+
+		ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+		verify(jdbcTemplate).queryForList(sqlCaptor.capture());
+		assertEquals("SELECT t1.* FROM tpch.sf1.orders t1 TABLESAMPLE SYSTEM (1.5) LIMIT 10", sqlCaptor.getValue());
+	}
+
+	@Test
+	void testQueryTableWithInvalidSampleThrows() {
+		when(fixer.restoreSanitizedSchema(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+
+		assertThrows(IllegalArgumentException.class, () -> service.queryTableWithFilters("tpch", "sf1", "orders", 10,
+				null, Map.of("method", "BERNOULLI", "percentage", 150)));
+	}
+
+	@Test
+	void testQueryApproximateAggregates() {
+		when(fixer.restoreSanitizedSchema(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+		when(jdbcTemplate.queryForMap(anyString())).thenReturn(Map.of("a0", 1500L));
+
+		Map<String, Object> result = service.queryApproximateAggregates("tpch", "sf1", "orders", List.of(
+				new ApproximateAggregate("a0", ApproximateAggregate.Function.APPROX_DISTINCT, "custkey", 0.01, 100),
+				new ApproximateAggregate("a1", ApproximateAggregate.Function.APPROX_PERCENTILE, "totalprice", 0.5, 100),
+				new ApproximateAggregate("a2", ApproximateAggregate.Function.APPROX_MOST_FREQUENT, "orderstatus", 3,
+						50)),
+				null, Map.of("method", "BERNOULLI", "percentage", 10));
+
+		assertEquals(1500L, result.get("a0"));
+		ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+		verify(jdbcTemplate).queryForMap(sqlCaptor.capture());
+		assertEquals("SELECT approx_distinct(custkey, 0.01) AS a0, approx_percentile(totalprice, 0.5) AS a1,"
+				+ " approx_most_frequent(3, orderstatus, 50) AS a2"
+				+ " FROM tpch.sf1.orders t1 TABLESAMPLE BERNOULLI (10)", sqlCaptor.getValue());
+	}
+
+	@Test
+	void testQueryTableAfterWatermark() {
+		when(fixer.restoreSanitizedSchema(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+		when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of());
+
+		service.queryTableAfterWatermark("hive", "logs", "events", 100,
+				List.of(Map.of("field", "level", "operator", "eq", "stringValue", "'ERROR'")), "ts", "timestamp(3)",
+				Timestamp.valueOf("2025-01-01 10:00:00.5"), 0, List.of("ts", "level"));
+		service.queryTableAfterWatermark("hive", "logs", "events", 100, null, "id", "bigint", 42L, 3, List.of());
+
+		ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+		verify(jdbcTemplate, times(2)).queryForList(sqlCaptor.capture());
+		assertEquals(
+				"SELECT t1.* FROM hive.logs.events t1 WHERE level = 'ERROR'"
+						+ " AND ts > CAST('2025-01-01 10:00:00.5' AS timestamp(3)) ORDER BY ts, level LIMIT 100",
+				sqlCaptor.getAllValues().get(0));
+		assertEquals("SELECT t1.* FROM hive.logs.events t1 WHERE id >= 42 ORDER BY id LIMIT 103",
+				sqlCaptor.getAllValues().get(1));
+	}
+
 	@Test
 	void testExtractFilterValueThrowsOnInvalidFilter() {
 		Map<String, Object> invalidFilter = Map.of("field", "age", "operator", "eq");
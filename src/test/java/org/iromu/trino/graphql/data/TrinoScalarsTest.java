@@ -0,0 +1,80 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data;
+
+import graphql.GraphQLContext;
+import graphql.execution.CoercedVariables;
+import graphql.language.FloatValue;
+import graphql.language.IntValue;
+import graphql.language.StringValue;
+import graphql.schema.CoercingParseLiteralException;
+import graphql.schema.CoercingSerializeException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Ivan Rodriguez
+ */
+class TrinoScalarsTest {
+
+	private final GraphQLContext context = GraphQLContext.getDefault();
+
+	@Test
+	void testSerializesWithoutStrings() {
+		Long id = 9007199254740993L;
+		BigDecimal price = new BigDecimal("12345678901234567890.12");
+
+		assertSame(id, TrinoScalars.LONG.getCoercing().serialize(id, context, Locale.ROOT));
+		assertSame(price, TrinoScalars.BIG_DECIMAL.getCoercing().serialize(price, context, Locale.ROOT));
+		assertEquals(LocalDate.of(2025, 1, 31),
+				TrinoScalars.DATE.getCoercing().serialize(Date.valueOf("2025-01-31"), context, Locale.ROOT));
+		assertEquals(LocalDateTime.of(2025, 1, 31, 10, 15, 30, 500_000_000), TrinoScalars.DATE_TIME.getCoercing()
+			.serialize(Timestamp.valueOf("2025-01-31 10:15:30.5"), context, Locale.ROOT));
+		assertThrows(CoercingSerializeException.class,
+				() -> TrinoScalars.LONG.getCoercing().serialize("not a number", context, Locale.ROOT));
+	}
+
+	@Test
+	void testParsesLiteralsAndValues() {
+		CoercedVariables variables = CoercedVariables.emptyVariables();
+
+		assertEquals(9007199254740993L, TrinoScalars.LONG.getCoercing()
+			.parseLiteral(new IntValue(BigInteger.valueOf(9007199254740993L)), variables, context, Locale.ROOT));
+		assertEquals(42L, TrinoScalars.LONG.getCoercing().parseValue("42", context, Locale.ROOT));
+		assertEquals(new BigDecimal("1.50"), TrinoScalars.BIG_DECIMAL.getCoercing()
+			.parseLiteral(new FloatValue(new BigDecimal("1.50")), variables, context, Locale.ROOT));
+		assertEquals(LocalDate.of(2025, 1, 31), TrinoScalars.DATE.getCoercing()
+			.parseLiteral(StringValue.of("2025-01-31"), variables, context, Locale.ROOT));
+		assertEquals(OffsetDateTime.parse("2025-01-31T10:15:30+02:00"),
+				TrinoScalars.DATE_TIME.getCoercing().parseValue("2025-01-31T10:15:30+02:00", context, Locale.ROOT));
+		assertThrows(CoercingParseLiteralException.class, () -> TrinoScalars.DATE.getCoercing()
+			.parseLiteral(StringValue.of("31/01/2025"), variables, context, Locale.ROOT));
+	}
+
+}
@@ -16,19 +16,29 @@
 
 package org.iromu.trino.graphql.data;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.iromu.trino.graphql.AppProperties;
+import org.iromu.trino.graphql.data.metadata.MetadataSnapshot;
+import org.iromu.trino.graphql.data.relations.JoinDetector;
+import org.iromu.trino.graphql.data.relations.JoinGraph;
+import org.iromu.trino.graphql.data.relations.JoinRelation;
 import org.iromu.trino.graphql.schema.GraphQLSchemaFixer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 
-import java.io.File;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
@@ -39,7 +49,8 @@ class TrinoSchemaServiceTest {
 
 	private JdbcTemplate jdbcTemplate;
 
-	private ObjectMapper objectMapper;
+	@TempDir
+	private Path schemaFolder;
 
 	private AppProperties appProperties;
 
@@ -50,15 +61,22 @@ class TrinoSchemaServiceTest {
 	@BeforeEach
 	void setUp() {
 		jdbcTemplate = mock(JdbcTemplate.class);
-		objectMapper = mock(ObjectMapper.class);
 		appProperties = mock(AppProperties.class);
 		fixer = mock(GraphQLSchemaFixer.class);
 
-		when(appProperties.getSchemaFolder()).thenReturn("target/test-schema-cache");
+		when(appProperties.getSchemaFolder()).thenReturn(schemaFolder.toString());
 		when(appProperties.isIgnoreCache()).thenReturn(true);
 		when(appProperties.isReplaceObjectsNameCharacters()).thenReturn(false);
 
-		service = new TrinoSchemaService(jdbcTemplate, objectMapper, appProperties, fixer, null);
+		service = new TrinoSchemaService(jdbcTemplate, appProperties, fixer, null);
+	}
+
+	/**
+	 * Saves the fetched metadata and maps the snapshot file again, as on a restart.
+	 */
+	private MetadataSnapshot savedSnapshot() {
+		service.saveMetadata();
+		return new MetadataSnapshot(schemaFolder.resolve(TrinoSchemaService.SNAPSHOT_FILE));
 	}
 
 	@Test
@@ -69,7 +87,7 @@ class TrinoSchemaServiceTest {
 		List<String> result = service.getCatalogs();
 
 		assertEquals(expectedCatalogs, result);
-		verify(objectMapper).writeValue(any(File.class), eq(expectedCatalogs));
+		assertEquals(expectedCatalogs, savedSnapshot().getStrings(MetadataSnapshot.key("catalogs")));
 	}
 
 	@Test
@@ -83,7 +101,7 @@ class TrinoSchemaServiceTest {
 		List<String> result = service.getSchemas("myCatalog");
 
 		assertEquals(schemas, result);
-		verify(objectMapper).writeValue(any(File.class), eq(schemas));
+		assertEquals(schemas, savedSnapshot().getStrings(MetadataSnapshot.key("schemas", "myCatalog")));
 	}
 
 	@Test
@@ -99,7 +117,7 @@ class TrinoSchemaServiceTest {
 		List<String> result = service.getTables("catalog", "schema");
 
 		assertEquals(tables, result);
-		verify(objectMapper).writeValue(any(File.class), eq(tables));
+		assertEquals(tables, savedSnapshot().getStrings(MetadataSnapshot.key("tables", "catalog", "schema")));
 	}
 
 	@Test
@@ -123,7 +141,70 @@ class TrinoSchemaServiceTest {
 		List<Map<String, Object>> result = service.getColumns("catalog", "schema", "table");
 
 		assertEquals(columns, result);
-		verify(objectMapper).writeValue(any(File.class), eq(columns));
+		assertEquals(columns, savedSnapshot().getRows(MetadataSnapshot.key("columns", "catalog", "schema", "table")));
+	}
+
+	@Test
+	void testGetCatalogColumnsUsesSingleQuery() throws Exception {
+		when(fixer.sanitizeSchema(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+		when(fixer.restoreSanitizedSchema(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.getString("table_schema")).thenReturn("sales", "sales", "sales");
+		when(rs.getString("table_name")).thenReturn("orders", "orders", "customers");
+		when(rs.getString("column_name")).thenReturn("id", "amount", "id");
+		when(rs.getString("data_type")).thenReturn("bigint", "double", "bigint");
+		doAnswer(invocation -> {
+			RowCallbackHandler handler = invocation.getArgument(1);
+			for (int i = 0; i < 3; i++)
+				handler.processRow(rs);
+			return null;
+		}).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+		Map<String, Map<String, List<Map<String, Object>>>> result = service.getCatalogColumns("hive",
+				Map.of("sales", List.of("orders", "customers", "missing")));
+
+		verify(jdbcTemplate).query(eq("SELECT table_schema, table_name, column_name, data_type"
+				+ " FROM hive.information_schema.columns WHERE table_schema IN ('sales')"
+				+ " ORDER BY table_schema, table_name, ordinal_position"), any(RowCallbackHandler.class));
+		assertEquals(List.of(Map.of("Column", "id", "Type", "bigint"), Map.of("Column", "amount", "Type", "double")),
+				result.get("sales").get("orders"));
+		assertEquals(1, result.get("sales").get("customers").size());
+		assertFalse(result.get("sales").containsKey("missing"));
+		assertEquals(2, savedSnapshot().size());
+	}
+
+	@Test
+	void testReloadCatalogColumnsOnlyReplacesChangedTables() throws Exception {
+		when(fixer.sanitizeSchema(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+		when(fixer.restoreSanitizedSchema(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+		MetadataSnapshot cached = new MetadataSnapshot(schemaFolder.resolve(TrinoSchemaService.SNAPSHOT_FILE));
+		cached.putRows(MetadataSnapshot.key("columns", "hive", "sales", "orders"),
+				List.of(Map.of("Column", "id", "Type", "bigint", "Extra", "")));
+		cached.putRows(MetadataSnapshot.key("columns", "hive", "sales", "customers"),
+				List.of(Map.of("Column", "id", "Type", "integer")));
+		cached.flush();
+
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.getString("table_schema")).thenReturn("sales", "sales");
+		when(rs.getString("table_name")).thenReturn("orders", "customers");
+		when(rs.getString("column_name")).thenReturn("id", "id");
+		when(rs.getString("data_type")).thenReturn("bigint", "bigint");
+		doAnswer(invocation -> {
+			RowCallbackHandler handler = invocation.getArgument(1);
+			for (int i = 0; i < 2; i++)
+				handler.processRow(rs);
+			return null;
+		}).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+		service.getCatalogColumns("hive", Map.of("sales", List.of("orders", "customers")), true);
+
+		MetadataSnapshot saved = savedSnapshot();
+		// Unchanged, so the DESCRIBE columns are kept
+		assertEquals(List.of(Map.of("Column", "id", "Type", "bigint", "Extra", "")),
+				saved.getRows(MetadataSnapshot.key("columns", "hive", "sales", "orders")));
+		assertEquals(List.of(Map.of("Column", "id", "Type", "bigint")),
+				saved.getRows(MetadataSnapshot.key("columns", "hive", "sales", "customers")));
 	}
 
 	@Test
@@ -132,10 +213,93 @@ class TrinoSchemaServiceTest {
 		when(fixer.restoreSanitizedSchema("invalid")).thenReturn("invalid");
 		when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenThrow(new RuntimeException("fail"));
 
+		when(appProperties.getMetadataRetries()).thenReturn(2);
+		when(appProperties.getMetadataRetryBackoff()).thenReturn(Duration.ZERO);
+		when(appProperties.getMetadataFailureTtl()).thenReturn(Duration.ofMinutes(1));
+
 		List<String> result = service.getSchemas("invalid");
 
 		assertTrue(result.isEmpty());
-		verify(objectMapper).writeValue(any(File.class), eq(List.of()));
+		verify(jdbcTemplate, times(3)).queryForList("SHOW SCHEMAS FROM invalid", String.class);
+		assertEquals(1, service.getFailedLookups());
+
+		// Not sent again until the failure TTL is over, and never cached
+		assertTrue(service.getSchemas("invalid").isEmpty());
+		verify(jdbcTemplate, times(3)).queryForList("SHOW SCHEMAS FROM invalid", String.class);
+		assertEquals(0, service.repairFailedLookups());
+		assertNull(savedSnapshot().getStrings(MetadataSnapshot.key("schemas", "invalid")));
+	}
+
+	@Test
+	void testRepairFailedLookups() throws Exception {
+		when(fixer.sanitizeSchema("flaky")).thenReturn("flaky");
+		when(fixer.restoreSanitizedSchema("flaky")).thenReturn("flaky");
+		when(appProperties.getMetadataFailureTtl()).thenReturn(Duration.ZERO);
+		when(jdbcTemplate.queryForList("SHOW SCHEMAS FROM flaky", String.class)).thenThrow(new RuntimeException("fail"))
+			.thenReturn(List.of("sales"));
+
+		assertTrue(service.getSchemas("flaky").isEmpty());
+		assertEquals(1, service.getFailedLookups());
+
+		assertEquals(1, service.repairFailedLookups());
+
+		assertEquals(0, service.getFailedLookups());
+		assertEquals(List.of("sales"), savedSnapshot().getStrings(MetadataSnapshot.key("schemas", "flaky")));
+	}
+
+	@Test
+	void testGetCatalogs_ExceptionShouldReturnEmptyList() throws Exception {
+		when(jdbcTemplate.queryForList("SHOW CATALOGS", String.class)).thenThrow(new RuntimeException("fail"));
+		when(appProperties.getMetadataFailureTtl()).thenReturn(Duration.ofMinutes(1));
+
+		assertTrue(service.getCatalogs().isEmpty());
+		assertEquals(1, service.getFailedLookups());
+
+		// Not sent again until the failure TTL is over
+		assertTrue(service.getCatalogs().isEmpty());
+		verify(jdbcTemplate, times(1)).queryForList("SHOW CATALOGS", String.class);
+	}
+
+	@Test
+	void testReloadCatalogsFailureKeepsCachedCatalogs() throws Exception {
+		when(appProperties.getMetadataFailureTtl()).thenReturn(Duration.ZERO);
+		when(jdbcTemplate.queryForList("SHOW CATALOGS", String.class)).thenReturn(List.of("hive"))
+			.thenThrow(new RuntimeException("fail"))
+			.thenReturn(List.of("hive", "iceberg"));
+
+		assertEquals(List.of("hive"), service.getCatalogs());
+		assertEquals(List.of("hive"), service.getCatalogs(true));
+		assertEquals(1, service.getFailedLookups());
+
+		assertEquals(1, service.repairFailedLookups());
+
+		assertEquals(0, service.getFailedLookups());
+		assertEquals(List.of("hive", "iceberg"), savedSnapshot().getStrings(MetadataSnapshot.key("catalogs")));
+	}
+
+	@Test
+	void testGetJoinsReadsCachedGraph() throws Exception {
+		when(fixer.sanitizeSchema("hive")).thenReturn("hive");
+		when(fixer.restoreSanitizedSchema("hive")).thenReturn("hive");
+		when(appProperties.isIgnoreCache()).thenReturn(false);
+		JoinRelation relation = new JoinRelation("hive", "sales", "orders", "user_id", "crm", "users", "id", false);
+		JoinDetector joinDetector = mock(JoinDetector.class);
+		when(joinDetector.detect("hive")).thenReturn(JoinGraph.of(List.of(relation)));
+		service = new TrinoSchemaService(jdbcTemplate, appProperties, fixer, Optional.of(joinDetector));
+
+		assertEquals(List.of(relation), service.getJoins("hive"));
+		assertEquals(List.of(relation), service.getJoins("hive"));
+		verify(joinDetector, times(1)).detect("hive");
+
+		// Restored from the snapshot file after a restart
+		service.saveMetadata();
+		service = new TrinoSchemaService(jdbcTemplate, appProperties, fixer, Optional.of(joinDetector));
+		assertEquals(List.of(relation), service.getJoins("hive"));
+		verify(joinDetector, times(1)).detect("hive");
+
+		// Detected again on a refresh
+		assertEquals(List.of(relation), service.getJoins("hive", true));
+		verify(joinDetector, times(2)).detect("hive");
 	}
 
 }
@@ -20,11 +20,17 @@ import graphql.Scalars;
 import graphql.schema.GraphQLList;
 import graphql.schema.GraphQLObjectType;
 import graphql.schema.GraphQLOutputType;
+import io.trino.jdbc.Row;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 /**
  * @author Ivan Rodriguez
@@ -51,4 +57,34 @@ public class TrinoToGraphQLOutputTypeMapperComplexTest {
 		assertEquals("KeyValue", objType.getName());
 	}
 
+	@Test
+	@DisplayName("Should map nested rows, arrays and maps to structured types")
+	void testNestedRowType() {
+		GraphQLOutputType gqlType = TrinoToGraphQLOutputTypeMapper
+			.mapType("array(row(a bigint, b map(varchar, array(double))))");
+		GraphQLObjectType row = (GraphQLObjectType) ((GraphQLList) gqlType).getWrappedType();
+		assertEquals(TrinoScalars.LONG, row.getFieldDefinition("a").getType());
+		GraphQLList entries = (GraphQLList) row.getFieldDefinition("b").getType();
+		GraphQLObjectType entry = (GraphQLObjectType) entries.getWrappedType();
+		assertEquals(Scalars.GraphQLString, entry.getFieldDefinition("key").getType());
+		assertEquals(Scalars.GraphQLFloat,
+				((GraphQLList) entry.getFieldDefinition("value").getType()).getWrappedType());
+
+		// Repeated shapes share one type
+		assertSame(row, TrinoToGraphQLOutputTypeMapper.mapType("row(a bigint, b map(varchar, array(double)))"));
+	}
+
+	@Test
+	@DisplayName("Should convert row, array and map values to structured values")
+	void testNestedRowValue() {
+		TrinoType type = TrinoType.parse("array(row(a bigint, b map(varchar, array(double))))");
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put("x", List.of(1.5, 2.5));
+		Row row = Row.builder().addField("a", 7L).addField("b", map).build();
+
+		Object value = TrinoToGraphQLOutputTypeMapper.toGraphQLValue(type, new Object[] { row });
+
+		assertEquals(List.of(Map.of("a", 7L, "b", List.of(Map.of("key", "x", "value", List.of(1.5, 2.5))))), value);
+	}
+
 }
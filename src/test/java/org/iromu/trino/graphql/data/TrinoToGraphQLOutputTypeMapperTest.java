@@ -14,10 +14,10 @@ public class TrinoToGraphQLOutputTypeMapperTest {
 
 	@ParameterizedTest(name = "Trino type \"{0}\" should map to GraphQL type \"{1}\"")
 	@CsvSource({ "boolean, GraphQLBoolean", "tinyint, GraphQLInt", "smallint, GraphQLInt", "integer, GraphQLInt",
-			"bigint, GraphQLString", "real, GraphQLFloat", "double, GraphQLFloat", "varchar, GraphQLString",
+			"bigint, Long", "real, GraphQLFloat", "double, GraphQLFloat", "varchar, GraphQLString",
 			"char, GraphQLString", "varbinary, GraphQLString", "json, GraphQLString", "uuid, GraphQLString",
-			"ipaddress, GraphQLString", "date, GraphQLString", "time, GraphQLString", "timestamp, GraphQLString",
-			"interval, GraphQLString", "'decimal(10,2)', GraphQLString" })
+			"ipaddress, GraphQLString", "date, Date", "time, GraphQLString", "timestamp, DateTime",
+			"'timestamp(3) with time zone', DateTime", "interval, GraphQLString", "'decimal(10,2)', BigDecimal" })
 	void testPrimitiveTypes(String trinoType, String expectedGraphQLType) {
 		GraphQLOutputType gqlType = TrinoToGraphQLOutputTypeMapper.mapType(trinoType);
 
@@ -34,6 +34,18 @@ public class TrinoToGraphQLOutputTypeMapperTest {
 			case "GraphQLString":
 				assertEquals(Scalars.GraphQLString, gqlType);
 				break;
+			case "Long":
+				assertEquals(TrinoScalars.LONG, gqlType);
+				break;
+			case "BigDecimal":
+				assertEquals(TrinoScalars.BIG_DECIMAL, gqlType);
+				break;
+			case "Date":
+				assertEquals(TrinoScalars.DATE, gqlType);
+				break;
+			case "DateTime":
+				assertEquals(TrinoScalars.DATE_TIME, gqlType);
+				break;
 			default:
 				throw new IllegalArgumentException("Unexpected GraphQL type: " + expectedGraphQLType);
 		}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Ivan Rodriguez
+ */
+class TrinoTypeTest {
+
+	@Test
+	void testParsesNestedTypes() {
+		TrinoType type = TrinoType.parse("array(row(a bigint, b map(varchar, array(double))))");
+
+		assertTrue(type.isArray());
+		TrinoType row = type.getElementType();
+		assertTrue(row.isRow());
+		assertEquals(List.of("a", "b"), row.getFields().stream().map(TrinoType.Field::getName).toList());
+		assertEquals("bigint", row.getFields().get(0).getType().getName());
+		TrinoType map = row.getFields().get(1).getType();
+		assertTrue(map.isMap());
+		assertEquals("varchar", map.getKeyType().getSignature());
+		assertEquals("array(double)", map.getValueType().getSignature());
+		assertEquals("array(row(\"a\" bigint, \"b\" map(varchar, array(double))))", type.getSignature());
+	}
+
+	@ParameterizedTest
+	@CsvSource(delimiter = '|', value = { "row(bigint, varchar(10))|field0:bigint, field1:varchar(10)",
+			"row(ts timestamp(3) with time zone, d decimal(10,2))|ts:timestamp(3) with time zone, d:decimal(10,2)",
+			"row(timestamp with time zone, interval day to second)|field0:timestamp with time zone, field1:interval day to second",
+			"row(\"Order Date\" date, time time)|Order Date:date, time:time" })
+	void testParsesRowFields(String trinoType, String expected) {
+		List<TrinoType.Field> fields = TrinoType.parse(trinoType).getFields();
+		StringBuilder actual = new StringBuilder();
+		for (int i = 0; i < fields.size(); i++) {
+			if (i > 0)
+				actual.append(", ");
+			String name = fields.get(i).getName();
+			actual.append(name == null ? "field" + i : name).append(':').append(fields.get(i).getType().getSignature());
+		}
+		assertEquals(expected, actual.toString());
+	}
+
+	@Test
+	void testInternsTypes() {
+		TrinoType type = TrinoType.parse("ARRAY(ROW(a BIGINT))");
+
+		assertSame(type, TrinoType.parse("array(row(a bigint))"));
+		assertSame(type.getElementType(), TrinoType.parse("row( a  bigint )"));
+		assertEquals("decimal", TrinoType.parse("DECIMAL(10, 2)").getName());
+	}
+
+	@Test
+	void testKeepsMalformedTypesAsScalars() {
+		TrinoType type = TrinoType.parse("array(bigint");
+
+		assertFalse(type.isStructural());
+		assertNull(type.getElementType());
+		assertEquals("array(bigint", type.getSignature());
+	}
+
+}
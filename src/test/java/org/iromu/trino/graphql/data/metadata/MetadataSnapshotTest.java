@@ -0,0 +1,97 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data.metadata;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author Ivan Rodriguez
+ */
+class MetadataSnapshotTest {
+
+	@TempDir
+	private Path folder;
+
+	@Test
+	void testValuesSurviveReopening() {
+		Path file = folder.resolve("cache").resolve("metadata.snapshot");
+		MetadataSnapshot snapshot = new MetadataSnapshot(file);
+		Map<String, Object> column = new HashMap<>();
+		column.put("Column", "id");
+		column.put("Type", "bigint");
+		column.put("Comment", null);
+
+		snapshot.putStrings(MetadataSnapshot.key("catalogs"), List.of("hive", "mysql"));
+		snapshot.putRows(MetadataSnapshot.key("columns", "hive", "sales", "orders"), List.of(column));
+		assertEquals(List.of("hive", "mysql"), snapshot.getStrings(MetadataSnapshot.key("catalogs")));
+		assertFalse(Files.exists(file));
+		snapshot.flush();
+
+		MetadataSnapshot reopened = new MetadataSnapshot(file);
+		assertEquals(2, reopened.size());
+		assertEquals(List.of("hive", "mysql"), reopened.getStrings(MetadataSnapshot.key("catalogs")));
+		assertEquals(List.of(column), reopened.getRows(MetadataSnapshot.key("columns", "hive", "sales", "orders")));
+		assertNull(reopened.getStrings(MetadataSnapshot.key("schemas", "hive")));
+	}
+
+	@Test
+	void testFlushKeepsMappedValues() {
+		Path file = folder.resolve("metadata.snapshot");
+		MetadataSnapshot snapshot = new MetadataSnapshot(file);
+		snapshot.putStrings(MetadataSnapshot.key("schemas", "hive"), List.of("sales"));
+		snapshot.flush();
+
+		MetadataSnapshot reopened = new MetadataSnapshot(file);
+		reopened.putStrings(MetadataSnapshot.key("schemas", "mysql"), List.of("crm"));
+		reopened.putStrings(MetadataSnapshot.key("schemas", "hive"), List.of("sales", "web"));
+		reopened.flush();
+
+		MetadataSnapshot latest = new MetadataSnapshot(file);
+		assertEquals(2, latest.size());
+		assertEquals(List.of("sales", "web"), latest.getStrings(MetadataSnapshot.key("schemas", "hive")));
+		assertEquals(List.of("crm"), latest.getStrings(MetadataSnapshot.key("schemas", "mysql")));
+	}
+
+	@Test
+	void testOtherFormatVersionIsIgnored() throws Exception {
+		Path file = folder.resolve("metadata.snapshot");
+		ByteBuffer header = ByteBuffer.allocate(20)
+			.putInt(0x54474D53)
+			.putInt(MetadataSnapshot.FORMAT_VERSION + 1)
+			.putInt(0)
+			.putLong(20);
+		Files.write(file, header.array());
+
+		MetadataSnapshot snapshot = new MetadataSnapshot(file);
+
+		assertEquals(0, snapshot.size());
+		assertNull(snapshot.getStrings(MetadataSnapshot.key("catalogs")));
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data.metadata;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Ivan Rodriguez
+ */
+class SchemaSnapshotGeneratorTest {
+
+	@TempDir
+	private Path folder;
+
+	@Test
+	void testGeneratesSnapshotFromStub() throws Exception {
+		Path stub = folder.resolve("metadata.tsv");
+		Files.writeString(stub, """
+				# exported from information_schema.columns
+				table_catalog\ttable_schema\ttable_name\tcolumn_name\tdata_type
+				hive\tsales\torders\tid\tbigint
+				hive\tsales\torders\ttotal\tdecimal(10,2)
+
+				hive\tsales\tcustomer\tid\tbigint
+				mysql\tcrm\tleads\temail\tvarchar
+				""");
+		Path output = folder.resolve("classes").resolve(SchemaSnapshot.BUNDLED);
+
+		SchemaSnapshotGenerator.main(new String[] { "--output=" + output, "--url=", "--metadata=" + stub });
+
+		SchemaSnapshot snapshot = SchemaSnapshot.load(output);
+		assertEquals(List.of("hive", "mysql"), snapshot.getCatalogs());
+		assertEquals(3, snapshot.getTableCount());
+		TableMetadata orders = snapshot.getTables().get("hive").get(0);
+		assertEquals("orders", orders.getTable());
+		assertEquals(
+				List.of(Map.of("Column", "id", "Type", "bigint"), Map.of("Column", "total", "Type", "decimal(10,2)")),
+				orders.getColumns());
+		assertEquals(List.of(), snapshot.getRelations().get("hive"));
+	}
+
+	@Test
+	void testAppliesCatalogSchemaAndNameSettingsToStub() throws Exception {
+		Path stub = folder.resolve("metadata.tsv");
+		Files.writeString(stub, """
+				hive\tsales\torders\tid\tbigint
+				hive\tsales\torder-items\tid\tbigint
+				hive\tinformation_schema\ttables\ttable_name\tvarchar
+				hive\tstaging\torders\tid\tbigint
+				mysql\tcrm\tleads\temail\tvarchar
+				system\truntime\tnodes\tnode_id\tvarchar
+				""");
+		Path output = folder.resolve(SchemaSnapshot.FILE);
+
+		SchemaSnapshotGenerator.main(new String[] { "--output=" + output, "--metadata=" + stub,
+				"--include-catalogs=hive, system", "--exclude-schemas=information_schema,staging" });
+
+		SchemaSnapshot snapshot = SchemaSnapshot.load(output);
+		assertEquals(List.of("hive", "mysql", "system"), snapshot.getCatalogs());
+		assertEquals(List.of("hive"), List.copyOf(snapshot.getTables().keySet()));
+		// Wrongly named tables are skipped by default
+		assertEquals(List.of("orders"),
+				snapshot.getTables().get("hive").stream().map(TableMetadata::getTable).toList());
+
+		SchemaSnapshotGenerator
+			.main(new String[] { "--output=" + output, "--metadata=" + stub, "--include-catalogs=hive",
+					"--replace-objects-name-characters=true", "--ignore-objects-with-wrong-characters=false" });
+
+		snapshot = SchemaSnapshot.load(output);
+		assertEquals(List.of("orders", "order_U002D_items", "orders"),
+				snapshot.getTables().get("hive").stream().map(TableMetadata::getTable).toList());
+	}
+
+	@Test
+	void testGeneratesNothingWithoutMetadata() {
+		Path output = folder.resolve(SchemaSnapshot.FILE);
+
+		SchemaSnapshotGenerator.main(new String[] { "--output=" + output, "--url=", "--metadata=" });
+
+		assertFalse(Files.exists(output));
+	}
+
+	@Test
+	void testRejectsMalformedStub() throws Exception {
+		Path stub = folder.resolve("metadata.tsv");
+		Files.writeString(stub, "hive\tsales\torders\tid\n");
+
+		assertThrows(IllegalArgumentException.class, () -> SchemaSnapshotGenerator
+			.main(new String[] { "--output=" + folder.resolve(SchemaSnapshot.FILE), "--metadata=" + stub }));
+	}
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data.metadata;
+
+import org.iromu.trino.graphql.data.relations.JoinRelation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author Ivan Rodriguez
+ */
+class SchemaSnapshotTest {
+
+	@TempDir
+	private Path folder;
+
+	@Test
+	void testSnapshotSurvivesReloading() {
+		Path file = folder.resolve(SchemaSnapshot.FILE);
+		Map<String, List<TableMetadata>> tables = new LinkedHashMap<>();
+		tables.put("hive", List.of(table("hive", "sales", "orders"), table("hive", "sales", "customer")));
+		tables.put("mysql", List.of());
+		JoinRelation relation = new JoinRelation("hive", "sales", "orders", "customer_id", "sales", "customer", "id",
+				false);
+
+		new SchemaSnapshot(List.of("hive", "mysql", "system"), tables, Map.of("hive", List.of(relation))).save(file);
+		SchemaSnapshot loaded = SchemaSnapshot.load(file);
+
+		assertEquals(List.of("hive", "mysql", "system"), loaded.getCatalogs());
+		assertEquals(tables, loaded.getTables());
+		assertEquals(Map.of("hive", List.of(relation), "mysql", List.of()), loaded.getRelations());
+		assertEquals(2, loaded.getTableCount());
+	}
+
+	@Test
+	void testSaveReplacesPreviousSnapshot() {
+		Path file = folder.resolve(SchemaSnapshot.FILE);
+		new SchemaSnapshot(List.of("hive"), Map.of("hive", List.of(table("hive", "sales", "orders"))), Map.of())
+			.save(file);
+		new SchemaSnapshot(List.of("mysql"), Map.of("mysql", List.of(table("mysql", "crm", "leads"))), Map.of())
+			.save(file);
+
+		SchemaSnapshot loaded = SchemaSnapshot.load(file);
+
+		assertEquals(List.of("mysql"), List.copyOf(loaded.getTables().keySet()));
+	}
+
+	@Test
+	void testMissingSnapshotLoadsNothing() {
+		assertNull(SchemaSnapshot.load(folder.resolve(SchemaSnapshot.FILE)));
+	}
+
+	@Test
+	void testIncompleteSnapshotLoadsNothing() {
+		Path file = folder.resolve(SchemaSnapshot.FILE);
+		MetadataSnapshot snapshot = new MetadataSnapshot(file);
+		snapshot.putStrings(MetadataSnapshot.key("catalogs"), List.of("hive"));
+		snapshot.putStrings(MetadataSnapshot.key("crawled"), List.of("hive"));
+		snapshot.flush();
+		assertNull(SchemaSnapshot.load(file));
+
+		snapshot.putStrings(MetadataSnapshot.key("tables", "hive"), List.of("sales", "orders"));
+		snapshot.putRows(MetadataSnapshot.key("joins", "hive"), List.of());
+		snapshot.flush();
+		assertNull(SchemaSnapshot.load(file));
+
+		snapshot.putRows(MetadataSnapshot.key("columns", "hive", "sales", "orders"),
+				List.of(Map.of("Column", "id", "Type", "bigint")));
+		snapshot.flush();
+		assertEquals(1, SchemaSnapshot.load(file).getTableCount());
+	}
+
+	private static TableMetadata table(String catalog, String schema, String table) {
+		return new TableMetadata(catalog, schema, table,
+				List.of(Map.of("Column", "id", "Type", "bigint"), Map.of("Column", "name", "Type", "varchar")));
+	}
+
+}
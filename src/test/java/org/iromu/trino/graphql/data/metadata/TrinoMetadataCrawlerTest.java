@@ -0,0 +1,247 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data.metadata;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.iromu.trino.graphql.AppProperties;
+import org.iromu.trino.graphql.data.TrinoSchemaService;
+import org.iromu.trino.graphql.schema.GraphQLSchemaFixer;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Ivan Rodriguez
+ */
+class TrinoMetadataCrawlerTest {
+
+	private final AtomicInteger running = new AtomicInteger();
+
+	private final AtomicInteger maxRunning = new AtomicInteger();
+
+	private final Map<String, AtomicInteger> runningPerCatalog = new ConcurrentHashMap<>();
+
+	private final AtomicInteger maxRunningPerCatalog = new AtomicInteger();
+
+	private final AtomicInteger bulkRequests = new AtomicInteger();
+
+	private final AtomicInteger describeRequests = new AtomicInteger();
+
+	private final AtomicInteger reloads = new AtomicInteger();
+
+	@Test
+	void testCrawlIsDeterministicAndBounded() {
+		AppProperties app = new AppProperties();
+		app.setMetadataConcurrency(6);
+		app.setMetadataCatalogConcurrency(2);
+		app.setBulkColumnMetadata(false);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		TrinoMetadataCrawler crawler = new TrinoMetadataCrawler(slowSchemaService(), app, Optional.of(registry));
+
+		Map<String, List<TableMetadata>> first = crawler.crawl();
+		Map<String, List<TableMetadata>> second = crawler.crawl();
+
+		assertEquals(List.of("c1", "c2", "c3", "c4"), List.copyOf(first.keySet()));
+		assertEquals(List.of("s1.t1", "s1.t2", "s1.t3", "s2.t1", "s2.t2", "s2.t3"),
+				first.get("c2").stream().map(t -> t.getSchema() + "." + t.getTable()).toList());
+		assertEquals(first, second);
+		assertTrue(maxRunning.get() <= 6, "Global concurrency exceeded: " + maxRunning.get());
+		assertTrue(maxRunningPerCatalog.get() <= 2, "Catalog concurrency exceeded: " + maxRunningPerCatalog.get());
+		assertTrue(maxRunning.get() > 1, "Crawl should run in parallel");
+		assertEquals(2, registry.timer("trino.metadata.crawl").count());
+		assertEquals(48.0, registry.counter("trino.metadata.tables").count());
+	}
+
+	@Test
+	void testBusyCatalogDoesNotHoldPoolThreads() {
+		AppProperties app = new AppProperties();
+		app.setMetadataConcurrency(4);
+		app.setMetadataCatalogConcurrency(1);
+		app.setBulkColumnMetadata(false);
+		CountDownLatch lastCatalog = new CountDownLatch(1);
+		TrinoSchemaService service = new TrinoSchemaService(null, null, new GraphQLSchemaFixer(), null) {
+			@Override
+			public List<String> getCatalogs(boolean reload) {
+				return List.of("c1", "c2", "c3", "c4");
+			}
+
+			@Override
+			public List<String> getSchemas(String catalog, boolean reload) {
+				return List.of("s1");
+			}
+
+			@Override
+			public List<String> getTables(String catalog, String schema, boolean reload) {
+				return List.of("t1", "t2", "t3", "t4", "t5", "t6");
+			}
+
+			@Override
+			public List<Map<String, Object>> getColumns(String catalog, String schema, String table, boolean reload) {
+				try {
+					// c1 is only served once c4 is, which its requests must not prevent
+					if (catalog.equals("c4"))
+						lastCatalog.countDown();
+					else if (catalog.equals("c1") && !lastCatalog.await(5, TimeUnit.SECONDS))
+						throw new IllegalStateException("c4 starved by c1");
+				}
+				catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+				return List.of(Map.of("Column", table + "_id", "Type", "bigint"));
+			}
+		};
+
+		Map<String, List<TableMetadata>> result = new TrinoMetadataCrawler(service, app, Optional.empty()).crawl();
+
+		assertEquals(6, result.get("c1").size());
+		assertEquals(6, result.get("c4").size());
+	}
+
+	@Test
+	void testCrawlReadsColumnsInBulkPerCatalog() {
+		AppProperties app = new AppProperties();
+		TrinoMetadataCrawler crawler = new TrinoMetadataCrawler(slowSchemaService(), app, Optional.empty());
+
+		Map<String, List<TableMetadata>> result = crawler.crawl();
+
+		assertEquals(4, bulkRequests.get());
+		// c4 has no bulk columns for s2.t3, which falls back to DESCRIBE
+		assertEquals(1, describeRequests.get());
+		assertEquals("t1_id", result.get("c1").get(0).getColumns().get(0).get("Column"));
+		assertEquals("t3_id", result.get("c4").get(5).getColumns().get(0).get("Column"));
+	}
+
+	@Test
+	void testCrawlSkipsExcludedCatalogsAndSchemas() {
+		AppProperties app = new AppProperties();
+		app.setExcludeCatalogs(List.of("c2"));
+		app.setExcludeSchemas(List.of("s1"));
+		TrinoMetadataCrawler crawler = new TrinoMetadataCrawler(slowSchemaService(), app, Optional.empty());
+
+		Map<String, List<TableMetadata>> result = crawler.crawl();
+
+		assertEquals(List.of("c1", "c3", "c4"), List.copyOf(result.keySet()));
+		assertEquals(List.of("s2.t1", "s2.t2", "s2.t3"),
+				result.get("c1").stream().map(t -> t.getSchema() + "." + t.getTable()).toList());
+		assertEquals(List.of("c1", "c3", "c4"), crawler.includedCatalogs(false));
+
+		app.setExcludeSchemas(null);
+		app.setExcludeCatalogs(null);
+		assertEquals(List.of("c1", "c2", "c3", "c4"), crawler.includedCatalogs(false));
+	}
+
+	@Test
+	void testCrawlPublishesIndex() {
+		TrinoMetadataCrawler crawler = new TrinoMetadataCrawler(slowSchemaService(), new AppProperties(),
+				Optional.empty());
+		assertNull(crawler.getIndex().getCatalogs());
+
+		crawler.crawl();
+
+		MetadataIndex index = crawler.getIndex();
+		assertEquals(List.of("c1", "c2", "c3", "c4"), index.getCatalogs());
+		assertEquals(List.of("s1", "s2"), index.getSchemas("c2"));
+		assertEquals(List.of("t1", "t2", "t3"), index.getTables("c2", "s1"));
+		assertEquals("t2_id", index.getTable("c3", "s2", "t2").getColumns().get(0).get("Column"));
+		assertNull(index.getSchemas("missing"));
+	}
+
+	@Test
+	void testRefreshBypassesCache() {
+		TrinoMetadataCrawler crawler = new TrinoMetadataCrawler(slowSchemaService(), new AppProperties(),
+				Optional.empty());
+
+		Map<String, List<TableMetadata>> crawled = crawler.crawl();
+		assertEquals(0, reloads.get());
+
+		assertEquals(crawled, crawler.refresh());
+		assertEquals(4, reloads.get());
+	}
+
+	private TrinoSchemaService slowSchemaService() {
+		return new TrinoSchemaService(null, null, new GraphQLSchemaFixer(), null) {
+			@Override
+			public List<String> getCatalogs(boolean reload) {
+				return List.of("c1", "c2", "c3", "c4");
+			}
+
+			@Override
+			public List<String> getSchemas(String catalog, boolean reload) {
+				return request(catalog, List.of("s1", "s2"));
+			}
+
+			@Override
+			public List<String> getTables(String catalog, String schema, boolean reload) {
+				return request(catalog, List.of("t1", "t2", "t3"));
+			}
+
+			@Override
+			public List<Map<String, Object>> getColumns(String catalog, String schema, String table, boolean reload) {
+				describeRequests.incrementAndGet();
+				return request(catalog, List.of(Map.of("Column", table + "_id", "Type", "bigint")));
+			}
+
+			@Override
+			public Map<String, Map<String, List<Map<String, Object>>>> getCatalogColumns(String catalog,
+					Map<String, List<String>> tables, boolean reload) {
+				bulkRequests.incrementAndGet();
+				if (reload)
+					reloads.incrementAndGet();
+				Map<String, Map<String, List<Map<String, Object>>>> columns = new HashMap<>();
+				tables.forEach((schema, schemaTables) -> {
+					for (String table : schemaTables) {
+						if (catalog.equals("c4") && schema.equals("s2") && table.equals("t3"))
+							continue;
+						columns.computeIfAbsent(schema, k -> new HashMap<>())
+							.put(table, List.of(Map.of("Column", table + "_id", "Type", "bigint")));
+					}
+				});
+				return request(catalog, columns);
+			}
+		};
+	}
+
+	private <T> T request(String catalog, T result) {
+		AtomicInteger catalogRunning = runningPerCatalog.computeIfAbsent(catalog, k -> new AtomicInteger());
+		maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+		maxRunningPerCatalog.accumulateAndGet(catalogRunning.incrementAndGet(), Math::max);
+		try {
+			Thread.sleep(ThreadLocalRandom.current().nextInt(5, 20));
+			return result;
+		}
+		catch (InterruptedException e) {
+			throw new IllegalStateException(e);
+		}
+		finally {
+			catalogRunning.decrementAndGet();
+			running.decrementAndGet();
+		}
+	}
+
+}
@@ -4,12 +4,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.jdbc.core.JdbcTemplate;
 
-import java.io.ByteArrayOutputStream;
-import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class DefaultJoinDetectorTest {
@@ -18,44 +17,39 @@ class DefaultJoinDetectorTest {
 
 	private DefaultJoinDetector joinDetector;
 
-	private ByteArrayOutputStream outContent;
-
 	@BeforeEach
 	void setUp() {
 		jdbcTemplate = mock(JdbcTemplate.class);
 		joinDetector = spy(new DefaultJoinDetector(jdbcTemplate));
-
-		// Redirect console output
-		outContent = new ByteArrayOutputStream();
-		System.setOut(new PrintStream(outContent));
 	}
 
 	@Test
-	void detect_shouldPrintForeignKeyToPrimaryKeyJoin() {
+	void detect_shouldReturnForeignKeyToPrimaryKeyJoin() {
 		var fk = new JoinDetector.ColumnInfo("cat", "public", "orders", "user_id", "int");
 		var pk = new JoinDetector.ColumnInfo("cat", "public", "users", "id", "int");
 
 		doReturn(List.of(fk, pk)).when(joinDetector).getColumns("cat");
 
-		joinDetector.detect("cat");
+		JoinGraph graph = joinDetector.detect("cat");
 
-		String output = outContent.toString();
-		assertTrue(output.contains("orders.user_id") && output.contains("users.id"),
-				"Should detect and print join between orders.user_id → users.id");
+		assertEquals(List.of(new JoinRelation("cat", "public", "orders", "user_id", "public", "users", "id", false)),
+				graph.getRelations("public", "orders"), "Should detect join between orders.user_id → users.id");
+		assertEquals(List.of(new JoinRelation("cat", "public", "users", "id", "public", "orders", "user_id", true)),
+				graph.getRelations("public", "users"));
 	}
 
 	@Test
-	void detect_shouldPrintJoinOnSameNamedColumnsAcrossTables() {
+	void detect_shouldReturnJoinOnSameNamedColumnsAcrossTables() {
 		var col1 = new JoinDetector.ColumnInfo("cat", "public", "employees", "dept_id", "int");
 		var col2 = new JoinDetector.ColumnInfo("cat", "public", "departments", "dept_id", "int");
 
 		doReturn(List.of(col1, col2)).when(joinDetector).getColumns("cat");
 
-		joinDetector.detect("cat");
+		JoinGraph graph = joinDetector.detect("cat");
 
-		String output = outContent.toString();
-		assertTrue(output.contains("employees.dept_id") && output.contains("departments.dept_id"),
-				"Should detect and print symmetric join on dept_id");
+		assertEquals(2, graph.size(), "Should detect symmetric join on dept_id");
+		assertEquals("departments", graph.getRelations("public", "employees").get(0).getTargetTable());
+		assertEquals("employees", graph.getRelations("public", "departments").get(0).getTargetTable());
 	}
 
 	@Test
@@ -65,28 +59,109 @@ class DefaultJoinDetectorTest {
 
 		doReturn(List.of(col1, col2)).when(joinDetector).getColumns("cat");
 
-		joinDetector.detect("cat");
+		assertSame(JoinGraph.EMPTY, joinDetector.detect("cat"), "Should not detect join between unrelated columns");
+	}
+
+	@Test
+	void detectRelations_shouldReturnForeignKeyAndReverseRelation() {
+		var fk = new JoinDetector.ColumnInfo("cat", "public", "orders", "user_id", "int");
+		var pk = new JoinDetector.ColumnInfo("cat", "public", "users", "id", "int");
+
+		doReturn(List.of(fk, pk)).when(joinDetector).getColumns("cat");
+
+		List<JoinRelation> relations = joinDetector.detectRelations("cat");
 
-		String output = outContent.toString();
-		assertFalse(output.contains("↔") || output.contains("→"), "Should not detect join between unrelated columns");
+		assertTrue(
+				relations
+					.contains(new JoinRelation("cat", "public", "orders", "user_id", "public", "users", "id", false)),
+				"orders.user_id → users.id should be single valued");
+		assertTrue(
+				relations
+					.contains(new JoinRelation("cat", "public", "users", "id", "public", "orders", "user_id", true)),
+				"users.id → orders.user_id should be a list");
 	}
 
 	@Test
-	void isJoinable_shouldHandleNormalizedMatching() {
-		assertTrue(invokeIsJoinable("User_ID", "userId"));
-		assertFalse(invokeIsJoinable("manager", "company_name"));
+	void detectRelations_shouldMatchForeignKeysAcrossSchemasAndSingularTables() {
+		var fk = new JoinDetector.ColumnInfo("cat", "sales", "orders", "Customer_id", "int");
+		var pk = new JoinDetector.ColumnInfo("cat", "crm", "CUSTOMER", "ID", "int");
+
+		doReturn(List.of(fk, pk)).when(joinDetector).getColumns("cat");
+
+		assertEquals(
+				List.of(new JoinRelation("cat", "sales", "orders", "Customer_id", "crm", "CUSTOMER", "ID", false),
+						new JoinRelation("cat", "crm", "CUSTOMER", "ID", "sales", "orders", "Customer_id", true)),
+				joinDetector.detectRelations("cat"));
 	}
 
-	// Helper to invoke private isJoinable method using reflection
-	private boolean invokeIsJoinable(String col1, String col2) {
-		try {
-			var method = DefaultJoinDetector.class.getDeclaredMethod("isJoinable", String.class, String.class);
-			method.setAccessible(true);
-			return (boolean) method.invoke(joinDetector, col1, col2);
-		}
-		catch (Exception e) {
-			throw new RuntimeException("Reflection failed", e);
+	@Test
+	void detectRelations_shouldMatchNormalizedNamesOfOtherTablesOnly() {
+		var col1 = new JoinDetector.ColumnInfo("cat", "public", "users", "UserId", "int");
+		var col2 = new JoinDetector.ColumnInfo("cat", "public", "logins", "user_id", "int");
+		var col3 = new JoinDetector.ColumnInfo("cat", "public", "logins", "USERID", "int");
+
+		doReturn(List.of(col1, col2, col3)).when(joinDetector).getColumns("cat");
+
+		List<JoinRelation> relations = joinDetector.detectRelations("cat");
+
+		assertEquals(4, relations.size());
+		assertTrue(relations.stream().noneMatch(relation -> relation.getTable().equals(relation.getTargetTable())));
+	}
+
+	@Test
+	void detectRelations_shouldIndexLargeCatalogs() {
+		List<JoinDetector.ColumnInfo> columns = new ArrayList<>();
+		for (int schema = 0; schema < 100; schema++) {
+			for (int table = 0; table < 100; table++) {
+				columns.add(new JoinDetector.ColumnInfo("cat", "s" + schema, "t" + table, "id", "int"));
+				for (int column = 0; column < 20; column++)
+					columns.add(new JoinDetector.ColumnInfo("cat", "s" + schema, "t" + table,
+							"c" + schema + "x" + table + "x" + column, "int"));
+			}
+			columns.add(new JoinDetector.ColumnInfo("cat", "s" + schema, "facts", "t" + schema + "_id", "int"));
 		}
+
+		doReturn(columns).when(joinDetector).getColumns("cat");
+
+		List<JoinRelation> relations = assertTimeoutPreemptively(Duration.ofSeconds(10),
+				() -> joinDetector.detectRelations("cat"));
+
+		// Every facts.t<n>_id column matches the id column of table t<n> in every schema,
+		// while id columns are not matched with each other
+		assertEquals(100 * 100 * 2, relations.size());
+	}
+
+	@Test
+	void detectRelations_shouldNotMatchIdColumnsWithEachOther() {
+		var col1 = new JoinDetector.ColumnInfo("cat", "public", "users", "id", "int");
+		var col2 = new JoinDetector.ColumnInfo("cat", "public", "orders", "ID", "int");
+
+		doReturn(List.of(col1, col2)).when(joinDetector).getColumns("cat");
+
+		assertTrue(joinDetector.detectRelations("cat").isEmpty());
+	}
+
+	@Test
+	void detectRelations_shouldSkipUbiquitousColumnNames() {
+		List<JoinDetector.ColumnInfo> columns = new ArrayList<>();
+		for (int table = 0; table < 50; table++)
+			columns.add(new JoinDetector.ColumnInfo("cat", "public", "t" + table, "created_by", "int"));
+		for (int table = 0; table < JoinDetector.MAX_SAME_NAME_TABLES; table++)
+			columns.add(new JoinDetector.ColumnInfo("cat", "public", "t" + table, "tenant_key", "int"));
+
+		doReturn(columns).when(joinDetector).getColumns("cat");
+
+		List<JoinRelation> relations = joinDetector.detectRelations("cat");
+
+		// created_by is in too many tables to be a key; tenant_key relates every pair
+		assertTrue(relations.stream().noneMatch(relation -> relation.getColumn().equals("created_by")));
+		assertEquals(JoinDetector.MAX_SAME_NAME_TABLES * (JoinDetector.MAX_SAME_NAME_TABLES - 1), relations.size());
+	}
+
+	@Test
+	void normalize_shouldIgnoreUnderscoresAndCase() {
+		assertEquals(JoinDetector.normalize("User_ID"), JoinDetector.normalize("userId"));
+		assertNotEquals(JoinDetector.normalize("manager"), JoinDetector.normalize("company_name"));
 	}
 
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data.relations;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * @author Ivan Rodriguez
+ */
+class JoinGraphTest {
+
+	private static final JoinRelation ORDERS_TO_USERS = new JoinRelation("cat", "sales", "orders", "user_id", "crm",
+			"users", "id", false);
+
+	private static final JoinRelation USERS_TO_ORDERS = new JoinRelation("cat", "crm", "users", "id", "sales", "orders",
+			"user_id", true);
+
+	@Test
+	void indexesRelationsBySourceTable() {
+		JoinGraph graph = JoinGraph.of(List.of(ORDERS_TO_USERS, USERS_TO_ORDERS));
+
+		assertEquals(2, graph.size());
+		assertEquals(List.of(ORDERS_TO_USERS, USERS_TO_ORDERS), graph.getRelations());
+		assertEquals(List.of(ORDERS_TO_USERS), graph.getRelations("sales", "orders"));
+		assertEquals(List.of(USERS_TO_ORDERS), graph.getRelations("crm", "users"));
+		assertEquals(List.of(), graph.getRelations("crm", "orders"));
+		assertEquals(Set.of("sales.orders", "crm.users"), graph.getTables());
+	}
+
+	@Test
+	void emptyGraphIsShared() {
+		assertSame(JoinGraph.EMPTY, JoinGraph.of(List.of()));
+		assertEquals(0, JoinGraph.EMPTY.getTables().size());
+	}
+
+	@Test
+	void mapConvertsEveryName() {
+		JoinGraph graph = JoinGraph.of(List.of(ORDERS_TO_USERS)).map(String::toUpperCase);
+
+		assertEquals(List.of(new JoinRelation("CAT", "SALES", "ORDERS", "USER_ID", "CRM", "USERS", "ID", false)),
+				graph.getRelations("SALES", "ORDERS"));
+	}
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.data.relations;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Ivan Rodriguez
+ */
+class RelationJoinPlanTest {
+
+	private static final JoinRelation ORDERS = new JoinRelation("tpch", "tiny", "customer", "custkey", "tiny", "orders",
+			"custkey", true);
+
+	private static final JoinRelation NATION = new JoinRelation("tpch", "tiny", "customer", "nationkey", "tiny",
+			"nation", "nationkey", false);
+
+	@Test
+	void joinsOtherListOnlyForAnotherListRelation() {
+		RelationJoinPlan plan = RelationJoinPlan.root();
+		plan.child("nation_by_nationkey", NATION);
+		assertFalse(plan.joinsOtherList("orders_by_custkey"));
+
+		plan.child("orders_by_custkey", ORDERS);
+		// The same field selected again is joined once
+		assertFalse(plan.joinsOtherList("orders_by_custkey"));
+		assertTrue(plan.joinsOtherList("lineitems_by_custkey"));
+	}
+
+}
@@ -7,6 +7,8 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 class SameSchemaJoinDetectorTest {
@@ -28,10 +30,14 @@ class SameSchemaJoinDetectorTest {
 
 		doReturn(Arrays.asList(col1, col2)).when(joinDetector).getColumns("catalog");
 
-		List<String> result = joinDetector.detect("catalog");
+		JoinGraph result = joinDetector.detect("catalog");
 
 		// Verifying getColumns was called
 		verify(joinDetector).getColumns("catalog");
+		assertEquals(
+				List.of(new JoinRelation("catalog", "public", "orders", "user_id", "public", "users", "user_id", true),
+						new JoinRelation("catalog", "public", "users", "user_id", "public", "orders", "user_id", true)),
+				result.getRelations());
 	}
 
 	@Test
@@ -42,10 +48,11 @@ class SameSchemaJoinDetectorTest {
 
 		doReturn(Arrays.asList(col1, col2)).when(joinDetector).getColumns("catalog");
 
-		List<String> result = joinDetector.detect("catalog");
+		JoinGraph result = joinDetector.detect("catalog");
 
 		// These are from different schemas, so no join should be detected
 		verify(joinDetector).getColumns("catalog");
+		assertEquals(0, result.size());
 	}
 
 	@Test
@@ -55,20 +62,36 @@ class SameSchemaJoinDetectorTest {
 
 		doReturn(Arrays.asList(col1, col2)).when(joinDetector).getColumns("catalog");
 
-		List<String> result = joinDetector.detect("catalog");
+		JoinGraph result = joinDetector.detect("catalog");
 
 		verify(joinDetector).getColumns("catalog");
+		assertEquals(2, result.size());
+		assertTrue(result.getTables().containsAll(List.of("data.table1", "data.table2")));
 	}
 
 	@Test
-	void isJoinable_shouldReturnTrueForExactNormalizedMatch() {
-		boolean result = joinDetector.isJoinable("user_id", "User_ID");
+	void detectRelations_shouldKeepSchemaOrder() {
+		JoinDetector.ColumnInfo a1 = new JoinDetector.ColumnInfo("catalog", "a", "t1", "key", "int");
+		JoinDetector.ColumnInfo a2 = new JoinDetector.ColumnInfo("catalog", "a", "t2", "key", "int");
+		JoinDetector.ColumnInfo b1 = new JoinDetector.ColumnInfo("catalog", "b", "t1", "key", "int");
+		JoinDetector.ColumnInfo b2 = new JoinDetector.ColumnInfo("catalog", "b", "t2", "key", "int");
+
+		doReturn(Arrays.asList(a1, a2, b1, b2)).when(joinDetector).getColumns("catalog");
+
+		List<String> schemas = joinDetector.detectRelations("catalog").stream().map(JoinRelation::getSchema).toList();
+
+		assertEquals(List.of("a", "a", "b", "b"), schemas);
+	}
+
+	@Test
+	void normalize_shouldMatchExactNormalizedNames() {
+		boolean result = JoinDetector.normalize("user_id").equals(JoinDetector.normalize("User_ID"));
 		assert result;
 	}
 
 	@Test
-	void isJoinable_shouldReturnFalseForDifferentColumns() {
-		boolean result = joinDetector.isJoinable("manager", "company_name");
+	void normalize_shouldNotMatchDifferentColumns() {
+		boolean result = JoinDetector.normalize("manager").equals(JoinDetector.normalize("company_name"));
 		assert !result;
 	}
 
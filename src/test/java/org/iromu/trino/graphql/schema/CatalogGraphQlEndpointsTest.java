@@ -0,0 +1,134 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.schema;
+
+import graphql.schema.GraphQLObjectType;
+import org.iromu.trino.graphql.AppProperties;
+import org.iromu.trino.graphql.data.LiveQueryService;
+import org.iromu.trino.graphql.data.metadata.TrinoMetadataCrawler;
+import org.iromu.trino.graphql.data.relations.RelationDataLoader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.GraphQlTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Ivan Rodriguez
+ */
+@GraphQlTest(properties = { "app.catalog-endpoints=true", "spring.graphql.path=/api" })
+@Import({ GraphQLConfig.class, GraphQLDynamicSchemaService.class, GraphQLSchemaFixer.class, AppProperties.class,
+		RelationDataLoader.class, LiveQueryService.class, TrinoMetadataCrawler.class, GraphQLSchemaRefresher.class,
+		CatalogGraphQlEndpoints.class, GraphQLDynamicSchemaTest.TestTrinoSchemaConfiguration.class,
+		CatalogGraphQlEndpointsTest.RecordingInterceptor.class })
+class CatalogGraphQlEndpointsTest {
+
+	@Autowired
+	private CatalogGraphQlEndpoints endpoints;
+
+	@Autowired
+	private RecordingInterceptor interceptor;
+
+	private WebTestClient client;
+
+	@BeforeEach
+	void setUp() {
+		client = WebTestClient.bindToRouterFunction(endpoints.catalogGraphQlRoutes()).build();
+	}
+
+	@Test
+	void testCatalogEndpointOnlyServesItsCatalog() {
+		client.post()
+			.uri("/api/hive")
+			.contentType(MediaType.APPLICATION_JSON)
+			.bodyValue(Map.of("query", "{ hive_sales_orders(limit: 1) { order_id } }"))
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectBody()
+			.jsonPath("$.data.hive_sales_orders[0].order_id")
+			.isEqualTo(1);
+
+		GraphQLObjectType query = endpoints.getGraphQlSource("hive").schema().getQueryType();
+		assertNotNull(query.getFieldDefinition("hive_default_orders"));
+		assertNull(query.getFieldDefinition("mysql_sales_orders"));
+		assertNull(endpoints.getGraphQlSource("mysql"));
+		assertTrue(interceptor.sources.contains(endpoints.getGraphQlSource("hive")));
+	}
+
+	@Test
+	void testRefreshWithoutChangesKeepsVersion() {
+		client.post()
+			.uri("/api/mysql")
+			.contentType(MediaType.APPLICATION_JSON)
+			.bodyValue(Map.of("query", "{ catalogs }"))
+			.exchange()
+			.expectStatus()
+			.isOk();
+
+		client.post()
+			.uri("/api/mysql/refresh")
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectBody()
+			.jsonPath("$.version")
+			.isEqualTo(1);
+	}
+
+	@Test
+	void testUnknownCatalogIsNotFound() {
+		client.post()
+			.uri("/api/postgres")
+			.contentType(MediaType.APPLICATION_JSON)
+			.bodyValue(Map.of("query", "{ catalogs }"))
+			.exchange()
+			.expectStatus()
+			.isNotFound();
+		client.post().uri("/api/postgres/refresh").exchange().expectStatus().isNotFound();
+	}
+
+	/**
+	 * Records the source of the catalog requests it intercepts.
+	 */
+	static class RecordingInterceptor implements WebGraphQlInterceptor {
+
+		private final List<Object> sources = new CopyOnWriteArrayList<>();
+
+		@Override
+		public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+			sources.add(request.getAttributes().get(CatalogGraphQlEndpoints.GRAPHQL_SOURCE_ATTRIBUTE));
+			return chain.next(request);
+		}
+
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.schema;
+
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLNamedType;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+import org.iromu.trino.graphql.AppProperties;
+import org.iromu.trino.graphql.data.LiveQueryService;
+import org.iromu.trino.graphql.data.metadata.TrinoMetadataCrawler;
+import org.iromu.trino.graphql.data.relations.RelationDataLoader;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.GraphQlTest;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.execution.GraphQlSource;
+import org.springframework.graphql.test.tester.GraphQlTester;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author Ivan Rodriguez
+ */
+@AutoConfigureGraphQlTester
+@GraphQlTest(properties = { "app.shared-table-types=true", "app.aggregate-fields=true", "app.live-subscriptions=true" })
+@Import({ GraphQLConfig.class, GraphQLDynamicSchemaService.class, GraphQLSchemaFixer.class, AppProperties.class,
+		RelationDataLoader.class, LiveQueryService.class, TrinoMetadataCrawler.class, GraphQLSchemaRefresher.class,
+		GraphQLDynamicSchemaTest.TestTrinoSchemaConfiguration.class })
+class GraphQLDynamicSchemaSharedTypesTest {
+
+	@Autowired
+	private GraphQlTester graphQlTester;
+
+	@Autowired
+	private GraphQlSource graphQlSource;
+
+	@Test
+	void testIdenticalTablesShareOneType() {
+		GraphQLSchema schema = graphQlSource.schema();
+		GraphQLObjectType query = schema.getQueryType();
+
+		Set<String> typeNames = List
+			.of("hive_default_orders", "hive_sales_orders", "mysql_default_orders", "mysql_sales_orders")
+			.stream()
+			.map(field -> ((GraphQLNamedType) ((GraphQLList) query.getFieldDefinition(field).getType())
+				.getWrappedType()).getName())
+			.collect(Collectors.toSet());
+
+		assertEquals(1, typeNames.size());
+		assertEquals(1,
+				schema.getAllTypesAsList().stream().filter(type -> type.getName().endsWith("_aggregate")).count());
+		assertNull(schema.getType("hive_sales_orders"));
+	}
+
+	@Test
+	void testQuerySharedType() {
+		graphQlTester.document("{ mysql_sales_orders(limit: 1) { order_id status } }")
+			.execute()
+			.path("data.mysql_sales_orders[0].status")
+			.entity(String.class)
+			.isEqualTo("Completed");
+	}
+
+}
@@ -17,8 +17,13 @@
 package org.iromu.trino.graphql.schema;
 
 import org.iromu.trino.graphql.AppProperties;
+import org.iromu.trino.graphql.data.ApproximateAggregate;
+import org.iromu.trino.graphql.data.LiveQueryService;
 import org.iromu.trino.graphql.data.TrinoQueryService;
 import org.iromu.trino.graphql.data.TrinoSchemaService;
+import org.iromu.trino.graphql.data.metadata.TrinoMetadataCrawler;
+import org.iromu.trino.graphql.data.relations.JoinRelation;
+import org.iromu.trino.graphql.data.relations.RelationDataLoader;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.graphql.GraphQlTest;
@@ -28,21 +33,35 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Primary;
 import org.springframework.graphql.test.tester.GraphQlTester;
+import reactor.test.StepVerifier;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * @author Ivan Rodriguez
  */
 @AutoConfigureGraphQlTester
-@GraphQlTest
-@Import({ GraphQLConfig.class, GraphQLDynamicSchemaService.class, GraphQLSchemaFixer.class, AppProperties.class })
+@GraphQlTest(properties = { "app.relation-fields=true", "app.aggregate-fields=true", "app.live-subscriptions=true" })
+@Import({ GraphQLConfig.class, GraphQLDynamicSchemaService.class, GraphQLSchemaFixer.class, AppProperties.class,
+		RelationDataLoader.class, LiveQueryService.class, TrinoMetadataCrawler.class, GraphQLSchemaRefresher.class })
 public class GraphQLDynamicSchemaTest {
 
+	private static final AtomicInteger KEY_QUERIES = new AtomicInteger();
+
 	@Autowired
 	private GraphQlTester graphQlTester;
 
+	@Autowired
+	private GraphQLDynamicSchemaService schemaService;
+
 	@Test
 	void testQueryTableData() {
 		String query = """
@@ -77,34 +96,166 @@ public class GraphQLDynamicSchemaTest {
 			.isEqualTo("Pending");
 	}
 
+	@Test
+	void testQueryRelationIsBatched() {
+		String query = """
+				    query {
+				        hive_sales_orders(limit: 2) {
+				            order_id
+				            default_orders_by_order_id {
+				                status
+				            }
+				        }
+				    }
+				""";
+
+		int before = KEY_QUERIES.get();
+		graphQlTester.document(query)
+			.execute()
+			.path("data.hive_sales_orders[0].default_orders_by_order_id[0].status")
+			.entity(String.class)
+			.isEqualTo("Archived #1")
+			.path("data.hive_sales_orders[1].default_orders_by_order_id[0].status")
+			.entity(String.class)
+			.isEqualTo("Archived #2");
+		assertEquals(1, KEY_QUERIES.get() - before, "Both parent rows should be resolved with a single query");
+	}
+
+	@Test
+	void testQueryApproximateAggregates() {
+		String query = """
+				    query {
+				        hive_sales_orders_aggregate {
+				            approx_distinct {
+				                status
+				            }
+				            approx_percentile {
+				                p50: amount(percentage: 0.5)
+				                p99: amount(percentage: 0.99)
+				            }
+				            approx_most_frequent {
+				                status(buckets: 3) { key value }
+				            }
+				        }
+				    }
+				""";
+
+		graphQlTester.document(query)
+			.execute()
+			.path("data.hive_sales_orders_aggregate.approx_distinct.status")
+			.entity(Long.class)
+			.isEqualTo(6L)
+			.path("data.hive_sales_orders_aggregate.approx_percentile.p50")
+			.entity(Double.class)
+			.isEqualTo(0.5)
+			.path("data.hive_sales_orders_aggregate.approx_percentile.p99")
+			.entity(Double.class)
+			.isEqualTo(0.99)
+			.path("data.hive_sales_orders_aggregate.approx_most_frequent.status[0].key")
+			.entity(String.class)
+			.isEqualTo("status")
+			.path("data.hive_sales_orders_aggregate.approx_most_frequent.status[0].value")
+			.entity(Long.class)
+			.isEqualTo(3L);
+	}
+
+	@Test
+	void testLiveSubscriptionEmitsInitialRowsAsInserts() {
+		String subscription = """
+				    subscription {
+				        hive_sales_orders_live(key: ["order_id"]) {
+				            operation
+				            row {
+				                order_id
+				                status
+				            }
+				        }
+				    }
+				""";
+
+		StepVerifier.create(graphQlTester.document(subscription).executeSubscription().toFlux())
+			.assertNext(response -> response.path("hive_sales_orders_live[0].operation")
+				.entity(String.class)
+				.isEqualTo("INSERT")
+				.path("hive_sales_orders_live[1].row.status")
+				.entity(String.class)
+				.isEqualTo("Pending"))
+			.thenCancel()
+			.verify();
+	}
+
+	@Test
+	void testLiveSubscriptionRejectsUnknownKeyColumn() {
+		String subscription = """
+				    subscription {
+				        hive_sales_orders_live(key: ["missing"]) {
+				            operation
+				        }
+				    }
+				""";
+
+		graphQlTester.document(subscription).execute().errors().satisfy(errors -> assertEquals(1, errors.size()));
+	}
+
+	@Test
+	void testOrderableTypes() {
+		assertTrue(GraphQLDynamicSchemaService.isOrderable("bigint"));
+		assertTrue(GraphQLDynamicSchemaService.isOrderable("array(row(id bigint, name varchar))"));
+		assertFalse(GraphQLDynamicSchemaService.isOrderable("map(varchar, bigint)"));
+		assertFalse(GraphQLDynamicSchemaService.isOrderable("row(tags map(varchar, varchar))"));
+		assertFalse(GraphQLDynamicSchemaService.isOrderable("json"));
+	}
+
+	@Test
+	void testRefreshWithoutChangesReusesTypes() {
+		assertTrue(schemaService.refreshSchema().isEmpty());
+	}
+
 	@TestConfiguration
 	static class TestTrinoSchemaConfiguration {
 
 		@Bean
 		@Primary
 		public TrinoSchemaService testTrinoSchemaService() {
-			return new TrinoSchemaService(null, null, null, new GraphQLSchemaFixer(), null) {
+			return new TrinoSchemaService(null, null, new GraphQLSchemaFixer(), null) {
 				@Override
-				public List<String> getCatalogs() {
+				public List<String> getCatalogs(boolean reload) {
 					return List.of("hive", "mysql");
 				}
 
 				@Override
-				public List<String> getSchemas(String catalog) {
+				public List<String> getSchemas(String catalog, boolean reload) {
 					return List.of("default", "sales");
 				}
 
 				@Override
-				public List<String> getTables(String catalog, String schema) {
+				public List<String> getTables(String catalog, String schema, boolean reload) {
 					return List.of("orders");
 				}
 
 				@Override
-				public List<Map<String, Object>> getColumns(String catalog, String schema, String table) {
+				public List<Map<String, Object>> getColumns(String catalog, String schema, String table,
+						boolean reload) {
 					return List.of(Map.of("Column", "order_id", "Type", "integer"),
 							Map.of("Column", "amount", "Type", "double"),
 							Map.of("Column", "status", "Type", "varchar"));
 				}
+
+				@Override
+				public Map<String, Map<String, List<Map<String, Object>>>> getCatalogColumns(String catalog,
+						Map<String, List<String>> tables, boolean reload) {
+					Map<String, Map<String, List<Map<String, Object>>>> columns = new HashMap<>();
+					tables.forEach((schema, schemaTables) -> schemaTables
+						.forEach(table -> columns.computeIfAbsent(schema, k -> new HashMap<>())
+							.put(table, getColumns(catalog, schema, table))));
+					return columns;
+				}
+
+				@Override
+				public List<JoinRelation> getJoins(String catalog, boolean reload) {
+					return List.of(new JoinRelation(catalog, "sales", "orders", "order_id", "default", "orders",
+							"order_id", true));
+				}
 			};
 		}
 
@@ -115,11 +266,44 @@ public class GraphQLDynamicSchemaTest {
 
 				@Override
 				public List<Map<String, Object>> queryTableWithFilters(String catalog, String schema, String table,
-						int limit, List<Map<String, Object>> filters) {
+						int limit, List<Map<String, Object>> filters, Map<String, Object> sample) {
 					return List.of(Map.of("order_id", 1, "amount", 100.0, "status", "Completed"),
 							Map.of("order_id", 2, "amount", 50.0, "status", "Pending"));
 				}
 
+				@Override
+				public List<Map<String, Object>> queryTableOrdered(String catalog, String schema, String table,
+						int limit, List<Map<String, Object>> filters, List<String> orderBy) {
+					return queryTableWithFilters(catalog, schema, table, limit, filters, null);
+				}
+
+				@Override
+				public Map<String, Object> queryApproximateAggregates(String catalog, String schema, String table,
+						List<ApproximateAggregate> aggregates, List<Map<String, Object>> filters,
+						Map<String, Object> sample) {
+					Map<String, Object> result = new HashMap<>();
+					for (ApproximateAggregate aggregate : aggregates) {
+						// Echo the percentage back for percentiles, the column name
+						// length for distinct counts and the buckets as counts
+						result.put(aggregate.getAlias(), switch (aggregate.getFunction()) {
+							case APPROX_PERCENTILE -> aggregate.getParameter();
+							case APPROX_DISTINCT -> (long) aggregate.getColumn().length();
+							case APPROX_MOST_FREQUENT ->
+								Map.of(aggregate.getColumn(), aggregate.getParameter().longValue());
+						});
+					}
+					return result;
+				}
+
+				@Override
+				public List<Map<String, Object>> queryTableByKeys(String catalog, String schema, String table,
+						String column, Collection<?> keys) {
+					KEY_QUERIES.incrementAndGet();
+					return keys.stream()
+						.map(key -> Map.<String, Object>of("order_id", key, "status", "Archived #" + key))
+						.toList();
+				}
+
 			};
 		}
 
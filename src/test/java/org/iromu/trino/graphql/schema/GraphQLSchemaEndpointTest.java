@@ -25,8 +25,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.graphql.execution.GraphQlSource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -43,13 +51,18 @@ class GraphQLSchemaEndpointTest {
 	private WebTestClient webTestClient;
 
 	@MockBean
-	private GraphQLSchema graphQLSchema;
+	private GraphQlSource graphQlSource;
+
+	@MockBean
+	private GraphQLSchemaRefresher refresher;
 
 	@BeforeEach
 	void setup() {
 		// Prevent NPE by mocking getCodeRegistry()
+		GraphQLSchema graphQLSchema = mock(GraphQLSchema.class);
 		GraphQLCodeRegistry codeRegistry = mock(GraphQLCodeRegistry.class);
 		when(graphQLSchema.getCodeRegistry()).thenReturn(codeRegistry);
+		when(graphQlSource.schema()).thenReturn(graphQLSchema);
 	}
 
 	@Test
@@ -72,4 +85,90 @@ class GraphQLSchemaEndpointTest {
 			});
 	}
 
+	@Test
+	void testGetSchemaNotModified() {
+		String etag = webTestClient.get()
+			.uri("/schema.graphqls")
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.returnResult(String.class)
+			.getResponseHeaders()
+			.getETag();
+		assertNotNull(etag);
+
+		webTestClient.get()
+			.uri("/schema.graphqls")
+			.header(HttpHeaders.IF_NONE_MATCH, etag)
+			.exchange()
+			.expectStatus()
+			.isNotModified();
+	}
+
+	@Test
+	void testGetSchemaGzip() throws Exception {
+		String plain = webTestClient.get()
+			.uri("/schema.graphqls")
+			.exchange()
+			.expectBody(String.class)
+			.returnResult()
+			.getResponseBody();
+
+		byte[] compressed = webTestClient.get()
+			.uri("/schema.graphqls")
+			.header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectHeader()
+			.valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+			.expectBody(byte[].class)
+			.returnResult()
+			.getResponseBody();
+
+		assertNotNull(compressed);
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			assertEquals(plain, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	void testAcceptsGzipHonoursQualityValues() {
+		assertTrue(GraphQLSchemaEndpoint.acceptsGzip("gzip, deflate"));
+		assertTrue(GraphQLSchemaEndpoint.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+		assertTrue(GraphQLSchemaEndpoint.acceptsGzip("*"));
+		assertFalse(GraphQLSchemaEndpoint.acceptsGzip(null));
+		assertFalse(GraphQLSchemaEndpoint.acceptsGzip("gzip;q=0"));
+		assertFalse(GraphQLSchemaEndpoint.acceptsGzip("deflate, gzip; q=0.000"));
+		assertFalse(GraphQLSchemaEndpoint.acceptsGzip("*, gzip;q=0"));
+		assertFalse(GraphQLSchemaEndpoint.acceptsGzip("br, *;q=0"));
+		assertFalse(GraphQLSchemaEndpoint.acceptsGzip("nogzip"));
+	}
+
+	@Test
+	void testGetSchemaWithoutGzipWhenRefused() {
+		webTestClient.get()
+			.uri("/schema.graphqls")
+			.header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity")
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectHeader()
+			.doesNotExist(HttpHeaders.CONTENT_ENCODING);
+	}
+
+	@Test
+	void testRefreshSchema() {
+		when(refresher.refresh()).thenReturn(2L);
+
+		webTestClient.post()
+			.uri("/schema/refresh")
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectBody()
+			.jsonPath("$.version")
+			.isEqualTo(2);
+	}
+
 }
@@ -16,10 +16,13 @@
 
 package org.iromu.trino.graphql.schema;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 /**
  * @author Ivan Rodriguez
@@ -59,4 +62,49 @@ class GraphQLSchemaFixerTest {
 		assertEquals(input, restored);
 	}
 
+	@ParameterizedTest(name = "[{index}] valid: \"{0}\"")
+	@ValueSource(strings = { "validName", "_valid123", "1name", "name@field", "", "a-b", "ççç", "🚀Rocket" })
+	void isValidNameMatchesPattern(String name) {
+		assertEquals(GraphQLSchemaFixer.VALID_CHAR_PATTERN.matcher(name).matches(),
+				GraphQLSchemaFixer.isValidName(name));
+	}
+
+	@Test
+	void validNamesAreReturnedAsTheyAre() {
+		String name = "orders_2024";
+		assertSame(name, fixer.sanitizeSchema(name));
+		assertSame(name, fixer.restoreSanitizedSchema(name));
+	}
+
+	@ParameterizedTest(name = "[{index}] restore: \"{0}\"")
+	@CsvSource({ "_U12_, _U12_", "_U1234567_, _U1234567_", "_U110000_, _U110000_", "a_U_U0041_, a_UA",
+			"_U0041__U0042_, AB", "_UZZZZ_, _UZZZZ_" })
+	void restoresOnlyWellFormedEscapes(String sanitized, String expectedRestored) {
+		assertEquals(expectedRestored, fixer.restoreSanitizedSchema(sanitized));
+	}
+
+	@Test
+	void memoizedNamesGiveTheSameResult() {
+		String encoded = fixer.sanitizeSchema("user-name");
+		assertSame(encoded, fixer.sanitizeSchema("user-name"));
+		assertSame(fixer.restoreSanitizedSchema(encoded), fixer.restoreSanitizedSchema(encoded));
+		assertEquals("user-name", fixer.restoreSanitizedSchema(encoded));
+	}
+
+	@Test
+	void namesHoldingEscapesAreRestoredAsDecoded() {
+		// The literal escape is decoded, whether or not the name was sanitized before
+		String encoded = fixer.sanitizeSchema("a_U0041_-b");
+		assertEquals("a_U0041__U002D_b", encoded);
+		assertEquals("aA-b", fixer.restoreSanitizedSchema(encoded));
+	}
+
+	@Test
+	void memoIsBounded() {
+		for (int i = 0; i < GraphQLSchemaFixer.MAX_MEMO_ENTRIES * 2; i++) {
+			String name = "col-" + i;
+			assertEquals(name, fixer.restoreSanitizedSchema(fixer.sanitizeSchema(name)));
+		}
+	}
+
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.schema;
+
+import graphql.GraphQL;
+import graphql.Scalars;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+import org.iromu.trino.graphql.AppProperties;
+import org.iromu.trino.graphql.data.TrinoSchemaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.graphql.execution.GraphQlSource;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Ivan Rodriguez
+ */
+class GraphQLSchemaRefresherTest {
+
+	private final GraphQLDynamicSchemaService schemaService = mock(GraphQLDynamicSchemaService.class);
+
+	private final TrinoSchemaService trinoSchemaService = mock(TrinoSchemaService.class);
+
+	private final ReloadableGraphQlSource graphQlSource = new ReloadableGraphQlSource(
+			schema -> GraphQlSource.builder(schema).build(), schema("catalogs", "hive_sales_orders"));
+
+	private final GraphQLSchemaRefresher refresher = new GraphQLSchemaRefresher(graphQlSource, schemaService,
+			trinoSchemaService, new AppProperties());
+
+	@Test
+	void testRefreshSwapsSchema() {
+		GraphQL before = graphQlSource.graphQl();
+		when(schemaService.refreshSchema())
+			.thenReturn(Optional.of(schema("catalogs", "hive_sales_orders", "hive_sales_items")));
+
+		assertEquals(2, refresher.refresh());
+
+		assertNotNull(graphQlSource.schema().getQueryType().getFieldDefinition("hive_sales_items"));
+		assertNotSame(before, graphQlSource.graphQl());
+		// Requests holding the previous instance keep their schema
+		assertNotNull(before.getGraphQLSchema().getQueryType().getFieldDefinition("hive_sales_orders"));
+	}
+
+	@Test
+	void testRefreshWithoutTablesKeepsSchema() {
+		GraphQLSchema current = graphQlSource.schema();
+		when(schemaService.refreshSchema()).thenReturn(Optional.of(schema("catalogs")));
+
+		assertEquals(1, refresher.refresh());
+
+		assertSame(current, graphQlSource.schema());
+	}
+
+	@Test
+	void testRefreshWithoutChangesKeepsSchema() {
+		GraphQLSchema current = graphQlSource.schema();
+		when(schemaService.refreshSchema()).thenReturn(Optional.empty());
+
+		assertEquals(1, refresher.refresh());
+
+		verify(schemaService).refreshSchema();
+		assertSame(current, graphQlSource.schema());
+	}
+
+	@Test
+	void testRepairRebuildsSchemaFromCache() {
+		when(trinoSchemaService.repairFailedLookups()).thenReturn(0, 1);
+		when(schemaService.generateSchema()).thenReturn(schema("catalogs", "hive_sales_orders", "hive_sales_items"));
+
+		assertEquals(1, refresher.repair());
+		verify(schemaService, never()).generateSchema();
+
+		assertEquals(2, refresher.repair());
+		assertNotNull(graphQlSource.schema().getQueryType().getFieldDefinition("hive_sales_items"));
+	}
+
+	@Test
+	void testStartFromSnapshotRefreshesInBackground() {
+		GraphQLDynamicSchemaService snapshotService = mock(GraphQLDynamicSchemaService.class);
+		when(snapshotService.isStartedFromSnapshot()).thenReturn(true);
+		when(snapshotService.refreshSchema())
+			.thenReturn(Optional.of(schema("catalogs", "hive_sales_orders", "hive_sales_items")));
+
+		GraphQLSchemaRefresher reconciling = new GraphQLSchemaRefresher(graphQlSource, snapshotService,
+				trinoSchemaService, new AppProperties());
+		try {
+			verify(snapshotService, timeout(5000)).refreshSchema();
+		}
+		finally {
+			reconciling.destroy();
+		}
+	}
+
+	private static GraphQLSchema schema(String... fields) {
+		GraphQLObjectType.Builder query = GraphQLObjectType.newObject().name("Query");
+		for (String field : fields) {
+			query.field(GraphQLFieldDefinition.newFieldDefinition().name(field).type(Scalars.GraphQLString));
+		}
+		return GraphQLSchema.newSchema().query(query).build();
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.schema;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.schema.GraphQLSchema;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.graphql.execution.GraphQlSource;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.support.DefaultExecutionGraphQlResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Ivan Rodriguez
+ */
+class IntrospectionCacheInterceptorTest {
+
+	private static final String INTROSPECTION = "query IntrospectionQuery { __schema { types { name } } }";
+
+	private final GraphQlSource graphQlSource = mock(GraphQlSource.class);
+
+	private final IntrospectionCacheInterceptor interceptor = new IntrospectionCacheInterceptor(graphQlSource);
+
+	private final AtomicInteger executions = new AtomicInteger();
+
+	private final WebGraphQlInterceptor.Chain chain = request -> {
+		executions.incrementAndGet();
+		ExecutionResult result = ExecutionResultImpl.newExecutionResult()
+			.data(Map.of("__schema", Map.of("types", executions.get())))
+			.build();
+		return Mono.just(new WebGraphQlResponse(new DefaultExecutionGraphQlResponse(
+				ExecutionInput.newExecutionInput(request.getDocument()).build(), result)));
+	};
+
+	@BeforeEach
+	void setUp() {
+		when(graphQlSource.schema()).thenReturn(mock(GraphQLSchema.class));
+	}
+
+	@Test
+	void testIntrospectionIsExecutedOncePerSchema() {
+		WebGraphQlRequest request = request(INTROSPECTION);
+
+		assertEquals(Map.of("types", 1), data(request));
+		assertEquals(Map.of("types", 1), data(request));
+		assertEquals(1, executions.get());
+
+		// A new schema starts a new cache
+		when(graphQlSource.schema()).thenReturn(mock(GraphQLSchema.class));
+		assertEquals(Map.of("types", 2), data(request));
+		assertEquals(2, executions.get());
+	}
+
+	@Test
+	void testOtherQueriesAreNotCached() {
+		WebGraphQlRequest request = request("{ catalogs __schema { types { name } } }");
+
+		interceptor.intercept(request, chain).block();
+		interceptor.intercept(request, chain).block();
+
+		assertEquals(2, executions.get());
+	}
+
+	@Test
+	void testIsIntrospection() {
+		assertTrue(IntrospectionCacheInterceptor.isIntrospection(INTROSPECTION, null));
+		assertTrue(
+				IntrospectionCacheInterceptor.isIntrospection("{ __type(name: \"Query\") { name } __typename }", null));
+		assertTrue(IntrospectionCacheInterceptor
+			.isIntrospection("query A { __schema { description } } query B { catalogs }", "A"));
+		assertFalse(IntrospectionCacheInterceptor
+			.isIntrospection("query A { __schema { description } } query B { catalogs }", "B"));
+		assertFalse(IntrospectionCacheInterceptor.isIntrospection("subscription { __typename }", null));
+		assertFalse(IntrospectionCacheInterceptor.isIntrospection("{ __schema", null));
+	}
+
+	private Object data(WebGraphQlRequest request) {
+		Map<String, Object> data = interceptor.intercept(request, chain).block().getData();
+		return data.get("__schema");
+	}
+
+	private static WebGraphQlRequest request(String document) {
+		WebGraphQlRequest request = mock(WebGraphQlRequest.class);
+		when(request.getDocument()).thenReturn(document);
+		when(request.getVariables()).thenReturn(Map.of());
+		return request;
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iromu.trino.graphql.schema;
+
+import graphql.schema.GraphQLObjectType;
+import org.iromu.trino.graphql.AppProperties;
+import org.iromu.trino.graphql.data.LiveQueryService;
+import org.iromu.trino.graphql.data.metadata.TrinoMetadataCrawler;
+import org.iromu.trino.graphql.data.relations.RelationDataLoader;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.GraphQlTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Ivan Rodriguez
+ */
+@GraphQlTest(properties = "app.lazy-catalogs=true")
+@Import({ GraphQLConfig.class, GraphQLDynamicSchemaService.class, GraphQLSchemaFixer.class, AppProperties.class,
+		RelationDataLoader.class, LiveQueryService.class, TrinoMetadataCrawler.class, GraphQLSchemaRefresher.class,
+		LazyCatalogInterceptor.class, GraphQLDynamicSchemaTest.TestTrinoSchemaConfiguration.class })
+class LazyCatalogInterceptorTest {
+
+	@Autowired
+	private LazyCatalogInterceptor interceptor;
+
+	@Autowired
+	private ReloadableGraphQlSource graphQlSource;
+
+	@Autowired
+	private GraphQLDynamicSchemaService schemaService;
+
+	@Test
+	void testCatalogIsMaterializedOnFirstUse() {
+		GraphQLObjectType query = graphQlSource.schema().getQueryType();
+		assertNotNull(query.getFieldDefinition("catalogs"));
+		assertNull(query.getFieldDefinition("hive_sales_orders"));
+		assertEquals(List.of("hive", "mysql"), schemaService.getPendingCatalogs());
+
+		WebGraphQlRequest request = mock(WebGraphQlRequest.class);
+		when(request.getDocument()).thenReturn("{ hive_sales_orders(limit: 1) { order_id } }");
+		interceptor.intercept(request, next -> {
+			assertNotNull(graphQlSource.schema().getQueryType().getFieldDefinition("hive_sales_orders"));
+			return Mono.empty();
+		}).block();
+
+		query = graphQlSource.schema().getQueryType();
+		assertNotNull(query.getFieldDefinition("hive_default_orders"));
+		assertNull(query.getFieldDefinition("mysql_sales_orders"));
+		assertEquals(List.of("mysql"), schemaService.getPendingCatalogs());
+	}
+
+	@Test
+	void testUsedCatalogs() {
+		String document = """
+				query Orders {
+				    ...orders
+				    ... on Query { mysql_crm_customers { id } }
+				}
+				fragment orders on Query { hive_sales_orders { ...order } }
+				fragment order on hive_sales_orders { order_id }
+				""";
+		List<String> catalogs = List.of("hive", "mysql", "postgres");
+
+		assertEquals(Set.of("hive", "mysql"), LazyCatalogInterceptor.usedCatalogs(document, catalogs, catalogs));
+		assertEquals(Set.of(), LazyCatalogInterceptor.usedCatalogs("{ catalogs }", catalogs, catalogs));
+		assertEquals(Set.of(), LazyCatalogInterceptor.usedCatalogs("{ hive_", catalogs, catalogs));
+	}
+
+	@Test
+	void testUsedCatalogsMatchesLongestCatalogOnRootFields() {
+		List<String> catalogs = List.of("a", "a_b", "c");
+
+		assertEquals(Set.of("a_b"),
+				LazyCatalogInterceptor.usedCatalogs("{ a_b_sales_orders { id } }", catalogs, List.of("a", "a_b", "c")));
+		assertEquals(Set.of(),
+				LazyCatalogInterceptor.usedCatalogs("{ a_b_sales_orders { id } }", catalogs, List.of("a", "c")));
+		assertEquals(Set.of("a"),
+				LazyCatalogInterceptor.usedCatalogs("{ a_sales_orders { id } }", catalogs, List.of("a", "a_b", "c")));
+		// Nested selections name related tables, not root fields
+		assertEquals(Set.of(), LazyCatalogInterceptor.usedCatalogs("{ a_b_sales_orders { c_crm_customers { id } } }",
+				catalogs, List.of("a", "c")));
+	}
+
+}